@@ -0,0 +1,45 @@
+// Writes .br and .gz siblings next to compressible build output, so the
+// backend can serve them as-is instead of compressing on every request.
+import { brotliCompressSync, constants, gzipSync } from 'node:zlib'
+import { readdirSync, readFileSync, statSync, writeFileSync } from 'node:fs'
+import { join, resolve } from 'node:path'
+
+const COMPRESSIBLE = /\.(js|mjs|css|html|svg|json|txt|map)$/
+// Below this the encoding overhead isn't worth it
+const MIN_SIZE = 1024
+
+function* files(dir) {
+  for (const name of readdirSync(dir)) {
+    const path = join(dir, name)
+    if (statSync(path).isDirectory()) {
+      yield* files(path)
+    } else {
+      yield path
+    }
+  }
+}
+
+export default function precompress() {
+  let outDir
+  return {
+    name: 'precompress',
+    apply: 'build',
+    configResolved(config) {
+      outDir = resolve(config.root, config.build.outDir)
+    },
+    closeBundle() {
+      for (const path of files(outDir)) {
+        if (!COMPRESSIBLE.test(path)) continue
+        const data = readFileSync(path)
+        if (data.length < MIN_SIZE) continue
+        writeFileSync(`${path}.gz`, gzipSync(data, { level: 9 }))
+        writeFileSync(`${path}.br`, brotliCompressSync(data, {
+          params: {
+            [constants.BROTLI_PARAM_QUALITY]: constants.BROTLI_MAX_QUALITY,
+            [constants.BROTLI_PARAM_SIZE_HINT]: data.length,
+          },
+        }))
+      }
+    },
+  }
+}
@@ -1,9 +1,10 @@
 import { defineConfig } from 'vite'
 import react from '@vitejs/plugin-react'
+import precompress from './precompress.js'
 
 // https://vitejs.dev/config/
 export default defineConfig({
-  plugins: [react()],
+  plugins: [react(), precompress()],
   server: {
     proxy: {
       '/api': {
@@ -12,4 +13,4 @@ export default defineConfig({
       },
     },
   },
-})
\ No newline at end of file
+})
@@ -2,11 +2,14 @@ package com.titus.developer.jugtours;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-@SpringBootApplication
+// R2DBC is only for the reactive API's own context (ReactiveApiConfig); a ConnectionFactory
+// here would make Boot back off from the JDBC DataSource that JPA runs on
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class JugtoursApplication {
 
 	public static void main(String[] args) {
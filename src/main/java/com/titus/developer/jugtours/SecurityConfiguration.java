@@ -1,27 +1,56 @@
 package com.titus.developer.jugtours;
 
+import com.titus.developer.jugtours.web.CookieOAuth2AuthorizationRequestRepository;
 import com.titus.developer.jugtours.web.JwtAuthenticationFilter;
 import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.UserService;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientProperties;
+import org.springframework.boot.autoconfigure.security.oauth2.client.OAuth2ClientPropertiesMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.SupplierClientRegistrationRepository;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
 @Profile("!test")
 @Configuration
+@EnableConfigurationProperties(OAuth2ClientProperties.class)
 public class SecurityConfiguration {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtService jwtService;
+    private final UserService userService;
+    private final CookieOAuth2AuthorizationRequestRepository authorizationRequestRepository;
 
-    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthenticationFilter, JwtService jwtService) {
+    // Separate actuator port (prod); -1 when the actuator shares the application port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthenticationFilter, JwtService jwtService,
+            UserService userService, CookieOAuth2AuthorizationRequestRepository authorizationRequestRepository) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtService = jwtService;
+        this.userService = userService;
+        this.authorizationRequestRepository = authorizationRequestRepository;
+    }
+
+    // Boot would fetch the issuer's OIDC discovery document while the context starts, a round
+    // trip to Auth0 on every cold start; it is fetched on the first login or logout instead
+    @Bean
+    public ClientRegistrationRepository clientRegistrationRepository(OAuth2ClientProperties properties) {
+        return new SupplierClientRegistrationRepository(() -> new InMemoryClientRegistrationRepository(
+                new OAuth2ClientPropertiesMapper(properties).asClientRegistrations()));
     }
 
     @Bean
@@ -30,18 +59,37 @@ public class SecurityConfiguration {
                 .cors()
                 .and()
                 .csrf().disable() // Disable CSRF since we're using JWT
+                // No HTTP session anywhere: requests authenticate with the JWT and the
+                // in-flight login lives in a signed cookie, so any instance can serve any request
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
                 .authorizeHttpRequests((authz) -> authz
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                        .requestMatchers("/", "/index.html", "/static/**",
+                        .requestMatchers("/", "/index.html", "/static/**", "/assets/**",
                                 "/*.ico", "/*.json", "/*.png", "/api/auth/user")
                         .permitAll()
                         .requestMatchers("/oauth2/**", "/login/**", "/api/auth/token", "/api/test/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // The Prometheus scraper, on the management port only; anywhere else
+                        // the metrics are for admins
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                        .requestMatchers("/actuator/prometheus").hasAuthority(JwtAuthenticationFilter.ADMIN_AUTHORITY)
+                        // Parked RSVPs, slow-query binds and JFR dumps: users listed in admin.subjects only
+                        .requestMatchers("/api/admin/**").hasAuthority(JwtAuthenticationFilter.ADMIN_AUTHORITY)
                         .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .oauth2Login(oauth2 -> oauth2
+                        // The page Spring would pick for a single provider anyway, named up front
+                        // so it doesn't list the registrations (and so resolve them) at startup
+                        .loginPage("/oauth2/authorization/auth0")
+                        .authorizationEndpoint(endpoint -> endpoint
+                                .authorizationRequestRepository(authorizationRequestRepository))
                         .successHandler((request, response, authentication) -> {
                             // Generate JWT token immediately and pass it to frontend
                             OAuth2User user = (OAuth2User) authentication.getPrincipal();
+                            // Create or refresh the user row once here, not on every write
+                            userService.upsert(user);
                             String token = jwtService.generateToken(user);
                             
                             String referer = request.getHeader("referer");
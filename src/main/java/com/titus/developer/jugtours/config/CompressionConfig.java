@@ -0,0 +1,60 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.web.CompressionFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Gzip for API responses; see {@link CompressionFilter}. Static assets are
+ * compressed at build time instead (StaticResourceConfig).
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(
+            @Value("${http.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${http.compression.mime-types:application/json}") List<MediaType> mimeTypes,
+            @Value("${http.compression.level:5}") int level) {
+        FilterRegistrationBean<CompressionFilter> registration = new FilterRegistrationBean<>(
+                new CompressionFilter((int) minResponseSize.toBytes(), mimeTypes, level));
+        registration.addUrlPatterns("/api/*");
+        // Outside Spring Security and the concurrency limit, so it also covers their responses;
+        // inside tracing, so traces include the cost. The body is gzipped as the handler writes
+        // it, so most of the compressing happens while the request holds its concurrency
+        // permit; only the final block is written after the permit is released
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder compressionMetrics(FilterRegistrationBean<CompressionFilter> compressionFilter) {
+        CompressionFilter filter = compressionFilter.getFilter();
+        return registry -> {
+            FunctionCounter.builder("http.server.compression.responses", filter, CompressionFilter::compressed)
+                    .description("API responses sent gzipped")
+                    .register(registry);
+            FunctionCounter.builder("http.server.compression.bytes", filter, CompressionFilter::bytesIn)
+                    .description("Size of the gzipped responses before compression")
+                    .baseUnit("bytes")
+                    .tag("stage", "in")
+                    .register(registry);
+            FunctionCounter.builder("http.server.compression.bytes", filter, CompressionFilter::bytesOut)
+                    .description("Size of the gzipped responses on the wire")
+                    .baseUnit("bytes")
+                    .tag("stage", "out")
+                    .register(registry);
+        };
+    }
+}
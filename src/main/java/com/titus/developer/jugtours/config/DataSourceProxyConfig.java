@@ -0,0 +1,61 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.service.SlowQueryLog;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+
+/**
+ * Wraps the DataSource in a datasource-proxy for whichever JDBC listeners are
+ * switched on: per-request query counting ({@code jdbc.query-counting.enabled},
+ * see {@link QueryCountingConfig}) and the slow-query log
+ * ({@code jdbc.slow-query.enabled}, see {@link SlowQueryLog}). With neither,
+ * the DataSource is left as it is.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment,
+            ObjectProvider<SlowQueryLog> slowQueryLog) {
+        boolean counting = environment.getProperty("jdbc.query-counting.enabled", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                SlowQueryLog slowQueries = slowQueryLog.getIfAvailable();
+                boolean slowQueryLogging = slowQueries != null && slowQueries.isEnabled();
+                if (!counting && !slowQueryLogging) {
+                    return bean;
+                }
+
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource);
+                if (slowQueryLogging) {
+                    slowQueries.setExplainDataSource(dataSource);
+                    builder.listener(slowQueries);
+                }
+                if (counting) {
+                    builder.afterQuery((execution, queries) -> QueryCounter.statement())
+                            .proxyResultSet()
+                            .afterMethod(method -> {
+                                if (method.getTarget() instanceof ResultSet
+                                        && method.getMethod().getName().equals("next")
+                                        && Boolean.TRUE.equals(method.getResult())) {
+                                    QueryCounter.row();
+                                }
+                            });
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.messaging.RsvpMessageConsumer;
+import com.titus.developer.jugtours.service.FlightRecorderService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that must still start with the context when
+ * spring.main.lazy-initialization is on (the faststart profile), because
+ * nothing else would ever ask for them: the RabbitMQ listeners only subscribe
+ * once their bean exists, and the continuous JFR recording is meant to cover
+ * startup too. Everything else is created on first use.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(RsvpMessageConsumer.class, FlightRecorderService.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.UserService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Application meters on top of what Actuator binds by itself (HTTP server
+ * latency, Hikari, Hibernate statistics, JVM memory, GC and allocation).
+ *
+ * The in-process caches are published under Micrometer's standard cache
+ * meter names, so hit ratios come out of the usual cache dashboards:
+ * {@code rate(cache_gets_total{result="hit"}[5m]) / rate(cache_gets_total[5m])}.
+ * The counters are read at scrape time; nothing is recorded on the request path
+ * beyond the services' own atomic increments.
+ *
+ * Hibernate's second-level and query cache regions are published the same way,
+ * one cache tag per region (entity.group, query.group-summaries, ...), from
+ * the statistics Hibernate already keeps. Ehcache doesn't report entry counts
+ * through JCache, so those regions have no cache.size.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder userCacheMetrics(UserService userService) {
+        return registry -> bindCache(registry, "users", userService,
+                UserService::cacheHits, UserService::cacheMisses, UserService::size);
+    }
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics(JwtService jwtService) {
+        return registry -> bindCache(registry, "jwt.verified", jwtService,
+                JwtService::cacheHits, JwtService::cacheMisses, JwtService::cacheSize);
+    }
+
+    // Regions come from the cache manager: query regions only exist in Hibernate once first used
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory,
+            ObjectProvider<CacheManager> hibernateCacheManager) {
+        return registry -> hibernateCacheManager.ifAvailable(cacheManager -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : cacheManager.getCacheNames()) {
+                bindLookups(registry, region, statistics,
+                        s -> regionCount(s, region, CacheRegionStatistics::getHitCount),
+                        s -> regionCount(s, region, CacheRegionStatistics::getMissCount));
+            }
+        });
+    }
+
+    private static long regionCount(Statistics statistics, String region,
+            ToLongFunction<CacheRegionStatistics> count) {
+        CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+        return stats != null ? count.applyAsLong(stats) : 0;
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String cache, T source,
+            ToLongFunction<T> hits, ToLongFunction<T> misses, ToDoubleFunction<T> size) {
+        bindLookups(registry, cache, source, hits, misses);
+        Gauge.builder("cache.size", source, size)
+                .tags("cache", cache)
+                .description("Entries currently cached")
+                .register(registry);
+    }
+
+    private static <T> void bindLookups(MeterRegistry registry, String cache, T source,
+            ToLongFunction<T> hits, ToLongFunction<T> misses) {
+        FunctionCounter.builder("cache.gets", source, s -> hits.applyAsLong(s))
+                .tags("cache", cache, "result", "hit")
+                .description("Lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", source, s -> misses.applyAsLong(s))
+                .tags("cache", cache, "result", "miss")
+                .description("Lookups that fell through to the source")
+                .register(registry);
+    }
+}
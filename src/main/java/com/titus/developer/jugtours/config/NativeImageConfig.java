@@ -0,0 +1,107 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.PendingRsvp;
+import com.titus.developer.jugtours.model.RevokedToken;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.WaitlistEntry;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * What the native image (mvn -Pnative) needs beyond what Spring AOT works out
+ * from the bean definitions: everything reached by reflection, resource
+ * lookups or JDK proxies only at runtime.
+ *
+ * Hibernate proxies are not among them: a native image can't define classes at
+ * runtime, so the native profile enhances the entities at build time and they
+ * act as their own lazy proxies. (Hibernate 6.6 picks its bytecode provider
+ * through ServiceLoader and ignores hibernate.bytecode.provider, so there is
+ * no setting to turn runtime proxies off.)
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+public class NativeImageConfig {
+
+    public static class Hints implements RuntimeHintsRegistrar {
+
+        // Looked up by name from jjwt-api (Jwts, Keys, Jwks), so nothing
+        // else tells the image they are used
+        public static final List<String> JJWT_IMPL = List.of(
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+                "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+                "io.jsonwebtoken.impl.security.JwksBridge",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms");
+
+        // jjwt-jackson, found through ServiceLoader
+        public static final List<String> JJWT_JACKSON = List.of(
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Entities: Hibernate sets their (Lombok-generated) fields and
+            // constructors reflectively, and Jackson binds them as request
+            // bodies. RsvpMessage is read off RabbitMQ by type id header
+            // through its @JsonCreator constructor
+            BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+            for (Class<?> type : List.of(Event.class, Group.class, User.class, WaitlistEntry.class,
+                    RevokedToken.class, PendingRsvp.class, RsvpMessage.class)) {
+                bindings.registerReflectionHints(hints.reflection(), type);
+                hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            for (String type : JJWT_IMPL) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (String type : JJWT_JACKSON) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            // datasource-proxy wraps every JDBC object in a JDK proxy
+            for (Class<?> jdbcType : List.of(DataSource.class, Connection.class, Statement.class,
+                    PreparedStatement.class, CallableStatement.class, ResultSet.class)) {
+                hints.proxies().registerJdkProxy(TypeReference.of(ProxyJdbcObject.class), TypeReference.of(jdbcType));
+            }
+
+            // Second-level cache regions, and the schemas Ehcache validates them against
+            hints.resources().registerPattern("ehcache.xml");
+            hints.resources().registerPattern("ehcache-*.xsd");
+        }
+    }
+}
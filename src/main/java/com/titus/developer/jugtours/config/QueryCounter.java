@@ -0,0 +1,112 @@
+package com.titus.developer.jugtours.config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Per-thread tally of the database work done inside a scope, normally one
+ * HTTP request (see {@link com.titus.developer.jugtours.web.QueryCountingFilter}).
+ * Statements and rows are counted by the datasource proxy, lazily fetched
+ * collections by a Hibernate listener; see {@link QueryCountingConfig}.
+ *
+ * Scopes nest: work counts towards every scope open on the thread, and a
+ * scope closed inside another is kept by the outer one. That is how a test
+ * sees the individual requests it made. Outside any scope nothing is counted.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Deque<Scope>> OPEN = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope begin(String name) {
+        Deque<Scope> open = OPEN.get();
+        if (open == null) {
+            open = new ArrayDeque<>(2);
+            OPEN.set(open);
+        }
+        Scope scope = new Scope(name);
+        open.push(scope);
+        return scope;
+    }
+
+    static void statement() {
+        Deque<Scope> open = OPEN.get();
+        if (open != null) {
+            open.forEach(scope -> scope.statements++);
+        }
+    }
+
+    static void row() {
+        Deque<Scope> open = OPEN.get();
+        if (open != null) {
+            open.forEach(scope -> scope.rows++);
+        }
+    }
+
+    static void collectionFetch() {
+        Deque<Scope> open = OPEN.get();
+        if (open != null) {
+            open.forEach(scope -> scope.collections++);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final String name;
+        private long statements;
+        private long rows;
+        private long collections;
+        private final List<Scope> nested = new ArrayList<>();
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** JDBC executions; a batch counts once. */
+        public long getStatements() {
+            return statements;
+        }
+
+        /** Rows read from result sets. */
+        public long getRows() {
+            return rows;
+        }
+
+        /** Lazy collections initialized with their own query - the usual N+1. */
+        public long getCollections() {
+            return collections;
+        }
+
+        /** Scopes that were opened and closed inside this one, in order. */
+        public List<Scope> getNested() {
+            return nested;
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> open = OPEN.get();
+            if (open == null) {
+                return;
+            }
+            open.remove(this);
+            if (open.isEmpty()) {
+                OPEN.remove();
+            } else {
+                open.peek().nested.add(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + statements + " statements, " + rows + " rows, "
+                    + collections + " collection fetches";
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.web.QueryCountingFilter;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Counts the statements, rows and lazy collection fetches behind each
+ * request, so N+1 selects and in-memory pagination show up in development
+ * and fail the controller tests' query budgets instead of surfacing under
+ * load. Statements and rows are counted by the DataSource proxy (see
+ * {@link DataSourceProxyConfig}). Off in prod: every result-set row goes
+ * through the proxy.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jdbc.query-counting.enabled", havingValue = "true")
+public class QueryCountingConfig {
+
+    // Collections loaded by a fetch join are not counted, only ones initialized on access
+    @Bean
+    HibernatePropertiesCustomizer collectionFetchCounter() {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                    SessionFactoryImplementor sessionFactory) {
+                sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                        .appendListeners(EventType.INIT_COLLECTION, event -> QueryCounter.collectionFetch());
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory,
+                    SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+
+    @Bean
+    FilterRegistrationBean<QueryCountingFilter> queryCountingFilter(
+            @Value("${jdbc.query-counting.headers:false}") boolean headers) {
+        FilterRegistrationBean<QueryCountingFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountingFilter(headers));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of Spring Security, so user lookups during authentication are included
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -1,73 +1,145 @@
 package com.titus.developer.jugtours.config;
 
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-// @Configuration
-// @EnableRabbit
-// @ConditionalOnProperty(name = "rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
+/**
+ * RabbitMQ topology and listener containers for RSVP processing.
+ *
+ * Only active when {@code rabbitmq.enabled=true}; RabbitAutoConfiguration must
+ * then also be removed from {@code spring.autoconfigure.exclude} so a
+ * ConnectionFactory and the listener configurer are available.
+ */
+@Configuration
+@EnableRabbit
+@ConditionalOnProperty(name = "rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
 public class RabbitConfig {
 
     // Queue names
     public static final String RSVP_CONFIRMED_QUEUE = "rsvp.confirmed.queue";
     public static final String WAITLIST_QUEUE = "waitlist.queue";
     public static final String RSVP_CANCELLED_QUEUE = "rsvp.cancelled.queue";
-    
+
     // Exchange name
     public static final String RSVP_EXCHANGE = "rsvp.exchange";
-    
+
     // Routing keys
     public static final String RSVP_CONFIRMED_ROUTING_KEY = "rsvp.confirmed";
     public static final String WAITLIST_ROUTING_KEY = "rsvp.waitlist";
     public static final String RSVP_CANCELLED_ROUTING_KEY = "rsvp.cancelled";
 
+    // Each queue dead-letters to its own fanout exchange "<queue>.dlx", which
+    // feeds a parking queue "<queue>.parked"
+    public static final String DEAD_LETTER_EXCHANGE_SUFFIX = ".dlx";
+    public static final String PARKED_QUEUE_SUFFIX = ".parked";
+
+    // Listener container factory used by the batch RSVP consumers
+    public static final String BATCH_LISTENER_FACTORY = "rsvpBatchListenerContainerFactory";
+
+    // How long a consumer waits to fill a batch before handing over a partial one
+    @Value("${rabbitmq.listener.batch-receive-timeout:100}")
+    private long batchReceiveTimeout;
+
     // Queues
-    // @Bean
+    @Bean
     public Queue rsvpConfirmedQueue() {
-        return new Queue(RSVP_CONFIRMED_QUEUE, true); // durable = true
+        return deadLetteredQueue(RSVP_CONFIRMED_QUEUE);
     }
 
-    // @Bean
+    @Bean
     public Queue waitlistQueue() {
-        return new Queue(WAITLIST_QUEUE, true);
+        return deadLetteredQueue(WAITLIST_QUEUE);
     }
 
-    // @Bean
+    @Bean
     public Queue rsvpCancelledQueue() {
-        return new Queue(RSVP_CANCELLED_QUEUE, true);
+        return deadLetteredQueue(RSVP_CANCELLED_QUEUE);
+    }
+
+    // Dead-letter exchanges and parking queues. Messages land here when the
+    // container rejects them (e.g. they can't be converted) - processing
+    // failures are retried by RsvpRetryScheduler first.
+    @Bean
+    public FanoutExchange rsvpConfirmedDeadLetterExchange() {
+        return new FanoutExchange(RSVP_CONFIRMED_QUEUE + DEAD_LETTER_EXCHANGE_SUFFIX);
+    }
+
+    @Bean
+    public FanoutExchange waitlistDeadLetterExchange() {
+        return new FanoutExchange(WAITLIST_QUEUE + DEAD_LETTER_EXCHANGE_SUFFIX);
+    }
+
+    @Bean
+    public FanoutExchange rsvpCancelledDeadLetterExchange() {
+        return new FanoutExchange(RSVP_CANCELLED_QUEUE + DEAD_LETTER_EXCHANGE_SUFFIX);
+    }
+
+    @Bean
+    public Queue rsvpConfirmedParkedQueue() {
+        return new Queue(RSVP_CONFIRMED_QUEUE + PARKED_QUEUE_SUFFIX, true);
+    }
+
+    @Bean
+    public Queue waitlistParkedQueue() {
+        return new Queue(WAITLIST_QUEUE + PARKED_QUEUE_SUFFIX, true);
+    }
+
+    @Bean
+    public Queue rsvpCancelledParkedQueue() {
+        return new Queue(RSVP_CANCELLED_QUEUE + PARKED_QUEUE_SUFFIX, true);
+    }
+
+    @Bean
+    public Binding rsvpConfirmedParkedBinding() {
+        return BindingBuilder.bind(rsvpConfirmedParkedQueue()).to(rsvpConfirmedDeadLetterExchange());
+    }
+
+    @Bean
+    public Binding waitlistParkedBinding() {
+        return BindingBuilder.bind(waitlistParkedQueue()).to(waitlistDeadLetterExchange());
+    }
+
+    @Bean
+    public Binding rsvpCancelledParkedBinding() {
+        return BindingBuilder.bind(rsvpCancelledParkedQueue()).to(rsvpCancelledDeadLetterExchange());
     }
 
     // Exchange
-    // @Bean
+    @Bean
     public TopicExchange rsvpExchange() {
         return new TopicExchange(RSVP_EXCHANGE);
     }
 
     // Bindings
-    // @Bean
+    @Bean
     public Binding rsvpConfirmedBinding() {
         return BindingBuilder.bind(rsvpConfirmedQueue())
                 .to(rsvpExchange())
                 .with(RSVP_CONFIRMED_ROUTING_KEY);
     }
 
-    // @Bean
+    @Bean
     public Binding waitlistBinding() {
         return BindingBuilder.bind(waitlistQueue())
                 .to(rsvpExchange())
                 .with(WAITLIST_ROUTING_KEY);
     }
 
-    // @Bean
+    @Bean
     public Binding rsvpCancelledBinding() {
         return BindingBuilder.bind(rsvpCancelledQueue())
                 .to(rsvpExchange())
@@ -75,16 +147,40 @@ public class RabbitConfig {
     }
 
     // JSON message converter
-    // @Bean
+    @Bean
     public Jackson2JsonMessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
     // RabbitTemplate with JSON converter
-    // @Bean
+    @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter());
         return template;
     }
-}
\ No newline at end of file
+
+    // Batch listener container factory. Concurrency, prefetch and batch size come
+    // from spring.rabbitmq.listener.simple.* via Boot's configurer; each consumer
+    // hands the listener a List<RsvpMessage> of up to batch-size messages.
+    @Bean(name = BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory rsvpBatchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setReceiveTimeout(batchReceiveTimeout);
+        // Never requeue a rejected batch - that hot-loops on poison messages.
+        // Rejected messages go to the queue's dead-letter exchange instead.
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    private static Queue deadLetteredQueue(String name) {
+        return QueueBuilder.durable(name)
+                .deadLetterExchange(name + DEAD_LETTER_EXCHANGE_SUFFIX)
+                .build();
+    }
+}
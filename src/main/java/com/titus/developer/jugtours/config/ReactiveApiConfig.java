@@ -0,0 +1,27 @@
+package com.titus.developer.jugtours.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Non-blocking read API, enabled by reactive.enabled=true.
+ *
+ * The browse endpoints (event listing, search and calendar dates, and the
+ * paginated group listing) are served a second time by WebFlux on
+ * reactive.server.port, reading through R2DBC instead of JPA. Everything
+ * else, writes included, stays on the MVC controllers on server.port, so
+ * the two stacks can be run side by side against the same database and
+ * compared per core. The reactive side reads spring.datasource's database
+ * unless reactive.r2dbc.url says otherwise, e.g. to send it to a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveApiConfig {
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ConfigurableApplicationContext context) {
+        return new ReactiveApiServer(context);
+    }
+}
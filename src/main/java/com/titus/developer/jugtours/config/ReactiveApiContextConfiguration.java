@@ -0,0 +1,155 @@
+package com.titus.developer.jugtours.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titus.developer.jugtours.model.ReactiveEventRepository;
+import com.titus.developer.jugtours.model.ReactiveGroupRepository;
+import com.titus.developer.jugtours.service.ImageService;
+import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.TokenRevocationService;
+import com.titus.developer.jugtours.web.ReactiveBrowseHandler;
+import com.titus.developer.jugtours.web.ReactiveJwtAuthenticationFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.handler.ResponseStatusExceptionHandler;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.time.Duration;
+
+/**
+ * The reactive API's own context, started by {@link ReactiveApiServer}: an
+ * R2DBC pool, the repositories, the routes and a Netty server. Deliberately
+ * not a @Configuration, so the main context's component scan leaves it alone;
+ * there an R2DBC ConnectionFactory bean would switch off Boot's DataSource.
+ * JwtService, the ObjectMapper and other shared beans come from the parent.
+ */
+@EnableR2dbcRepositories(basePackageClasses = ReactiveEventRepository.class)
+class ReactiveApiContextConfiguration extends AbstractR2dbcConfiguration {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private final Duration maxAcquireTime;
+
+    ReactiveApiContextConfiguration(
+            @Value("${reactive.r2dbc.url:}") String url,
+            @Value("${spring.datasource.url}") String jdbcUrl,
+            @Value("${reactive.r2dbc.username:${spring.datasource.username:}}") String username,
+            @Value("${reactive.r2dbc.password:${spring.datasource.password:}}") String password,
+            @Value("${reactive.r2dbc.pool.max-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${reactive.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        this.url = url.isBlank() ? r2dbcUrl(jdbcUrl) : url;
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    // No auto-configuration in here to provide one
+    @Bean
+    static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    // jdbc:postgresql://host/db -> r2dbc:postgresql://host/db, jdbc:h2:mem:name -> r2dbc:h2:mem:///name
+    static String r2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            String name = jdbcUrl.substring("jdbc:h2:mem:".length()).split(";")[0];
+            return "r2dbc:h2:mem:///" + name;
+        }
+        if (jdbcUrl.startsWith("jdbc:postgresql:")) {
+            return "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        }
+        throw new IllegalStateException("No R2DBC URL for " + jdbcUrl + "; set reactive.r2dbc.url");
+    }
+
+    @Override
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .maxSize(poolSize)
+                .initialSize(Math.min(poolSize, 2))
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory(
+            @Value("${reactive.server.port:8081}") int port,
+            @Value("${server.http2.enabled:false}") boolean http2Enabled,
+            @Value("${http.compression.enabled:false}") boolean compressionEnabled,
+            @Value("${http.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${http.compression.mime-types:application/json}") String[] mimeTypes) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(port);
+        Http2 http2 = new Http2();
+        http2.setEnabled(http2Enabled);
+        factory.setHttp2(http2);
+        // Netty's gzip has no level setting either; threshold and types as for CompressionFilter
+        Compression compression = new Compression();
+        compression.setEnabled(compressionEnabled);
+        compression.setMinResponseSize(minResponseSize);
+        compression.setMimeTypes(mimeTypes);
+        factory.setCompression(compression);
+        return factory;
+    }
+
+    @Bean
+    public ReactiveBrowseHandler reactiveBrowseHandler(ReactiveEventRepository eventRepository,
+            ReactiveGroupRepository groupRepository, ImageService imageService) {
+        return new ReactiveBrowseHandler(eventRepository, groupRepository, imageService);
+    }
+
+    @Bean
+    public HttpHandler httpHandler(ReactiveBrowseHandler handler, JwtService jwtService,
+            TokenRevocationService revocationService, ObjectMapper objectMapper,
+            ObservationRegistry observationRegistry) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/api/events/available", handler::availableEvents)
+                .GET("/api/events/search", handler::searchEvents)
+                .GET("/api/events/calendar-dates", handler::calendarDates)
+                .GET("/api/groups/available/paginated", handler::availableGroups)
+                .filter(new ReactiveJwtAuthenticationFilter(jwtService, revocationService))
+                .filter((request, next) -> {
+                    // Without a HandlerMapping nothing else tells the observation which route matched
+                    request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE).ifPresent(pattern ->
+                            ServerRequestObservationContext.findCurrent(request.exchange().getAttributes())
+                                    .ifPresent(context -> context.setPathPattern(((PathPattern) pattern).getPatternString())));
+                    return next.handle(request);
+                })
+                .build();
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        return WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(routes, strategies))
+                .exceptionHandler(new ResponseStatusExceptionHandler())
+                .observationRegistry(observationRegistry)
+                .observationConvention(new DefaultServerRequestObservationConvention("http.server.reactive.requests"))
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.titus.developer.jugtours.config;
+
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Runs the reactive API in a child context of the application, on its own
+ * Netty server and port, the way Boot runs a separate management server.
+ * Started and stopped with the application.
+ */
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final ConfigurableApplicationContext parent;
+    private volatile AnnotationConfigReactiveWebServerApplicationContext context;
+
+    public ReactiveApiServer(ConfigurableApplicationContext parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public void start() {
+        AnnotationConfigReactiveWebServerApplicationContext child = new AnnotationConfigReactiveWebServerApplicationContext();
+        child.setId(parent.getId() + ":reactive");
+        child.setParent(parent);
+        // Publishes local.reactive.port rather than overwriting the main server's local.server.port
+        child.setServerNamespace("reactive");
+        // As SpringApplication sets up the main context, so @Value can take 5s or 2KB
+        child.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        child.register(ReactiveApiContextConfiguration.class);
+        child.refresh();
+        context = child;
+    }
+
+    @Override
+    public void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return context != null;
+    }
+
+    public int getPort() {
+        return context.getWebServer().getPort();
+    }
+}
@@ -0,0 +1,89 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.service.ReadYourWritesService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in jdbc.replicas.urls
+ * (comma separated). Replaces Boot's single pool with a
+ * {@link ReplicaRoutingDataSource}: the primary keeps spring.datasource.*,
+ * and each replica is a read-only copy of its Hikari settings with its own
+ * URL and, optionally, jdbc.replicas.username/password.
+ *
+ * Hibernate normally holds a connection for the whole session, and with
+ * open-session-in-view that is the whole request. A read-only transaction
+ * followed by a write in the same request would then write through the
+ * replica connection. So here connections are released after every
+ * transaction, and each one is routed afresh.
+ */
+@Configuration
+@ConditionalOnExpression("!'${jdbc.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+            ReadYourWritesService readYourWrites, ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${jdbc.replicas.urls}") List<String> replicaUrls,
+            @Value("${jdbc.replicas.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${jdbc.replicas.password:${spring.datasource.password:}}") String replicaPassword) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            // Actuator only instruments the primary it finds in the context
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.add(replica);
+        }
+        ReplicaRoutingDataSource dataSource =
+                new ReplicaRoutingDataSource(primary, replicas, readYourWrites::isCurrentUserPinned);
+        // Bound here: once the bean is wrapped for query counting it is no longer injectable by this type
+        meterRegistry.ifAvailable(registry -> {
+            bindRoute(registry, dataSource, "primary", ReplicaRoutingDataSource::primaryConnections);
+            bindRoute(registry, dataSource, "replica", ReplicaRoutingDataSource::replicaConnections);
+            bindRoute(registry, dataSource, "pinned", ReplicaRoutingDataSource::pinnedReads);
+            bindRoute(registry, dataSource, "replica-failed", ReplicaRoutingDataSource::replicaFailures);
+        });
+        return dataSource;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static void bindRoute(MeterRegistry registry, ReplicaRoutingDataSource dataSource, String route,
+            ToLongFunction<ReplicaRoutingDataSource> count) {
+        FunctionCounter.builder("jdbc.routing.connections", dataSource, count::applyAsLong)
+                .description("Connections handed out by the replica router, by where they went")
+                .tag("route", route)
+                .register(registry);
+    }
+}
@@ -0,0 +1,124 @@
+package com.titus.developer.jugtours.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends read-only transactions to a pool of replicas and everything else to
+ * the primary.
+ *
+ * The physical connection is only fetched at the first statement, by which
+ * time the transaction manager has marked the transaction read-only or not;
+ * until then callers hold a lazy handle. Work outside any transaction (lazy
+ * loads under open-session-in-view) stays on the primary. Replicas are taken
+ * round-robin, and a replica that cannot hand out a connection falls back to
+ * the primary rather than failing the read.
+ *
+ * A caller that has just written (see pinnedToPrimary) reads from the primary
+ * too, so it never sees replica lag on its own changes.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong replicaFailures = new AtomicLong();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+            BooleanSupplier pinnedToPrimary) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        setTargetDataSource(new Router(pinnedToPrimary));
+        afterPropertiesSet();
+    }
+
+    public long primaryConnections() {
+        return primaryConnections.get();
+    }
+
+    public long replicaConnections() {
+        return replicaConnections.get();
+    }
+
+    public long pinnedReads() {
+        return pinnedReads.get();
+    }
+
+    public long replicaFailures() {
+        return replicaFailures.get();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private class Router extends AbstractDataSource {
+
+        private final BooleanSupplier pinnedToPrimary;
+
+        Router(BooleanSupplier pinnedToPrimary) {
+            this.pinnedToPrimary = pinnedToPrimary;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                primaryConnections.incrementAndGet();
+                return primary.getConnection();
+            }
+            if (pinnedToPrimary.getAsBoolean()) {
+                pinnedReads.incrementAndGet();
+                return primary.getConnection();
+            }
+
+            HikariDataSource replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replicaFailures.incrementAndGet();
+                log.warn("Replica {} unavailable, reading from the primary: {}", replica.getPoolName(), e.getMessage());
+                primaryConnections.incrementAndGet();
+                return primary.getConnection();
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Credentials are configured per pool");
+        }
+
+        // Lets Actuator find the primary Hikari pool for its metrics and health
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(primary) ? (T) primary : super.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(primary) || super.isWrapperFor(iface);
+        }
+    }
+}
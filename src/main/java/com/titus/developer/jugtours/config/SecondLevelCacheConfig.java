@@ -0,0 +1,48 @@
+package com.titus.developer.jugtours.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Hands Hibernate's second-level cache a JCache manager of its own, built from
+ * the regions in hibernate.javax.cache.uri (ehcache.xml).
+ *
+ * Left to itself, Hibernate asks the caching provider for the manager behind
+ * that URI, which is one per JVM. Every application context in the JVM (the
+ * test contexts, a devtools restart) would then share the same regions, and
+ * the first one to shut down would close them under the others. (Slices
+ * that don't load this class, like @DataJpaTest, still get that behaviour.)
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    // Closed by Hibernate when the session factory is; closing again is a no-op
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(ApplicationContext context,
+            @Value("classpath:${spring.jpa.properties.hibernate.javax.cache.uri}") Resource config) throws IOException {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), getClass().getClassLoader());
+        URI uri = URI.create("urn:jugtours:hibernate:" + ObjectUtils.getIdentityHexString(context));
+        return provider.getCacheManager(uri, new XmlConfiguration(config.getURL(), getClass().getClassLoader()));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,58 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.web.SpaWebFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnResource;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serving of the React bundle that the prod Maven profile copies into
+ * classpath:/static.
+ *
+ * Vite fingerprints everything under /assets, so those files never change
+ * under a given URL and are cached for a year as immutable. index.html is
+ * what points at the current fingerprints, so browsers must revalidate it on
+ * every load. The build writes .br and .gz siblings next to each asset and
+ * EncodedResourceResolver picks the best one the client accepts, so nothing
+ * is compressed at request time.
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/assets/**")
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+
+        registry.addResourceHandler("/index.html")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+
+    // Only when the bundle is actually packaged; otherwise "/" keeps redirecting to the hosted frontend
+    @Bean
+    @ConditionalOnResource(resources = "classpath:static/index.html")
+    public FilterRegistrationBean<SpaWebFilter> spaWebFilter() {
+        FilterRegistrationBean<SpaWebFilter> registration = new FilterRegistrationBean<>(new SpaWebFilter());
+        registration.addUrlPatterns("/*");
+        // Ahead of Spring Security, so client-side routes never need a token; the forward is re-checked
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
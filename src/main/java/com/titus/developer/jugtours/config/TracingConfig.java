@@ -0,0 +1,68 @@
+package com.titus.developer.jugtours.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titus.developer.jugtours.web.ObservedJsonHttpMessageConverter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Spans for the parts of a request the HTTP server span lumps together, so a
+ * slow endpoint can be broken down into:
+ * <ul>
+ * <li>{@code jugtours.jwt.authenticate} - token verification in JwtAuthenticationFilter</li>
+ * <li>{@code jugtours.repository} - every Spring Data repository call</li>
+ * <li>{@code jugtours.view.mapping} - building response maps, including lazy loads</li>
+ * <li>{@code jugtours.json.write} - Jackson writing the response body</li>
+ * </ul>
+ * Each is a Micrometer Observation, so it is both a span (exported over OTLP
+ * when an endpoint is configured) and a timer in /actuator/prometheus.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> registry) {
+        return new BeanPostProcessor() {
+            // Before initialization: the factory bean creates the repository proxy in afterPropertiesSet
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    repositoryObservation(registry, information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            ObservationRegistry registry) {
+        return new ObservedJsonHttpMessageConverter(objectMapper, registry);
+    }
+
+    private static MethodInterceptor repositoryObservation(ObjectProvider<ObservationRegistry> registry,
+            Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return invocation -> {
+            String method = invocation.getMethod().getName();
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            return Observation.createNotStarted("jugtours.repository",
+                            registry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                    .contextualName(repository + "." + method)
+                    .lowCardinalityKeyValue("repository", repository)
+                    .lowCardinalityKeyValue("method", method)
+                    .observeChecked(invocation::proceed);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.titus.developer.jugtours.config;
+
+import com.titus.developer.jugtours.web.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Extra guard rails for virtual-thread mode.
+ *
+ * Setting spring.threads.virtual.enabled=true on Java 21+ is the switch.
+ * Boot then runs Tomcat requests, the application task executor and the
+ * RabbitMQ listener containers (RsvpMessageConsumer) on virtual threads.
+ * What it no longer bounds is how many requests compete for database
+ * connections, so this adds {@link ConcurrencyLimitFilter} in front of the
+ * API. On Java 17, or with the property off, nothing here is created and
+ * requests run on Tomcat's platform thread pool as before.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${http.concurrency-limit.permits:40}") int permits,
+            @Value("${http.concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(permits, acquireTimeout));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of Spring Security: authentication already looks up revoked tokens and users
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(
+            FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter) {
+        ConcurrencyLimitFilter filter = concurrencyLimitFilter.getFilter();
+        return registry -> {
+            Gauge.builder("http.concurrency.limit.in.flight", filter, ConcurrencyLimitFilter::inFlight)
+                    .description("API requests holding a concurrency permit")
+                    .register(registry);
+            FunctionCounter.builder("http.concurrency.limit.rejected", filter, ConcurrencyLimitFilter::rejected)
+                    .description("API requests turned away with 503 for want of a permit")
+                    .register(registry);
+        };
+    }
+}
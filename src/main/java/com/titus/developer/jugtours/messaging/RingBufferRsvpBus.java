@@ -0,0 +1,233 @@
+package com.titus.developer.jugtours.messaging;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-JVM RSVP pipeline used when RabbitMQ is disabled.
+ *
+ * Messages go into a preallocated ring buffer and a single consumer thread hands
+ * them to {@link RsvpBatchProcessor} in batches. Consecutive messages with the
+ * same type are grouped into one batch; a type change flushes the current batch
+ * so confirm/cancel ordering is preserved. When the ring is full, publishers
+ * (request threads) wait up to offer-timeout for the consumer to catch up and
+ * then get a failed future, as with the RabbitMQ producer's window. The
+ * consumer itself (waitlist promotions are published from inside a batch)
+ * can't wait for its own progress, and hands the message to the retry
+ * scheduler instead.
+ */
+@Service
+@ConditionalOnProperty(name = "rabbitmq.enabled", havingValue = "false", matchIfMissing = true)
+public class RingBufferRsvpBus implements RsvpMessagePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferRsvpBus.class);
+
+    private final RsvpBatchProcessor batchProcessor;
+    private final RsvpRetryScheduler retryScheduler;
+
+    // Must be a power of two
+    @Value("${rsvp.bus.ring-size:1024}")
+    private int ringSize;
+
+    // blocking, sleeping, yielding or busy-spin
+    @Value("${rsvp.bus.wait-strategy:blocking}")
+    private String waitStrategy;
+
+    @Value("${rsvp.bus.max-batch-size:50}")
+    private int maxBatchSize;
+
+    // How long a publisher waits for room in a full ring, in milliseconds
+    @Value("${rsvp.bus.offer-timeout:100}")
+    private long offerTimeout;
+
+    private Disruptor<Slot> disruptor;
+    private RingBuffer<Slot> ringBuffer;
+    private volatile Thread consumerThread;
+
+    public RingBufferRsvpBus(RsvpBatchProcessor batchProcessor, RsvpRetryScheduler retryScheduler) {
+        this.batchProcessor = batchProcessor;
+        this.retryScheduler = retryScheduler;
+    }
+
+    @PostConstruct
+    void start() {
+        disruptor = new Disruptor<>(Slot::new, ringSize, runnable -> {
+            Thread thread = new Thread(runnable, "rsvp-bus");
+            thread.setDaemon(true);
+            consumerThread = thread;
+            return thread;
+        }, ProducerType.MULTI, createWaitStrategy(waitStrategy));
+        disruptor.handleEventsWith(new BatchingHandler());
+        ringBuffer = disruptor.start();
+        log.info("RSVP ring buffer started - size: {}, wait strategy: {}, max batch: {}",
+                ringSize, waitStrategy, maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        try {
+            // Let the consumer drain what has already been published
+            disruptor.shutdown(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("RSVP ring buffer did not drain within 5s, halting");
+            disruptor.halt();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendRsvpConfirmed(RsvpMessage message) {
+        log.debug("Publishing RSVP confirmed message: {}", message);
+        return publish(RsvpMessage.CONFIRMED, message);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendWaitlistAdded(RsvpMessage message) {
+        log.debug("Publishing waitlist message: {}", message);
+        return publish(RsvpMessage.WAITLIST, message);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendWaitlistLeft(RsvpMessage message) {
+        log.debug("Publishing waitlist left message: {}", message);
+        return publish(RsvpMessage.WAITLIST_LEFT, message);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendRsvpCancelled(RsvpMessage message) {
+        log.debug("Publishing RSVP cancelled message: {}", message);
+        return publish(RsvpMessage.CANCELLED, message);
+    }
+
+    /**
+     * Number of published messages not yet consumed.
+     */
+    public long getBacklog() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    // Accepted as soon as the message is in the ring (or handed to the retry scheduler)
+    private CompletableFuture<Void> publish(String route, RsvpMessage message) {
+        if (Thread.currentThread() != consumerThread) {
+            if (!offer(route, message)) {
+                log.warn("RSVP ring buffer full for {}ms, rejecting {} message: {}", offerTimeout, route, message);
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("RSVP ring buffer of " + ringSize + " is full"));
+            }
+        } else if (!ringBuffer.tryPublishEvent(Slot::set, route, message)) {
+            log.warn("RSVP ring buffer full, deferring {} message published by the consumer: {}", route, message);
+            try {
+                retryScheduler.scheduleRetries(route, List.of(message), null);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // The ring has no timed publish, so poll for a free slot until the deadline
+    private boolean offer(String route, RsvpMessage message) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeout);
+        while (!ringBuffer.tryPublishEvent(Slot::set, route, message)) {
+            if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    static WaitStrategy createWaitStrategy(String name) {
+        switch (name) {
+            case "blocking":
+                return new BlockingWaitStrategy();
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown rsvp.bus.wait-strategy: " + name);
+        }
+    }
+
+    // Preallocated ring entry
+    static class Slot {
+        String route;
+        RsvpMessage message;
+
+        void set(long sequence, String route, RsvpMessage message) {
+            this.route = route;
+            this.message = message;
+        }
+    }
+
+    private class BatchingHandler implements EventHandler<Slot> {
+
+        private final List<RsvpMessage> batch = new ArrayList<>();
+        private String batchRoute;
+
+        @Override
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch) {
+            RsvpMessage message = slot.message;
+            String route = slot.route;
+            slot.message = null; // don't keep the message reachable from the ring
+
+            if (batchRoute != null && !batchRoute.equals(route)) {
+                flush();
+            }
+            batchRoute = route;
+            batch.add(message);
+
+            if (endOfBatch || batch.size() >= maxBatchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<RsvpMessage> messages = new ArrayList<>(batch);
+            batch.clear();
+            String route = batchRoute;
+            batchRoute = null;
+
+            try {
+                batchProcessor.apply(route, messages);
+            } catch (Exception e) {
+                log.warn("Error processing {} batch of {}, scheduling retries: {}", route, messages.size(),
+                        e.getMessage());
+                try {
+                    retryScheduler.scheduleRetries(route, messages, e);
+                } catch (Exception storeFailure) {
+                    // Nothing upstream can redeliver a ring message, so log enough to replay by hand
+                    log.error("Could not store {} retries, dropping: {} ({})", route, messages,
+                            storeFailure.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.titus.developer.jugtours.messaging;
+
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.service.WaitlistService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies batches of RSVP messages.
+ *
+ * Joining and leaving an event are committed by the web tier before the
+ * CONFIRMED or CANCELLED message is published, so those messages never write
+ * attendees again: they arrive on separate queues, across several consumers
+ * and through retries, and a late one would undo a newer change (a join
+ * replayed after the leave that followed it). They only drive what follows
+ * the change: confirmation notices and promotion from the waitlist. Waitlist
+ * entries, which only the pipeline writes, are applied here.
+ *
+ * Each batch is handled in a single transaction, with the affected events
+ * loaded in one query, so a batch of N messages costs a constant number of
+ * round trips instead of N. Redelivered messages are dropped by
+ * {@link RsvpDeduplicator} before any of that.
+ */
+@Service
+public class RsvpBatchProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(RsvpBatchProcessor.class);
+
+    private final EventRepository eventRepository;
+    private final WaitlistService waitlistService;
+    private final RsvpDeduplicator deduplicator;
+
+    public RsvpBatchProcessor(EventRepository eventRepository, WaitlistService waitlistService,
+            RsvpDeduplicator deduplicator) {
+        this.eventRepository = eventRepository;
+        this.waitlistService = waitlistService;
+        this.deduplicator = deduplicator;
+    }
+
+    /**
+     * Applies a batch of messages that all share the given type, skipping any
+     * already processed. If the batch fails, its messages are released again so
+     * retries and redeliveries are not mistaken for duplicates.
+     *
+     * @param type one of {@link RsvpMessage#CONFIRMED}, {@link RsvpMessage#WAITLIST},
+     *             {@link RsvpMessage#WAITLIST_LEFT} or {@link RsvpMessage#CANCELLED}
+     */
+    @Transactional
+    public int apply(String type, List<RsvpMessage> messages) {
+        List<RsvpMessage> fresh = deduplicator.claim(messages);
+        if (fresh.size() < messages.size()) {
+            log.debug("Dropped {} duplicate {} messages", messages.size() - fresh.size(), type);
+        }
+        releaseOnRollback(fresh);
+
+        switch (type) {
+            case RsvpMessage.CONFIRMED:
+                return applyConfirmed(fresh);
+            case RsvpMessage.WAITLIST:
+                return applyWaitlisted(fresh);
+            case RsvpMessage.WAITLIST_LEFT:
+                return applyWaitlistLeft(fresh);
+            case RsvpMessage.CANCELLED:
+                return applyCancelled(fresh);
+            default:
+                throw new IllegalArgumentException("Unknown RSVP message type: " + type);
+        }
+    }
+
+    /**
+     * Picks out the confirmations still worth notifying: the user attends the
+     * event now. A confirmation overtaken by a leave is dropped. Attendees are
+     * not written; the join (or promotion) that sent the message already did.
+     *
+     * @return number of confirmations still current
+     */
+    @Transactional
+    public int applyConfirmed(List<RsvpMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Event> events = loadEvents(messages);
+
+        int current = 0;
+        for (RsvpMessage message : messages) {
+            Event event = events.get(message.getEventId());
+            if (event != null && event.hasAttendee(message.getUserId())) {
+                current++;
+            } else {
+                log.debug("Confirmation no longer current, not notifying: {}", message);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Handles cancellations: the user has given up their seat, which goes to
+     * the next user on the event's waitlist. The attendee was removed by the
+     * web tier, so nothing is removed here: a cancellation processed after the
+     * user joined again must not take their new seat. Waitlist leaves are
+     * WAITLIST_LEFT now; one sent as a CANCELLED by an older producer still
+     * just loses the user their place.
+     *
+     * @return number of seats passed on to the waitlist
+     */
+    @Transactional
+    public int applyCancelled(List<RsvpMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        List<RsvpMessage> seatsFreed = waitlistService.removeWaitlisted(messages);
+        int promoted = 0;
+        for (RsvpMessage message : seatsFreed) {
+            if (waitlistService.promoteNext(message.getEventId()).isPresent()) {
+                promoted++;
+            }
+        }
+        return promoted;
+    }
+
+    /**
+     * Takes each user off the event's waitlist. Nothing else changes: a user
+     * promoted before the message arrived keeps the seat, and no one else is
+     * promoted.
+     *
+     * @return number of entries removed (not waiting is a no-op)
+     */
+    @Transactional
+    public int applyWaitlistLeft(List<RsvpMessage> messages) {
+        return messages.size() - waitlistService.removeWaitlisted(messages).size();
+    }
+
+    /**
+     * Adds each user to the end of the event's waitlist.
+     *
+     * @return number of entries added (already waiting is a no-op)
+     */
+    @Transactional
+    public int applyWaitlisted(List<RsvpMessage> messages) {
+        return waitlistService.enqueue(messages);
+    }
+
+    private void releaseOnRollback(List<RsvpMessage> claimed) {
+        if (claimed.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deduplicator.release(claimed);
+                }
+            }
+        });
+    }
+
+    private Map<Long, Event> loadEvents(List<RsvpMessage> messages) {
+        Set<Long> eventIds = messages.stream()
+                .map(RsvpMessage::getEventId)
+                .collect(Collectors.toSet());
+        return eventRepository.findAllWithAttendeesByIdIn(eventIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+    }
+}
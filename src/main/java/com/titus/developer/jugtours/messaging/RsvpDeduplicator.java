@@ -0,0 +1,109 @@
+package com.titus.developer.jugtours.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the ids of recently processed RSVP messages so redeliveries are
+ * dropped before they reach the database.
+ *
+ * Ids are kept in insertion order and evicted once they are older than the
+ * window or the set exceeds max-entries, so memory is bounded and a duplicate
+ * check is a single hash lookup. Size the window to cover the longest expected
+ * redelivery delay; the hit and eviction counters in {@link #getStats()} show
+ * whether it does.
+ */
+@Component
+public class RsvpDeduplicator {
+
+    @Value("${rsvp.dedupe.window-ms:600000}")
+    private long windowMillis;
+
+    @Value("${rsvp.dedupe.max-entries:100000}")
+    private int maxEntries;
+
+    // message id -> time it was claimed, oldest first
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+    private long duplicates;
+    private long accepted;
+    private long untracked;
+    private long evictedBySize;
+    private long expired;
+
+    /**
+     * Claims the ids of the given messages.
+     *
+     * @return the messages not seen within the window (duplicates inside the
+     *         list itself are dropped too). Messages without an id always pass.
+     */
+    public synchronized List<RsvpMessage> claim(List<RsvpMessage> messages) {
+        long now = System.currentTimeMillis();
+        evict(now);
+
+        List<RsvpMessage> fresh = new ArrayList<>(messages.size());
+        for (RsvpMessage message : messages) {
+            String id = message.getMessageId();
+            if (id == null) {
+                untracked++;
+                fresh.add(message);
+            } else if (seen.putIfAbsent(id, now) == null) {
+                accepted++;
+                fresh.add(message);
+            } else {
+                duplicates++;
+            }
+        }
+        evict(now);
+        return fresh;
+    }
+
+    /**
+     * Forgets claimed ids whose processing failed, so a retry or redelivery is
+     * processed again.
+     */
+    public synchronized void release(List<RsvpMessage> messages) {
+        for (RsvpMessage message : messages) {
+            if (message.getMessageId() != null) {
+                seen.remove(message.getMessageId());
+            }
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Long>> oldest = seen.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<String, Long> entry = oldest.next();
+            if (seen.size() > maxEntries) {
+                evictedBySize++;
+            } else if (now - entry.getValue() > windowMillis) {
+                expired++;
+            } else {
+                break;
+            }
+            oldest.remove();
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long checked = duplicates + accepted;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", seen.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("windowMillis", windowMillis);
+        stats.put("duplicates", duplicates);
+        stats.put("accepted", accepted);
+        stats.put("untracked", untracked);
+        stats.put("hitRate", checked == 0 ? 0.0 : (double) duplicates / checked);
+        // Evictions by size mean the window is effectively shorter than configured
+        stats.put("evictedBySize", evictedBySize);
+        stats.put("expired", expired);
+        return stats;
+    }
+}
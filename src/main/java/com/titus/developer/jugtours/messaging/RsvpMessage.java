@@ -3,31 +3,51 @@ package com.titus.developer.jugtours.messaging;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
+import java.util.UUID;
 
 public class RsvpMessage {
+
+    // Status values, also used to route messages to their handler
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String WAITLIST = "WAITLIST";
+    public static final String CANCELLED = "CANCELLED";
+    // Left the waitlist: only the waitlist entry goes, never a seat
+    public static final String WAITLIST_LEFT = "WAITLIST_LEFT";
+
+    private final String messageId; // stable across redeliveries, used for dedupe
     private final Long eventId;
     private final String userId;
     private final String userName;
     private final String userEmail;
-    private final String status; // CONFIRMED, WAITLIST, CANCELLED
+    private final String status; // CONFIRMED, WAITLIST, CANCELLED, WAITLIST_LEFT
     private final Instant timestamp;
 
+    public RsvpMessage(Long eventId, String userId, String userName, String userEmail, String status) {
+        this(UUID.randomUUID().toString(), eventId, userId, userName, userEmail, status, Instant.now());
+    }
+
+    // Keeps the id and timestamp from the wire. Messages from older producers
+    // have no id and can't be deduplicated.
     @JsonCreator
     public RsvpMessage(
+            @JsonProperty("messageId") String messageId,
             @JsonProperty("eventId") Long eventId,
             @JsonProperty("userId") String userId,
             @JsonProperty("userName") String userName,
             @JsonProperty("userEmail") String userEmail,
-            @JsonProperty("status") String status) {
+            @JsonProperty("status") String status,
+            @JsonProperty("timestamp") Instant timestamp) {
+        this.messageId = messageId;
         this.eventId = eventId;
         this.userId = userId;
         this.userName = userName;
         this.userEmail = userEmail;
         this.status = status;
-        this.timestamp = Instant.now();
+        this.timestamp = timestamp != null ? timestamp : Instant.now();
     }
 
     // Getters
+    public String getMessageId() { return messageId; }
     public Long getEventId() { return eventId; }
     public String getUserId() { return userId; }
     public String getUserName() { return userName; }
@@ -37,7 +57,7 @@ public class RsvpMessage {
 
     @Override
     public String toString() {
-        return String.format("RsvpMessage{eventId=%d, userId='%s', status='%s', timestamp=%s}", 
-                           eventId, userId, status, timestamp);
+        return String.format("RsvpMessage{messageId=%s, eventId=%d, userId='%s', status='%s', timestamp=%s}", 
+                           messageId, eventId, userId, status, timestamp);
     }
-}
\ No newline at end of file
+}
@@ -7,66 +7,88 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-// @Component
+import java.util.ArrayList;
+import java.util.List;
+
+// A failed batch is acked once its messages are stored for retry. If they can't be
+// stored either, scheduleRetries throws, the batch is rejected and the broker
+// dead-letters it to the durable .parked queue instead of it being lost.
+@Component
 @ConditionalOnProperty(name = "rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
 public class RsvpMessageConsumer {
-    
+
     private static final Logger log = LoggerFactory.getLogger(RsvpMessageConsumer.class);
-    
-    @RabbitListener(queues = RabbitConfig.RSVP_CONFIRMED_QUEUE)
-    public void handleRsvpConfirmed(RsvpMessage message) {
-        log.info("Processing RSVP confirmed: {}", message);
-        
-        // TODO: Business logic for confirmed RSVP
-        // - Update database
-        // - Send confirmation email
-        // - Update event capacity
-        
+
+    private final RsvpBatchProcessor batchProcessor;
+    private final RsvpRetryScheduler retryScheduler;
+
+    public RsvpMessageConsumer(RsvpBatchProcessor batchProcessor, RsvpRetryScheduler retryScheduler) {
+        this.batchProcessor = batchProcessor;
+        this.retryScheduler = retryScheduler;
+    }
+
+    @RabbitListener(queues = RabbitConfig.RSVP_CONFIRMED_QUEUE, containerFactory = RabbitConfig.BATCH_LISTENER_FACTORY)
+    public void handleRsvpConfirmed(List<RsvpMessage> messages) {
+        log.debug("Processing {} RSVP confirmed messages", messages.size());
+
+        // TODO: Send confirmation emails
+
         try {
-            // Simulate processing time
-            Thread.sleep(1000);
-            log.info("RSVP confirmed processed successfully for user: {}", message.getUserId());
+            int applied = batchProcessor.apply(RsvpMessage.CONFIRMED, messages);
+            log.info("RSVP confirmed batch processed: {} messages, {} still attending", messages.size(), applied);
         } catch (Exception e) {
-            log.error("Error processing RSVP confirmed: {}", e.getMessage());
-            // TODO: Handle error - maybe send to dead letter queue
+            log.warn("Error processing RSVP confirmed batch of {}, scheduling retries: {}", messages.size(),
+                    e.getMessage());
+            retryScheduler.scheduleRetries(RsvpMessage.CONFIRMED, messages, e);
         }
     }
-    
-    @RabbitListener(queues = RabbitConfig.WAITLIST_QUEUE)
-    public void handleWaitlistAdded(RsvpMessage message) {
-        log.info("Processing waitlist addition: {}", message);
-        
-        // TODO: Business logic for waitlist
-        // - Add to waitlist table
-        // - Send waitlist notification email
-        // - Check waitlist position
-        
+
+    // Joins and leaves share the queue; each run of one kind is applied in turn, so a
+    // leave and a later rejoin by the same user keep their order
+    @RabbitListener(queues = RabbitConfig.WAITLIST_QUEUE, containerFactory = RabbitConfig.BATCH_LISTENER_FACTORY)
+    public void handleWaitlistAdded(List<RsvpMessage> messages) {
+        log.debug("Processing {} waitlist messages", messages.size());
+
+        // TODO: Send waitlist notification emails
+
+        int start = 0;
+        for (int i = 1; i <= messages.size(); i++) {
+            if (i == messages.size() || !waitlistType(messages.get(i)).equals(waitlistType(messages.get(start)))) {
+                applyWaitlist(waitlistType(messages.get(start)), messages.subList(start, i));
+                start = i;
+            }
+        }
+    }
+
+    private void applyWaitlist(String type, List<RsvpMessage> messages) {
         try {
-            Thread.sleep(500);
-            log.info("Waitlist addition processed successfully for user: {}", message.getUserId());
+            int applied = batchProcessor.apply(type, messages);
+            log.info("Waitlist {} batch processed: {} messages, {} entries changed", type, messages.size(), applied);
         } catch (Exception e) {
-            log.error("Error processing waitlist addition: {}", e.getMessage());
+            log.warn("Error processing waitlist {} batch of {}, scheduling retries: {}", type, messages.size(),
+                    e.getMessage());
+            retryScheduler.scheduleRetries(type, new ArrayList<>(messages), e);
         }
     }
-    
-    @RabbitListener(queues = RabbitConfig.RSVP_CANCELLED_QUEUE)
-    public void handleRsvpCancelled(RsvpMessage message) {
-        log.info("Processing RSVP cancellation: {}", message);
-        
-        // TODO: Business logic for cancellation
-        // - Remove from attendees/waitlist
-        // - Send cancellation confirmation
-        // - Check if waitlist can be promoted
-        
+
+    private static String waitlistType(RsvpMessage message) {
+        return RsvpMessage.WAITLIST_LEFT.equals(message.getStatus()) ? RsvpMessage.WAITLIST_LEFT : RsvpMessage.WAITLIST;
+    }
+
+    @RabbitListener(queues = RabbitConfig.RSVP_CANCELLED_QUEUE, containerFactory = RabbitConfig.BATCH_LISTENER_FACTORY)
+    public void handleRsvpCancelled(List<RsvpMessage> messages) {
+        log.debug("Processing {} RSVP cancellation messages", messages.size());
+
+        // TODO: Send cancellation confirmations
+
         try {
-            Thread.sleep(500);
-            log.info("RSVP cancellation processed successfully for user: {}", message.getUserId());
-            
-            // TODO: Promote next person from waitlist if space available
-            // promoteFromWaitlist(message.getEventId());
-            
+            int applied = batchProcessor.apply(RsvpMessage.CANCELLED, messages);
+            // Freed seats are promoted from the waitlist inside the batch
+            log.info("RSVP cancellation batch processed: {} messages, {} promoted", messages.size(), applied);
         } catch (Exception e) {
-            log.error("Error processing RSVP cancellation: {}", e.getMessage());
+            log.warn("Error processing RSVP cancellation batch of {}, scheduling retries: {}", messages.size(),
+                    e.getMessage());
+            retryScheduler.scheduleRetries(RsvpMessage.CANCELLED, messages, e);
         }
     }
-}
\ No newline at end of file
+}
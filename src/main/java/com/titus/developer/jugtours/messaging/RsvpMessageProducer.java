@@ -1,48 +1,251 @@
 package com.titus.developer.jugtours.messaging;
 
 import com.titus.developer.jugtours.config.RabbitConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-// @Service
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes RSVP messages to RabbitMQ with correlated publisher confirms.
+ *
+ * Callers never touch a channel: messages are queued and a single publisher
+ * thread sends them, each with its own CorrelationData. The broker's ack or nack
+ * for that message completes (or fails) its future, so one nack fails only the
+ * message it was for and the publisher never stops to wait for confirms. At most
+ * max-in-flight messages may be queued or awaiting confirmation; beyond that
+ * callers wait up to offer-timeout for room and then get a failed future, so a
+ * slow broker pushes back instead of piling up memory or blocking request
+ * threads indefinitely. A message not confirmed within confirm-timeout fails too.
+ *
+ * A failed message may still have reached the broker, which is safe to republish
+ * because consumers deduplicate by message id.
+ *
+ * Requires {@code spring.rabbitmq.publisher-confirm-type=correlated}.
+ */
+@Service
 @ConditionalOnProperty(name = "rabbitmq.enabled", havingValue = "true", matchIfMissing = false)
-public class RsvpMessageProducer {
-    
+public class RsvpMessageProducer implements RsvpMessagePublisher {
+
     private static final Logger log = LoggerFactory.getLogger(RsvpMessageProducer.class);
-    
+
     private final RabbitTemplate rabbitTemplate;
-    
+
+    @Value("${rsvp.publisher.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${rsvp.publisher.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    @Value("${rsvp.publisher.offer-timeout:100}")
+    private long offerTimeout;
+
+    private final BlockingQueue<PendingPublish> pending = new LinkedBlockingQueue<>();
+    private Semaphore window;
+    private Thread publisherThread;
+    private volatile boolean running;
+
+    private final AtomicLong confirmedTotal = new AtomicLong();
+    private final AtomicLong nackedTotal = new AtomicLong();
+    private final AtomicLong failedTotal = new AtomicLong();
+    private final AtomicLong rejectedTotal = new AtomicLong();
+
     public RsvpMessageProducer(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
-    
-    public void sendRsvpConfirmed(RsvpMessage message) {
-        log.info("Sending RSVP confirmed message: {}", message);
-        rabbitTemplate.convertAndSend(
-            RabbitConfig.RSVP_EXCHANGE,
-            RabbitConfig.RSVP_CONFIRMED_ROUTING_KEY,
-            message
-        );
-    }
-    
-    public void sendWaitlistAdded(RsvpMessage message) {
-        log.info("Sending waitlist message: {}", message);
-        rabbitTemplate.convertAndSend(
-            RabbitConfig.RSVP_EXCHANGE,
-            RabbitConfig.WAITLIST_ROUTING_KEY,
-            message
-        );
-    }
-    
-    public void sendRsvpCancelled(RsvpMessage message) {
-        log.info("Sending RSVP cancelled message: {}", message);
-        rabbitTemplate.convertAndSend(
-            RabbitConfig.RSVP_EXCHANGE,
-            RabbitConfig.RSVP_CANCELLED_ROUTING_KEY,
-            message
-        );
-    }
-}
\ No newline at end of file
+
+    @PostConstruct
+    void start() {
+        window = new Semaphore(maxInFlight);
+        running = true;
+        publisherThread = new Thread(this::publishLoop, "rsvp-publisher");
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        // The loop sends whatever is still queued before it exits
+        publisherThread.join(confirmTimeout + 1000);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendRsvpConfirmed(RsvpMessage message) {
+        log.debug("Sending RSVP confirmed message: {}", message);
+        return publish(RabbitConfig.RSVP_CONFIRMED_ROUTING_KEY, message);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendWaitlistAdded(RsvpMessage message) {
+        log.debug("Sending waitlist message: {}", message);
+        return publish(RabbitConfig.WAITLIST_ROUTING_KEY, message);
+    }
+
+    // Same queue as joining, so a join and the leave after it arrive in order;
+    // the consumer tells them apart by status
+    @Override
+    public CompletableFuture<Void> sendWaitlistLeft(RsvpMessage message) {
+        log.debug("Sending waitlist left message: {}", message);
+        return publish(RabbitConfig.WAITLIST_ROUTING_KEY, message);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendRsvpCancelled(RsvpMessage message) {
+        log.debug("Sending RSVP cancelled message: {}", message);
+        return publish(RabbitConfig.RSVP_CANCELLED_ROUTING_KEY, message);
+    }
+
+    private CompletableFuture<Void> publish(String routingKey, RsvpMessage message) {
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        boolean admitted;
+        try {
+            admitted = running && window.tryAcquire(offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejectedTotal.incrementAndGet();
+            log.warn("RSVP publish window full ({} in flight), rejecting {}", maxInFlight, message);
+            confirmed.completeExceptionally(
+                    new RejectedExecutionException("RSVP publisher has " + maxInFlight + " messages in flight"));
+            return confirmed;
+        }
+        pending.add(new PendingPublish(routingKey, message, confirmed));
+        return confirmed;
+    }
+
+    private void publishLoop() {
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingPublish publish = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (publish != null) {
+                    send(publish);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(PendingPublish publish) {
+        CorrelationData correlation = new CorrelationData(publish.message.getMessageId());
+        correlation.getFuture()
+                .orTimeout(confirmTimeout, TimeUnit.MILLISECONDS)
+                .whenComplete((confirm, error) -> settle(publish, confirm, error));
+        try {
+            rabbitTemplate.convertAndSend(RabbitConfig.RSVP_EXCHANGE, publish.routingKey, publish.message,
+                    correlation);
+        } catch (Exception e) {
+            correlation.getFuture().completeExceptionally(e);
+        }
+    }
+
+    // Runs on the connection's confirm thread (or the timeout thread)
+    private void settle(PendingPublish publish, CorrelationData.Confirm confirm, Throwable error) {
+        // Free the window before completing, so callbacks can publish again straight away
+        window.release();
+        if (error == null && confirm.isAck()) {
+            confirmedTotal.incrementAndGet();
+            publish.confirmed.complete(null);
+            return;
+        }
+        if (error == null) {
+            nackedTotal.incrementAndGet();
+            error = new AmqpException("Broker nacked RSVP message: " + confirm.getReason());
+        } else if (error instanceof TimeoutException) {
+            error = new AmqpException("RSVP message not confirmed within " + confirmTimeout + "ms", error);
+        }
+        failedTotal.incrementAndGet();
+        log.error("RSVP {} message not confirmed: {} ({})", publish.routingKey, publish.message, error.getMessage());
+        publish.confirmed.completeExceptionally(error);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("inFlight", maxInFlight - window.availablePermits());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("confirmedTotal", confirmedTotal.get());
+        stats.put("nackedTotal", nackedTotal.get());
+        stats.put("failedTotal", failedTotal.get());
+        stats.put("rejectedTotal", rejectedTotal.get());
+        return stats;
+    }
+
+    /**
+     * Moves up to {@code max} messages per queue from the dead-letter parking
+     * queues back onto the RSVP exchange.
+     *
+     * @return number of messages replayed
+     */
+    public int replayDeadLettered(int max) {
+        return replay(RabbitConfig.RSVP_CONFIRMED_QUEUE, RabbitConfig.RSVP_CONFIRMED_ROUTING_KEY, max)
+                + replay(RabbitConfig.WAITLIST_QUEUE, RabbitConfig.WAITLIST_ROUTING_KEY, max)
+                + replay(RabbitConfig.RSVP_CANCELLED_QUEUE, RabbitConfig.RSVP_CANCELLED_ROUTING_KEY, max);
+    }
+
+    private int replay(String queue, String routingKey, int max) {
+        String parkedQueue = queue + RabbitConfig.PARKED_QUEUE_SUFFIX;
+        int replayed = 0;
+        Message message;
+        while (replayed < max && (message = rabbitTemplate.receive(parkedQueue)) != null) {
+            CorrelationData correlation = new CorrelationData();
+            rabbitTemplate.send(RabbitConfig.RSVP_EXCHANGE, routingKey, message, correlation);
+            if (!confirmed(correlation)) {
+                // receive() already took it off the parking queue, so put it back rather than lose it
+                rabbitTemplate.send("", parkedQueue, message);
+                log.warn("Replay from {} not confirmed, stopping after {} messages", parkedQueue, replayed);
+                break;
+            }
+            replayed++;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} dead-lettered messages from {}", replayed, parkedQueue);
+        }
+        return replayed;
+    }
+
+    private boolean confirmed(CorrelationData correlation) {
+        try {
+            return correlation.getFuture().get(confirmTimeout, TimeUnit.MILLISECONDS).isAck();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static class PendingPublish {
+        final String routingKey;
+        final RsvpMessage message;
+        final CompletableFuture<Void> confirmed;
+
+        PendingPublish(String routingKey, RsvpMessage message, CompletableFuture<Void> confirmed) {
+            this.routingKey = routingKey;
+            this.message = message;
+            this.confirmed = confirmed;
+        }
+    }
+}
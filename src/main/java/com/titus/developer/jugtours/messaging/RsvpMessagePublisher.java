@@ -0,0 +1,22 @@
+package com.titus.developer.jugtours.messaging;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes RSVP messages for asynchronous processing.
+ *
+ * Backed by RabbitMQ ({@link RsvpMessageProducer}) when {@code rabbitmq.enabled=true},
+ * otherwise by the in-process {@link RingBufferRsvpBus}. The returned future
+ * completes once the transport has accepted the message (for RabbitMQ, when the
+ * broker confirms it) and fails if it could not be published.
+ */
+public interface RsvpMessagePublisher {
+
+    CompletableFuture<Void> sendRsvpConfirmed(RsvpMessage message);
+
+    CompletableFuture<Void> sendWaitlistAdded(RsvpMessage message);
+
+    CompletableFuture<Void> sendWaitlistLeft(RsvpMessage message);
+
+    CompletableFuture<Void> sendRsvpCancelled(RsvpMessage message);
+}
@@ -0,0 +1,295 @@
+package com.titus.developer.jugtours.messaging;
+
+import com.titus.developer.jugtours.model.PendingRsvp;
+import com.titus.developer.jugtours.model.PendingRsvpRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries RSVP messages whose batch failed, with exponential backoff.
+ *
+ * Failed batches are split into single messages so one bad message can't keep
+ * failing the rest. Each message is stored in the pending_rsvp table and retried
+ * after initial-interval * multiplier^(attempt - 1) ms (capped at max-interval,
+ * with jitter) until it succeeds or runs out of attempts, at which point it is
+ * parked there for inspection and manual replay. Because the rows are written
+ * before the broker acks the batch, a restart loses neither retries nor parked
+ * messages; any instance polls for due rows and claims each one before retrying it.
+ */
+@Component
+public class RsvpRetryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RsvpRetryScheduler.class);
+
+    private final RsvpBatchProcessor batchProcessor;
+    private final PendingRsvpRepository pendingRepository;
+    private final ScheduledThreadPoolExecutor timer;
+
+    @Value("${rsvp.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${rsvp.retry.initial-interval:1000}")
+    private long initialInterval;
+
+    @Value("${rsvp.retry.multiplier:2.0}")
+    private double multiplier;
+
+    @Value("${rsvp.retry.max-interval:60000}")
+    private long maxInterval;
+
+    @Value("${rsvp.retry.parking-capacity:10000}")
+    private int parkingCapacity;
+
+    @Value("${rsvp.retry.poll-interval:500}")
+    private long pollInterval;
+
+    @Value("${rsvp.retry.poll-batch-size:100}")
+    private int pollBatchSize;
+
+    // How long a claimed retry is hidden from other instances; a claim left by a
+    // crashed instance is retried once it runs out
+    @Value("${rsvp.retry.claim-lease:120000}")
+    private long claimLease;
+
+    private final AtomicLong retriedTotal = new AtomicLong();
+    private final AtomicLong recoveredTotal = new AtomicLong();
+    private final AtomicLong parkedTotal = new AtomicLong();
+
+    public RsvpRetryScheduler(RsvpBatchProcessor batchProcessor, PendingRsvpRepository pendingRepository) {
+        this.batchProcessor = batchProcessor;
+        this.pendingRepository = pendingRepository;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rsvp-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    @PostConstruct
+    void init() {
+        timer.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores every message of a failed batch for its first retry. Throws if the
+     * messages can't be stored, so a broker listener fails the batch and it is
+     * dead-lettered rather than acked and lost.
+     */
+    public void scheduleRetries(String type, List<RsvpMessage> messages, Exception cause) {
+        Instant now = Instant.now();
+        List<PendingRsvp> pending = new ArrayList<>(messages.size());
+        for (RsvpMessage message : messages) {
+            PendingRsvp entry = toPending(type, message);
+            entry.setNextAttemptAt(now.plusMillis(backoff(1)));
+            entry.setLastError(errorOf(cause));
+            pending.add(entry);
+        }
+        pendingRepository.saveAll(pending);
+    }
+
+    /**
+     * For messages whose change is already committed: if {@code sent} fails, the
+     * message is stored for retry, so its consumer-side effect is applied by the
+     * retry instead of being lost with the publish.
+     */
+    public void retryIfUnsent(String type, RsvpMessage message, CompletableFuture<Void> sent) {
+        sent.whenComplete((ok, error) -> {
+            if (error == null) {
+                return;
+            }
+            log.warn("RSVP {} message not published, scheduling retries: {} ({})", type, message,
+                    error.getMessage());
+            try {
+                scheduleRetries(type, List.of(message),
+                        error instanceof Exception ? (Exception) error : new RuntimeException(error));
+            } catch (Exception storeFailure) {
+                log.error("Could not store retry for unpublished RSVP {} message, dropping: {} ({})", type,
+                        message, storeFailure.getMessage());
+            }
+        });
+    }
+
+    // Runs on the timer thread; must not throw or the schedule stops
+    void poll() {
+        try {
+            Instant now = Instant.now();
+            List<PendingRsvp> due = pendingRepository.findByParkedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                    now, PageRequest.of(0, pollBatchSize));
+            for (PendingRsvp entry : due) {
+                if (pendingRepository.claim(entry.getId(), now, Instant.now().plusMillis(claimLease)) == 1) {
+                    retry(entry);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Polling for due RSVP retries failed: {}", e.getMessage());
+        }
+    }
+
+    private void retry(PendingRsvp entry) {
+        int attempt = entry.getAttempts() + 1;
+        RsvpMessage message = toMessage(entry);
+        retriedTotal.incrementAndGet();
+        try {
+            batchProcessor.apply(entry.getType(), List.of(message));
+        } catch (Exception e) {
+            log.warn("Retry {} of {} failed for {}: {}", attempt, maxAttempts, message, e.getMessage());
+            entry.setAttempts(attempt);
+            entry.setLastError(errorOf(e));
+            if (attempt >= maxAttempts) {
+                park(entry);
+            } else {
+                entry.setNextAttemptAt(Instant.now().plusMillis(backoff(attempt + 1)));
+                pendingRepository.save(entry);
+            }
+            return;
+        }
+        // Applied; if this delete is lost the retry runs again and the deduplicator drops it
+        pendingRepository.deleteById(entry.getId());
+        recoveredTotal.incrementAndGet();
+        log.info("RSVP {} message recovered on retry {}: {}", entry.getType(), attempt, message);
+    }
+
+    long backoff(int attempt) {
+        double delay = Math.min(maxInterval, initialInterval * Math.pow(multiplier, attempt - 1));
+        // Equal jitter: half fixed, half random, so retries of one failed batch spread out
+        return (long) (delay / 2 + ThreadLocalRandom.current().nextDouble(delay / 2 + 1));
+    }
+
+    private void park(PendingRsvp entry) {
+        log.error("Parking RSVP {} message after {} attempts: {} ({})", entry.getType(), entry.getAttempts(),
+                toMessage(entry), entry.getLastError() != null ? entry.getLastError() : "no error");
+        parkedTotal.incrementAndGet();
+        long overflow = pendingRepository.countByParkedTrue() - parkingCapacity + 1;
+        if (overflow > 0) {
+            for (PendingRsvp dropped : pendingRepository.findByParkedTrueOrderByParkedAtAsc(
+                    PageRequest.of(0, (int) overflow))) {
+                if (pendingRepository.deleteParked(dropped.getId()) == 1) {
+                    log.error("Parking lot full, dropping oldest parked message: {}", toMessage(dropped));
+                }
+            }
+        }
+        entry.setParked(true);
+        entry.setParkedAt(Instant.now());
+        pendingRepository.save(entry);
+    }
+
+    /**
+     * Snapshot of the parked messages, oldest first.
+     */
+    public List<ParkedRsvp> getParked() {
+        return pendingRepository.findByParkedTrueOrderByParkedAtAsc().stream()
+                .map(this::toParked)
+                .toList();
+    }
+
+    /**
+     * Removes and returns up to {@code max} parked messages, oldest first, so they
+     * can be replayed. A message being drained by a concurrent call (or another
+     * instance) is only returned once.
+     */
+    public List<ParkedRsvp> drainParked(int max) {
+        List<ParkedRsvp> drained = new ArrayList<>();
+        for (PendingRsvp entry : pendingRepository.findByParkedTrueOrderByParkedAtAsc(PageRequest.of(0, max))) {
+            if (pendingRepository.deleteParked(entry.getId()) == 1) {
+                drained.add(toParked(entry));
+            }
+        }
+        return drained;
+    }
+
+    public Map<String, Object> getStats() {
+        // Keyed by the number of the attempt each message is waiting for
+        Map<String, Integer> byAttempt = new HashMap<>();
+        int pending = 0;
+        for (Object[] row : pendingRepository.countRetriesByAttempts()) {
+            int count = ((Number) row[1]).intValue();
+            pending += count;
+            byAttempt.put(String.valueOf(((Number) row[0]).intValue() + 1), count);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingRetries", pending);
+        stats.put("pendingByAttempt", byAttempt);
+        stats.put("parked", pendingRepository.countByParkedTrue());
+        stats.put("retriedTotal", retriedTotal.get());
+        stats.put("recoveredTotal", recoveredTotal.get());
+        stats.put("parkedTotal", parkedTotal.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void stop() {
+        // Anything not yet retried stays in pending_rsvp for the next start
+        timer.shutdownNow();
+    }
+
+    private static PendingRsvp toPending(String type, RsvpMessage message) {
+        PendingRsvp entry = new PendingRsvp();
+        entry.setType(type);
+        entry.setMessageId(message.getMessageId());
+        entry.setEventId(message.getEventId());
+        entry.setUserId(message.getUserId());
+        entry.setUserName(message.getUserName());
+        entry.setUserEmail(message.getUserEmail());
+        entry.setStatus(message.getStatus());
+        entry.setSentAt(message.getTimestamp());
+        return entry;
+    }
+
+    private static RsvpMessage toMessage(PendingRsvp entry) {
+        return new RsvpMessage(entry.getMessageId(), entry.getEventId(), entry.getUserId(), entry.getUserName(),
+                entry.getUserEmail(), entry.getStatus(), entry.getSentAt());
+    }
+
+    private ParkedRsvp toParked(PendingRsvp entry) {
+        return new ParkedRsvp(entry.getType(), toMessage(entry), entry.getAttempts(), entry.getLastError(),
+                entry.getParkedAt());
+    }
+
+    private static String errorOf(Exception cause) {
+        if (cause == null || cause.getMessage() == null) {
+            return null;
+        }
+        String error = cause.getMessage();
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    public static class ParkedRsvp {
+        private final String type;
+        private final RsvpMessage message;
+        private final int attempts;
+        private final String lastError;
+        private final Instant parkedAt;
+
+        public ParkedRsvp(String type, RsvpMessage message, int attempts, String lastError, Instant parkedAt) {
+            this.type = type;
+            this.message = message;
+            this.attempts = attempts;
+            this.lastError = lastError;
+            this.parkedAt = parkedAt;
+        }
+
+        public String getType() { return type; }
+        public RsvpMessage getMessage() { return message; }
+        public int getAttempts() { return attempts; }
+        public String getLastError() { return lastError; }
+        public Instant getParkedAt() { return parkedAt; }
+    }
+}
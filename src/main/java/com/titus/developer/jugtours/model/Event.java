@@ -15,6 +15,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonBackReference;
@@ -40,7 +42,10 @@ public class Event {
     @JsonBackReference
     private Group group;
 
+    // Excluded so that putting an event in a Set (like Group.events) doesn't load its attendees
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "collection.event-attendees")
+    @EqualsAndHashCode.Exclude
     private Set<User> attendees = new java.util.HashSet<>();
 
     // helper methods for managing attendees
@@ -5,10 +5,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Query methods run as read-only transactions, which the replica router sends to a replica;
+// inherited save/delete keep their read-write transactions
+@Transactional(readOnly = true)
 public interface EventRepository extends JpaRepository<Event, Long> {
 
     @Query("SELECT e FROM Event e JOIN e.attendees a WHERE a.id = :id")
@@ -31,4 +36,15 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Optimized query to fetch events with their groups and attendees in single query
     @Query("SELECT DISTINCT e FROM Event e LEFT JOIN FETCH e.group LEFT JOIN FETCH e.attendees ORDER BY e.date")
     Page<Event> findAllWithGroupAndAttendees(Pageable pageable);
+
+    // For join and leave: the attendees are read from the database, not the
+    // collection cache, which another instance's write does not invalidate. Read-write,
+    // so it runs on the primary
+    @Transactional
+    @Query("SELECT e FROM Event e LEFT JOIN FETCH e.attendees WHERE e.id = :id")
+    Optional<Event> findWithAttendeesById(@Param("id") Long id);
+
+    // Bulk load for RSVP batch processing - one query for every event in the batch
+    @Query("SELECT DISTINCT e FROM Event e LEFT JOIN FETCH e.attendees WHERE e.id IN :ids")
+    List<Event> findAllWithAttendeesByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -17,6 +19,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 @ToString
 @Entity
 @Table(name = "user_group")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "entity.group")
 public class Group {
 
     @Id
@@ -37,6 +40,7 @@ public class Group {
         joinColumns = @JoinColumn(name = "group_id"),
         inverseJoinColumns = @JoinColumn(name = "user_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "collection.group-users")
     @ToString.Exclude
     private Set<User> users = new java.util.HashSet<>();
 
@@ -1,14 +1,21 @@
 package com.titus.developer.jugtours.model;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
+// Query methods run as read-only transactions, which the replica router sends to a replica;
+// inherited save/delete keep their read-write transactions
+@Transactional(readOnly = true)
 public interface GroupRepository extends JpaRepository<Group, Long> {
     Optional<Group> findByName(String name);
 
@@ -22,7 +29,12 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT DISTINCT g FROM Group g LEFT JOIN FETCH g.users LEFT JOIN FETCH g.events")
     List<Group> findAllWithMembersAndEvents();
 
-    // Lightweight query for basic group info with counts
+    // Lightweight query for basic group info with counts. The summaries are served from the
+    // query cache until a group, membership or event changes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.group-summaries")
+    })
     @Query("SELECT g.id, g.name, g.imageUrl, g.address, g.city, g.stateOrProvince, g.country, g.postalCode, " +
            "COUNT(DISTINCT u.id) as memberCount, COUNT(DISTINCT e.id) as eventCount " +
            "FROM Group g " +
@@ -32,6 +44,10 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Object[]> findAllGroupSummaries();
 
     // Lightweight query for user's groups with counts
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.group-summaries")
+    })
     @Query("SELECT g.id, g.name, g.imageUrl, " +
            "COUNT(DISTINCT u.id) as memberCount, COUNT(DISTINCT e.id) as eventCount " +
            "FROM Group g " +
@@ -43,6 +59,10 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Object[]> findUserGroupSummaries(@Param("userId") String userId);
 
     // Paginated lightweight query for all groups with membership status
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.group-summaries")
+    })
     @Query("SELECT g.id, g.name, g.imageUrl, g.address, g.city, g.stateOrProvince, g.country, g.postalCode, " +
            "COUNT(DISTINCT u.id) as memberCount, COUNT(DISTINCT e.id) as eventCount, " +
            "CASE WHEN currentUser.id IS NOT NULL THEN true ELSE false END as isMember " +
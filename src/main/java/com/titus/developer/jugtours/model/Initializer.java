@@ -1,9 +1,13 @@
 package com.titus.developer.jugtours.model;
 
 import com.titus.developer.jugtours.service.ImageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -15,19 +19,43 @@ import java.util.List;
 @Component
 class Initializer implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(Initializer.class);
+
     private final GroupRepository repository;
     private final UserRepository userRepository;
     private final ImageService imageService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Seed on a background thread once the app is up, so a cold start doesn't wait on the database
+    @Value("${data.seed.deferred:false}")
+    private boolean deferred;
 
-    public Initializer(GroupRepository repository, UserRepository userRepository, ImageService imageService) {
+    public Initializer(GroupRepository repository, UserRepository userRepository, ImageService imageService,
+            PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.userRepository = userRepository;
         this.imageService = imageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    @Transactional
     public void run(String... strings) {
+        if (!deferred) {
+            transactionTemplate.executeWithoutResult(status -> seed());
+            return;
+        }
+        Thread seeder = new Thread(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> seed());
+            } catch (RuntimeException e) {
+                log.error("Deferred data seeding failed", e);
+            }
+        }, "data-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    private void seed() {
         // Skip initialization if data already exists
         if (repository.count() > 0) {
             System.out.println("Data already exists, skipping initialization.");
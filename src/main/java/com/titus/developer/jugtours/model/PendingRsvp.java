@@ -0,0 +1,47 @@
+package com.titus.developer.jugtours.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * An RSVP message whose processing failed, waiting for its next retry or, once
+ * parked, for a manual replay. Kept in the database so retries and parked
+ * messages survive a restart; the broker has already acked the batch.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "pending_rsvp", indexes = {
+        @Index(name = "idx_pending_rsvp_due", columnList = "parked, nextAttemptAt"),
+        @Index(name = "idx_pending_rsvp_parked_at", columnList = "parked, parkedAt")
+})
+public class PendingRsvp {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String type;
+    private String messageId;
+    private Long eventId;
+    private String userId;
+    private String userName;
+    private String userEmail;
+    private String status;
+    private Instant sentAt;
+    // Retries made so far
+    private int attempts;
+    private Instant nextAttemptAt;
+    private boolean parked;
+    private Instant parkedAt;
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,48 @@
+package com.titus.developer.jugtours.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Reads are read-write transactions on purpose: retry rows are written moments
+// before they are read, so they must come from the primary, not a replica
+public interface PendingRsvpRepository extends JpaRepository<PendingRsvp, Long> {
+
+    @Transactional
+    List<PendingRsvp> findByParkedFalseAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(Instant now,
+            Pageable pageable);
+
+    @Transactional
+    List<PendingRsvp> findByParkedTrueOrderByParkedAtAsc();
+
+    @Transactional
+    List<PendingRsvp> findByParkedTrueOrderByParkedAtAsc(Pageable pageable);
+
+    @Transactional
+    long countByParkedTrue();
+
+    // [attempts, count] for the messages still waiting to be retried
+    @Transactional
+    @Query("SELECT p.attempts, COUNT(p) FROM PendingRsvp p WHERE p.parked = false GROUP BY p.attempts")
+    List<Object[]> countRetriesByAttempts();
+
+    // Pushes the next attempt out by a lease; returns 0 when another instance
+    // already claimed the row. A claim left behind by a crash expires with its lease.
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingRsvp p SET p.nextAttemptAt = :lease "
+            + "WHERE p.id = :id AND p.parked = false AND p.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("lease") Instant lease);
+
+    // Returns 0 when the row was already taken by a concurrent replay
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PendingRsvp p WHERE p.id = :id AND p.parked = true")
+    int deleteParked(@Param("id") Long id);
+}
@@ -0,0 +1,70 @@
+package com.titus.developer.jugtours.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * R2DBC reads of the event tables for the reactive API (see ReactiveApiConfig).
+ * Listings come back as one row per event and attendee, ordered by event, so
+ * callers can stream them out an event at a time.
+ */
+public interface ReactiveEventRepository extends R2dbcRepository<ReactiveEventRepository.EventRow, Long> {
+
+    String LISTING_COLUMNS = "SELECT e.id AS event_id, e.date, e.title, e.description, "
+            + "g.id AS group_id, g.name AS group_name, g.image_url AS group_image_url, g.address AS group_address, "
+            + "g.city AS group_city, g.state_or_province AS group_state_or_province, "
+            + "g.country AS group_country, g.postal_code AS group_postal_code, "
+            + "u.id AS attendee_id, u.name AS attendee_name, u.email AS attendee_email, "
+            + "u.profile_picture_url AS attendee_profile_picture_url ";
+
+    String LISTING_JOINS = "JOIN user_group g ON g.id = e.group_id "
+            + "LEFT JOIN event_attendees ea ON ea.event_id = e.id "
+            + "LEFT JOIN users u ON u.id = ea.attendees_id "
+            + "ORDER BY e.date, e.id";
+
+    @Query(LISTING_COLUMNS
+            + "FROM (SELECT * FROM event ORDER BY date, id LIMIT :limit OFFSET :offset) e "
+            + LISTING_JOINS)
+    Flux<EventListingRow> findListing(int limit, long offset);
+
+    @Query(LISTING_COLUMNS
+            + "FROM (SELECT * FROM event WHERE date >= :from ORDER BY date, id LIMIT :limit OFFSET :offset) e "
+            + LISTING_JOINS)
+    Flux<EventListingRow> findListingFrom(Instant from, int limit, long offset);
+
+    Mono<Long> countByDateGreaterThanEqual(Instant from);
+
+    // pattern is lower case, with % and _ escaped by a backslash
+    @Query(LISTING_COLUMNS
+            + "FROM (SELECT * FROM event WHERE LOWER(title) LIKE :pattern ESCAPE '\\' "
+            + "ORDER BY date, id LIMIT :limit OFFSET :offset) e "
+            + LISTING_JOINS)
+    Flux<EventListingRow> findListingByTitleLike(String pattern, int limit, long offset);
+
+    @Query("SELECT COUNT(*) FROM event WHERE LOWER(title) LIKE :pattern ESCAPE '\\'")
+    Mono<Long> countByTitleLike(String pattern);
+
+    @Query("SELECT date FROM event ORDER BY date")
+    Flux<EventDateRow> findAllDates();
+
+    @Table("event")
+    record EventRow(@Id Long id, Instant date, String title, String description, @Column("group_id") Long groupId) {
+    }
+
+    record EventDateRow(Instant date) {
+    }
+
+    // Attendee columns are null for an event nobody has joined
+    record EventListingRow(Long eventId, Instant date, String title, String description,
+            Long groupId, String groupName, String groupImageUrl, String groupAddress, String groupCity,
+            String groupStateOrProvince, String groupCountry, String groupPostalCode,
+            String attendeeId, String attendeeName, String attendeeEmail, String attendeeProfilePictureUrl) {
+    }
+}
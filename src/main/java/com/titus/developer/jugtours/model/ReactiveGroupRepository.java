@@ -0,0 +1,36 @@
+package com.titus.developer.jugtours.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.mapping.Table;
+import reactor.core.publisher.Flux;
+
+/**
+ * R2DBC reads of groups for the reactive API (see ReactiveApiConfig).
+ */
+public interface ReactiveGroupRepository extends R2dbcRepository<ReactiveGroupRepository.GroupRow, Long> {
+
+    // GroupRepository.findAllGroupSummariesPaginated in SQL: the user's own groups first, then by name
+    @Query("SELECT g.id, g.name, g.image_url, g.address, g.city, g.state_or_province, g.country, g.postal_code, "
+            + "COUNT(DISTINCT m.user_id) AS member_count, COUNT(DISTINCT e.id) AS event_count, "
+            + "CASE WHEN cu.user_id IS NOT NULL THEN TRUE ELSE FALSE END AS is_member "
+            + "FROM user_group g "
+            + "LEFT JOIN group_members m ON m.group_id = g.id "
+            + "LEFT JOIN event e ON e.group_id = g.id "
+            + "LEFT JOIN group_members cu ON cu.group_id = g.id AND cu.user_id = :userId "
+            + "GROUP BY g.id, g.name, g.image_url, g.address, g.city, g.state_or_province, g.country, "
+            + "g.postal_code, cu.user_id "
+            + "ORDER BY CASE WHEN cu.user_id IS NOT NULL THEN 0 ELSE 1 END, g.name "
+            + "LIMIT :limit OFFSET :offset")
+    Flux<GroupSummaryRow> findSummaries(String userId, int limit, long offset);
+
+    @Table("user_group")
+    record GroupRow(@Id Long id, String name) {
+    }
+
+    record GroupSummaryRow(Long id, String name, String imageUrl, String address, String city,
+            String stateOrProvince, String country, String postalCode, Long memberCount, Long eventCount,
+            Boolean isMember) {
+    }
+}
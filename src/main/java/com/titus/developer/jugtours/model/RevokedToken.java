@@ -0,0 +1,31 @@
+package com.titus.developer.jugtours.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A JWT (by its jti) that must no longer be accepted. Rows are only needed
+ * until the token would have expired anyway.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revokedAt")
+})
+public class RevokedToken {
+
+    @Id
+    private String jti;
+    private Instant expiresAt;
+    private Instant revokedAt;
+}
@@ -0,0 +1,45 @@
+package com.titus.developer.jugtours.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+
+/**
+ * One user waiting for a place at an event. The queue order is the insertion
+ * order of the generated id, so the head of an event's waitlist is its lowest id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "waitlist_entry",
+        indexes = @Index(name = "idx_waitlist_event_id", columnList = "eventId, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_waitlist_event_user", columnNames = { "eventId", "userId" }))
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long eventId;
+    private String userId;
+    private String userName;
+    private String userEmail;
+    private Instant joinedAt;
+
+    public WaitlistEntry(Long eventId, String userId, String userName, String userEmail, Instant joinedAt) {
+        this.eventId = eventId;
+        this.userId = userId;
+        this.userName = userName;
+        this.userEmail = userEmail;
+        this.joinedAt = joinedAt;
+    }
+}
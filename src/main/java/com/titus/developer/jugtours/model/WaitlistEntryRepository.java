@@ -0,0 +1,30 @@
+package com.titus.developer.jugtours.model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Head of an event's waitlist, served by idx_waitlist_event_id
+    List<WaitlistEntry> findByEventIdOrderByIdAsc(Long eventId, Pageable pageable);
+
+    long countByEventId(Long eventId);
+
+    long countByEventIdAndIdLessThan(Long eventId, Long id);
+
+    List<WaitlistEntry> findByEventIdAndUserId(Long eventId, String userId);
+
+    // Existing entries for a batch of waitlist messages - one query per batch
+    List<WaitlistEntry> findByEventIdInAndUserIdIn(Collection<Long> eventIds, Collection<String> userIds);
+
+    // Returns 0 when another transaction (or node) already took this entry
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.id = :id")
+    int deleteEntry(@Param("id") Long id);
+}
@@ -0,0 +1,124 @@
+package com.titus.developer.jugtours.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Continuous JDK Flight Recorder recording with the application's own events
+ * (RSVPs, event and group pages, searches, JWT verification) alongside the
+ * JDK's GC, lock and I/O events, so a stall can be traced to the endpoint
+ * that suffered it.
+ *
+ * The recording uses the JDK "default" settings plus classpath:jfr/jugtours.jfc
+ * and is kept on disk, bounded by jfr.continuous.max-age and max-size. Dumps
+ * are point-in-time snapshots of whatever the JVM is recording, so they also
+ * work when recording was started with -XX:StartFlightRecording instead.
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecorderService.class);
+
+    static final String SETTINGS = "jfr/jugtours.jfc";
+
+    @Value("${jfr.continuous.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jfr.continuous.max-age:6h}")
+    private Duration maxAge;
+
+    @Value("${jfr.continuous.max-size-mb:250}")
+    private long maxSizeMb;
+
+    private Recording recording;
+
+    @PostConstruct
+    void start() {
+        if (!enabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(applicationSettings().getSettings());
+            recording = new Recording(settings);
+            recording.setName("jugtours-continuous");
+            recording.setToDisk(true);
+            recording.setMaxAge(maxAge);
+            recording.setMaxSize(maxSizeMb * 1024 * 1024);
+            recording.start();
+            log.info("Continuous flight recording started (max age {}, max size {} MB)", maxAge, maxSizeMb);
+        } catch (IOException | ParseException e) {
+            log.warn("Could not start continuous flight recording: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * Writes everything currently recorded to a temporary .jfr file, which the
+     * caller must delete.
+     *
+     * @return the file, or empty if nothing is being recorded
+     */
+    public Optional<Path> dump() throws IOException {
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return Optional.empty();
+            }
+            Path file = Files.createTempFile("jugtours-", ".jfr");
+            try {
+                snapshot.dump(file);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return Optional.of(file);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("continuous", recording != null && recording.getState() == RecordingState.RUNNING);
+        stats.put("recordings", FlightRecorder.isInitialized()
+                ? FlightRecorder.getFlightRecorder().getRecordings().size() : 0);
+        if (recording != null) {
+            stats.put("maxAge", maxAge.toString());
+            stats.put("maxSizeMb", maxSizeMb);
+            stats.put("sizeBytes", recording.getSize());
+        }
+        return stats;
+    }
+
+    static Configuration applicationSettings() throws IOException, ParseException {
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(),
+                StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
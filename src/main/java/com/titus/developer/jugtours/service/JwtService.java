@@ -1,66 +1,215 @@
 package com.titus.developer.jugtours.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class JwtService {
-    
+
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     private String secret;
-    
+
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private Long expiration;
-    
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+
+    // How long after the original login a token can still be refreshed; 7 days.
+    // Initialized too, for instances built outside Spring (tests, benchmarks)
+    @Value("${jwt.max-session-age:604800000}")
+    private long maxSessionAge = 604_800_000L;
+
+    // Recently verified tokens, 0 disables the cache
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheSize;
+
+    // Built once - key derivation and parser setup are not free
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of the token -> its verified claims, least recently used first.
+    // Keyed by digest so raw bearer tokens are never held in memory.
+    private Map<ByteBuffer, VerifiedToken> verified;
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
     }
-    
+
     public String generateToken(OAuth2User user) {
-        Map<String, Object> attributes = user.getAttributes();
-        
+        return generateToken(user.getAttributes());
+    }
+
+    /**
+     * Mints a token for a fresh login from OAuth2 attributes (sub, name, email
+     * and picture).
+     */
+    public String generateToken(Map<String, Object> attributes) {
+        return generateToken(attributes, new Date());
+    }
+
+    /**
+     * Mints a replacement for a still-valid token. The replacement keeps the
+     * original login's {@code auth_time} and expires no later than
+     * {@code jwt.max-session-age} after it, so refreshing can't keep a session
+     * alive forever.
+     *
+     * @return the new token, or empty once the session is past its maximum age
+     */
+    public Optional<String> refreshToken(Claims claims) {
+        // Tokens minted before auth_time was added count from when they were issued
+        Number authTime = claims.get("auth_time", Number.class);
+        Date loggedInAt = authTime != null ? new Date(authTime.longValue() * 1000) : claims.getIssuedAt();
+        if (loggedInAt == null || System.currentTimeMillis() >= loggedInAt.getTime() + maxSessionAge) {
+            return Optional.empty();
+        }
+        return Optional.of(generateToken(claims, loggedInAt));
+    }
+
+    private String generateToken(Map<String, Object> attributes, Date loggedInAt) {
+        long expiresAt = Math.min(System.currentTimeMillis() + expiration, loggedInAt.getTime() + maxSessionAge);
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti, so the token can be revoked
                 .setSubject(attributes.get("sub").toString())
                 .claim("name", attributes.get("name"))
                 .claim("email", attributes.get("email"))
                 .claim("picture", attributes.get("picture"))
+                .claim("auth_time", loggedInAt.getTime() / 1000)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-    
+
+    /**
+     * Verifies the token's signature and expiry with a single parse.
+     *
+     * A token verified recently is served from the cache without any signature
+     * work until its own {@code exp} passes.
+     *
+     * @return the token's claims, or empty if it is invalid or expired
+     */
+    public Optional<Claims> verify(String token) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        Optional<Claims> claims = verify(token, event);
+        event.valid = claims.isPresent();
+        event.commit();
+        return claims;
+    }
+
+    private Optional<Claims> verify(String token, JwtVerificationEvent event) {
+        if (verifiedCacheSize <= 0) {
+            return parse(token);
+        }
+
+        ByteBuffer key = digest(token);
+        VerifiedToken cached;
+        synchronized (verified) {
+            cached = verified.get(key);
+        }
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAt) {
+                cacheHits.incrementAndGet();
+                event.cached = true;
+                return Optional.of(cached.claims);
+            }
+            synchronized (verified) {
+                verified.remove(key);
+            }
+            return Optional.empty();
+        }
+
+        cacheMisses.incrementAndGet();
+        Optional<Claims> claims = parse(token);
+        claims.ifPresent(c -> {
+            long expiresAt = c.getExpiration() != null ? c.getExpiration().getTime() : Long.MAX_VALUE;
+            synchronized (verified) {
+                verified.put(key, new VerifiedToken(c, expiresAt));
+            }
+        });
+        return claims;
+    }
+
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseSignedClaims(token).getPayload();
     }
-    
+
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
-    
+
     public boolean isTokenValid(String token) {
+        return verify(token).isPresent();
+    }
+
+    public long cacheHits() {
+        return cacheHits.get();
+    }
+
+    public long cacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public int cacheSize() {
+        synchronized (verified) {
+            return verified.size();
+        }
+    }
+
+    // The parser rejects bad signatures and expired tokens
+    private Optional<Claims> parse(String token) {
         try {
-            extractClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            return Optional.of(extractClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
-    
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class VerifiedToken {
+        final Claims claims;
+        final long expiresAt;
+
+        VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.titus.developer.jugtours.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one {@link JwtService#verify} call. */
+@Name("com.titus.jugtours.JwtVerification")
+@Label("JWT Verification")
+@Category({"JUG Tours", "Security"})
+@StackTrace(false)
+class JwtVerificationEvent extends Event {
+
+    @Label("Cached")
+    @Description("Served from the verified-token cache without signature work")
+    boolean cached;
+
+    @Label("Valid")
+    boolean valid;
+}
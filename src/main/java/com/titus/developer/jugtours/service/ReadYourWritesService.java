@@ -0,0 +1,67 @@
+package com.titus.developer.jugtours.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which users wrote recently, so their reads can skip the replicas
+ * for jdbc.replicas.sticky-window and never miss their own RSVP to
+ * replication lag.
+ *
+ * Kept per instance in a bounded LRU map: a user whose next request lands on
+ * another node may still read from a replica, so the window is a courtesy
+ * rather than a guarantee. Does nothing unless replicas are configured.
+ */
+@Service
+public class ReadYourWritesService {
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final Map<String, Long> pinnedUntil;
+
+    public ReadYourWritesService(@Value("${jdbc.replicas.urls:}") String replicaUrls,
+            @Value("${jdbc.replicas.sticky-window:5s}") Duration window,
+            @Value("${jdbc.replicas.sticky-capacity:10000}") int capacity) {
+        this.enabled = !replicaUrls.isBlank();
+        this.windowMillis = window.toMillis();
+        this.pinnedUntil = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void recordWrite(String userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        long until = System.currentTimeMillis() + windowMillis;
+        synchronized (pinnedUntil) {
+            pinnedUntil.put(userId, until);
+        }
+    }
+
+    public boolean isPinned(String userId) {
+        if (!enabled || userId == null) {
+            return false;
+        }
+        Long until;
+        synchronized (pinnedUntil) {
+            until = pinnedUntil.get(userId);
+        }
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    /** Whether the user of the current request should read from the primary. */
+    public boolean isCurrentUserPinned() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && isPinned(authentication.getName());
+    }
+}
@@ -0,0 +1,325 @@
+package com.titus.developer.jugtours.service;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.ObservationView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent slow SQL statements for GET /api/admin/queries/slow.
+ *
+ * Every statement's elapsed time is compared with the threshold as it
+ * completes, which costs next to nothing. Only a sample of the slow ones is
+ * captured, with the repository method and HTTP route that issued it, bind
+ * values if jdbc.slow-query.capture-binds is set (otherwise just their
+ * types), and - for SELECTs on H2, PostgreSQL or MySQL - an EXPLAIN plan
+ * fetched afterwards on a background thread with its own connection. Entries
+ * live in a fixed-size ring, so memory stays bounded however slow the
+ * database gets.
+ */
+@Service
+public class SlowQueryLog implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String REPOSITORY_OBSERVATION = "jugtours.repository";
+    private static final int MAX_BIND_LENGTH = 100;
+
+    @Value("${jdbc.slow-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jdbc.slow-query.threshold-ms:200}")
+    private long thresholdMillis;
+
+    // Fraction of slow statements captured; the rest are only counted
+    @Value("${jdbc.slow-query.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${jdbc.slow-query.capacity:100}")
+    private int capacity;
+
+    @Value("${jdbc.slow-query.explain:true}")
+    private boolean explain;
+
+    // Binds are emails, user ids and search terms; off, only their types are kept
+    @Value("${jdbc.slow-query.capture-binds:false}")
+    private boolean captureBinds;
+
+    private final ObservationRegistry observationRegistry;
+
+    private SlowQuery[] ring;
+    private long captured;
+
+    private final AtomicLong slow = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong explainsDropped = new AtomicLong();
+
+    private ThreadPoolExecutor explainer;
+    private volatile DataSource explainDataSource;
+    // null until the database has been checked, "" if it has no usable EXPLAIN
+    private volatile String explainPrefix;
+
+    public SlowQueryLog(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        ring = new SlowQuery[capacity];
+        // One thread and a short queue: plans are a diagnostic, never worth a backlog
+        explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> explainsDropped.incrementAndGet());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The unproxied DataSource plans are fetched from, so EXPLAIN statements
+     * are neither timed nor counted themselves.
+     */
+    public void setExplainDataSource(DataSource dataSource) {
+        this.explainDataSource = dataSource;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || queryInfoList.isEmpty()) {
+            return;
+        }
+        slow.incrementAndGet();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            sampledOut.incrementAndGet();
+            return;
+        }
+
+        QueryInfo query = queryInfoList.get(0);
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : indexed(query.getParametersList().get(0));
+        SlowQuery entry = new SlowQuery(Instant.now(), execInfo.getElapsedTime(), query.getQuery(),
+                bindValues(parameters), execInfo.isBatch() ? execInfo.getBatchSize() : 0,
+                repositoryMethod(), route());
+        record(entry);
+
+        if (explain && explainDataSource != null && isSelect(query.getQuery())) {
+            explainer.execute(() -> entry.plan = maskBinds(explain(query.getQuery(), parameters), parameters));
+        }
+    }
+
+    /** Captured statements, newest first. */
+    public synchronized List<SlowQuery> getEntries() {
+        List<SlowQuery> entries = new ArrayList<>();
+        for (SlowQuery entry : ring) {
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparing(SlowQuery::getAt).reversed());
+        return entries;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("thresholdMillis", thresholdMillis);
+        stats.put("sampleRate", sampleRate);
+        stats.put("captureBinds", captureBinds);
+        stats.put("capacity", capacity);
+        stats.put("slow", slow.get());
+        stats.put("captured", captured);
+        stats.put("sampledOut", sampledOut.get());
+        stats.put("explainsDropped", explainsDropped.get());
+        return stats;
+    }
+
+    private synchronized void record(SlowQuery entry) {
+        ring[(int) (captured++ % ring.length)] = entry;
+    }
+
+    // Positional setXxx(index, value, ...) calls in index order; named (callable) parameters are skipped
+    private static List<ParameterSetOperation> indexed(List<ParameterSetOperation> operations) {
+        return operations.stream()
+                .filter(op -> op.getArgs().length >= 2 && op.getArgs()[0] instanceof Integer)
+                .sorted(Comparator.comparingInt(op -> (Integer) op.getArgs()[0]))
+                .toList();
+    }
+
+    private List<String> bindValues(List<ParameterSetOperation> parameters) {
+        List<String> values = new ArrayList<>(parameters.size());
+        for (ParameterSetOperation parameter : parameters) {
+            Object arg = parameter.getArgs()[1];
+            if (parameter.getMethod().getName().equals("setNull") || arg == null) {
+                values.add("null");
+            } else if (!captureBinds) {
+                values.add("<" + arg.getClass().getSimpleName() + ">");
+            } else {
+                String value = String.valueOf(arg);
+                values.add(value.length() > MAX_BIND_LENGTH ? value.substring(0, MAX_BIND_LENGTH) + "..." : value);
+            }
+        }
+        return values;
+    }
+
+    // Plans can quote the values they were explained with (PostgreSQL's Filter: lines do)
+    private String maskBinds(String plan, List<ParameterSetOperation> parameters) {
+        if (plan == null || captureBinds) {
+            return plan;
+        }
+        for (ParameterSetOperation parameter : parameters) {
+            if (parameter.getArgs()[1] instanceof String value && !value.isEmpty()) {
+                plan = plan.replace(value, "?");
+            }
+        }
+        return plan;
+    }
+
+    // Set by the interceptor TracingConfig puts on every repository
+    private String repositoryMethod() {
+        ObservationView observation = observationRegistry.getCurrentObservation();
+        while (observation != null) {
+            if (REPOSITORY_OBSERVATION.equals(observation.getContextView().getName())) {
+                return observation.getContextView().getContextualName();
+            }
+            observation = observation.getContextView().getParentObservation();
+        }
+        return null;
+    }
+
+    private static String route() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private String explain(String sql, List<ParameterSetOperation> parameters) {
+        try (Connection connection = explainDataSource.getConnection()) {
+            String prefix = explainPrefix(connection);
+            if (prefix.isEmpty()) {
+                return null;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(prefix + sql)) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    int columns = rows.getMetaData().getColumnCount();
+                    while (rows.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            plan.append(rows.getString(i)).append(i < columns ? " | " : "\n");
+                        }
+                    }
+                }
+                return plan.toString().strip();
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            log.debug("Could not explain slow query: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Plain EXPLAIN only: ANALYZE would run the slow statement a second time
+    private String explainPrefix(Connection connection) throws SQLException {
+        String prefix = explainPrefix;
+        if (prefix == null) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            prefix = product.contains("h2") || product.contains("postgres")
+                    || product.contains("mysql") || product.contains("mariadb") ? "EXPLAIN " : "";
+            explainPrefix = prefix;
+        }
+        return prefix;
+    }
+
+    public static class SlowQuery {
+        private final Instant at;
+        private final long elapsedMillis;
+        private final String sql;
+        private final List<String> bindValues;
+        private final int batchSize;
+        private final String repositoryMethod;
+        private final String route;
+        // Filled in by the explain thread, if at all
+        private volatile String plan;
+
+        SlowQuery(Instant at, long elapsedMillis, String sql, List<String> bindValues, int batchSize,
+                String repositoryMethod, String route) {
+            this.at = at;
+            this.elapsedMillis = elapsedMillis;
+            this.sql = sql;
+            this.bindValues = bindValues;
+            this.batchSize = batchSize;
+            this.repositoryMethod = repositoryMethod;
+            this.route = route;
+        }
+
+        public Instant getAt() { return at; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public String getSql() { return sql; }
+        public List<String> getBindValues() { return bindValues; }
+        public int getBatchSize() { return batchSize; }
+        public String getRepositoryMethod() { return repositoryMethod; }
+        public String getRoute() { return route; }
+        public String getPlan() { return plan; }
+    }
+}
@@ -0,0 +1,204 @@
+package com.titus.developer.jugtours.service;
+
+import com.titus.developer.jugtours.model.RevokedToken;
+import com.titus.developer.jugtours.model.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked JWTs, by jti.
+ *
+ * Every authenticated request asks {@link #isRevoked(String)}, so the check
+ * never touches the database: a Bloom filter answers "not revoked" for almost
+ * every token in a few hashes, and only possible hits fall through to an exact
+ * in-memory set. Revocations are written to the revoked_token table so they
+ * survive restarts, and are kept only until the token would have expired.
+ * Each instance periodically drops expired entries (rebuilding the filter,
+ * which can't delete) and picks up revocations made by other instances.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${jwt.revocation.sync-interval:60000}")
+    private long syncInterval;
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync;
+    private ScheduledExecutorService syncTimer;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        Instant now = Instant.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), token.getExpiresAt().toEpochMilli());
+        }
+        lastSync = now;
+        rebuildFilter();
+        log.info("Loaded {} revoked tokens", revoked.size());
+
+        syncTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncTimer.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        syncTimer.shutdownNow();
+    }
+
+    /**
+     * @return true if the token with this jti has been revoked. Tokens without a
+     *         jti (minted before revocation existed) can't be revoked.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Revokes the token the claims came from, until it expires.
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            log.warn("Cannot revoke token without jti for {}", claims.getSubject());
+            return;
+        }
+        Instant expiresAt = claims.getExpiration() != null
+                ? claims.getExpiration().toInstant()
+                : Instant.now().plusMillis(86_400_000L);
+        revokedTokenRepository.save(new RevokedToken(claims.getId(), expiresAt, Instant.now()));
+        add(claims.getId(), expiresAt.toEpochMilli());
+        log.info("Revoked token {} for {}", claims.getId(), claims.getSubject());
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    void sync() {
+        try {
+            Instant now = Instant.now();
+            // Overlap the window a little to allow for clock skew between instances
+            List<RevokedToken> recent = revokedTokenRepository
+                    .findByRevokedAtAfterAndExpiresAtAfter(lastSync.minusSeconds(5), now);
+            for (RevokedToken token : recent) {
+                add(token.getJti(), token.getExpiresAt().toEpochMilli());
+            }
+            lastSync = now;
+
+            long nowMillis = now.toEpochMilli();
+            if (revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis)) {
+                rebuildFilter();
+            }
+            revokedTokenRepository.deleteExpired(now);
+        } catch (Exception e) {
+            log.warn("Token revocation sync failed: {}", e.getMessage());
+        }
+    }
+
+    // Filter and set change together so a rebuild can't lose a concurrent revocation
+    private synchronized void add(String jti, long expiresAt) {
+        revoked.put(jti, expiresAt);
+        filter.put(jti);
+    }
+
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    // Standard Bloom filter with k indexes derived from one 64-bit hash (double hashing)
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            numBits = Math.max(64, m);
+            numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+            bits = new AtomicLongArray((int) ((numBits + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % numBits;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0
+                        && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % numBits;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the chars, then a murmur3 finalizer to spread the bits
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
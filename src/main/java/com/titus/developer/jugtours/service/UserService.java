@@ -0,0 +1,183 @@
+package com.titus.developer.jugtours.service;
+
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the users table in step with the identity provider.
+ *
+ * Users are upserted once, when they log in, rather than on every write. The
+ * controllers then resolve the current user through a bounded in-process
+ * cache of users known to exist, and attach them to events and groups as
+ * references. A cache miss (a token minted before the user row existed, or an
+ * evicted entry) falls back to the same upsert.
+ *
+ * Adding a reference to an attendee or member set still reads the user
+ * (User's hashCode covers its fields), normally from the entity.user
+ * second-level cache rather than with a query.
+ */
+@Service
+public class UserService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private final UserRepository userRepository;
+    private final ImageService imageService;
+    private final EntityManager entityManager;
+    // The insert and the re-read after a lost race, each in a transaction of its own
+    private final TransactionTemplate newTransaction;
+
+    @Value("${users.cache.max-entries:10000}")
+    private int cacheSize;
+
+    // id -> detached copy of a user known to exist, least recently used first
+    private Map<String, User> known;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserService(UserRepository userRepository, ImageService imageService,
+            EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.imageService = imageService;
+        this.entityManager = entityManager;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    void init() {
+        known = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Creates or refreshes the user behind an OAuth2 login.
+     */
+    public User upsert(OAuth2User principal) {
+        Map<String, Object> attributes = principal.getAttributes();
+        return upsert(Objects.toString(attributes.get("sub"), principal.getName()),
+                Objects.toString(attributes.get("name"), null),
+                Objects.toString(attributes.get("email"), null));
+    }
+
+    /**
+     * Creates the user if missing, otherwise updates a changed name or email.
+     * A null name or email (details that weren't at hand) leaves the stored
+     * one alone. Safe to race, also inside a caller's transaction: the insert
+     * runs in its own, so if another request inserts the same user first only
+     * that one rolls back, and the existing row wins.
+     *
+     * @return a detached snapshot of the stored user
+     */
+    public User upsert(String id, String name, String email) {
+        User user = userRepository.findById(id).orElse(null);
+        if (user == null) {
+            User created = new User(id, name, email);
+            created.setProfilePictureUrl(imageService.generateRandomProfilePictureUrl(id));
+            try {
+                // persist, not save: with an assigned id save merges, which would
+                // overwrite a row inserted since the lookup instead of failing
+                newTransaction.executeWithoutResult(status -> {
+                    entityManager.persist(created);
+                    entityManager.flush();
+                });
+                user = created;
+                log.info("Created new user: {}", user.getName());
+            } catch (PersistenceException e) {
+                // The duplicate key, untranslated as it comes from the entity manager.
+                // Re-read read-write, so from the primary the winning insert went to
+                user = newTransaction.execute(status -> userRepository.findById(id)).orElseThrow(() -> e);
+            }
+        } else if (changed(name, user.getName()) || changed(email, user.getEmail())) {
+            if (name != null) {
+                user.setName(name);
+            }
+            if (email != null) {
+                user.setEmail(email);
+            }
+            user = userRepository.save(user);
+        }
+        return remember(user);
+    }
+
+    /**
+     * Returns a detached snapshot of the user, from the cache when possible.
+     * Use it for display fields; attach {@link #reference(String)} to entities.
+     *
+     * @param details claims or OAuth2 attributes used if the user must be created
+     */
+    public User resolve(String id, Map<String, Object> details) {
+        User cached;
+        synchronized (known) {
+            cached = known.get(id);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return upsert(id, Objects.toString(details.get("name"), null), Objects.toString(details.get("email"), null));
+    }
+
+    /**
+     * A lazy reference to a user that exists, for use in associations. It is
+     * loaded when its fields are read, which includes being added to a Set.
+     */
+    public User reference(String id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    public void evict(String id) {
+        synchronized (known) {
+            known.remove(id);
+        }
+    }
+
+    public int size() {
+        synchronized (known) {
+            return known.size();
+        }
+    }
+
+    public long cacheHits() {
+        return hits.get();
+    }
+
+    public long cacheMisses() {
+        return misses.get();
+    }
+
+    private static boolean changed(String value, String stored) {
+        return value != null && !value.equals(stored);
+    }
+
+    private User remember(User user) {
+        User copy = new User(user.getId(), user.getName(), user.getEmail());
+        copy.setProfilePictureUrl(user.getProfilePictureUrl());
+        synchronized (known) {
+            known.put(copy.getId(), copy);
+        }
+        return copy;
+    }
+}
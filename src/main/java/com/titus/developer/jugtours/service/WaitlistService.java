@@ -0,0 +1,337 @@
+package com.titus.developer.jugtours.service;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessagePublisher;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.WaitlistEntry;
+import com.titus.developer.jugtours.model.WaitlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-event waitlists with promotion on cancellation.
+ *
+ * The waitlist table is the source of truth; each event also keeps an in-memory
+ * priority queue holding the first head-cache-size entries, so promoting the next
+ * person is a heap poll plus a single-row delete rather than a scan. The heap is
+ * refilled from the table with one indexed query when it runs dry.
+ *
+ * Promotions are claimed by deleting the entry row: if the delete affects no row,
+ * another transaction (or another node) already promoted that user and the next
+ * entry is tried, so concurrent cancellations never promote the same person twice.
+ * The promoted user is added to the event's attendees in the same transaction, and
+ * published as a CONFIRMED message once it commits; like the web tier's CONFIRMED
+ * messages, that one only notifies.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final EventRepository eventRepository;
+    private final UserService userService;
+    // Lazy to break the publisher (and retry) -> processor -> waitlist cycle
+    private final ObjectProvider<RsvpMessagePublisher> rsvpPublisher;
+    private final ObjectProvider<RsvpRetryScheduler> retryScheduler;
+
+    @Value("${rsvp.waitlist.head-cache-size:256}")
+    private int headCacheSize;
+
+    private final Map<Long, EventQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong promotedTotal = new AtomicLong();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository, EventRepository eventRepository,
+            UserService userService, ObjectProvider<RsvpMessagePublisher> rsvpPublisher,
+            ObjectProvider<RsvpRetryScheduler> retryScheduler) {
+        this.waitlistRepository = waitlistRepository;
+        this.eventRepository = eventRepository;
+        this.userService = userService;
+        this.rsvpPublisher = rsvpPublisher;
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * Appends users to the waitlists in the messages. Users already waiting for
+     * the event keep their place.
+     *
+     * @return number of entries added
+     */
+    @Transactional
+    public int enqueue(List<RsvpMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> waiting = new HashSet<>(findEntries(messages).keySet());
+        List<WaitlistEntry> added = new ArrayList<>();
+        for (RsvpMessage message : messages) {
+            if (waiting.add(key(message.getEventId(), message.getUserId()))) {
+                added.add(new WaitlistEntry(message.getEventId(), message.getUserId(), message.getUserName(),
+                        message.getUserEmail(), message.getTimestamp()));
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+
+        List<WaitlistEntry> saved = waitlistRepository.saveAll(added);
+        // Only committed entries may become promotable
+        afterCommit(() -> saved.forEach(this::offer));
+        return saved.size();
+    }
+
+    /**
+     * Takes users off their waitlists.
+     *
+     * @return the messages whose user was not on the event's waitlist
+     */
+    @Transactional
+    public List<RsvpMessage> removeWaitlisted(List<RsvpMessage> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+
+        Map<String, WaitlistEntry> entries = findEntries(messages);
+        if (entries.isEmpty()) {
+            return messages;
+        }
+
+        List<RsvpMessage> remaining = new ArrayList<>();
+        Set<Long> touched = new HashSet<>();
+        for (RsvpMessage message : messages) {
+            WaitlistEntry entry = entries.remove(key(message.getEventId(), message.getUserId()));
+            if (entry == null) {
+                remaining.add(message);
+                continue;
+            }
+            waitlistRepository.deleteEntry(entry.getId());
+            touched.add(entry.getEventId());
+            EventQueue queue = queues.get(entry.getEventId());
+            if (queue != null) {
+                queue.lock.lock();
+                try {
+                    queue.heap.removeIf(e -> e.getId().equals(entry.getId()));
+                } finally {
+                    queue.lock.unlock();
+                }
+            }
+        }
+        onRollback(() -> touched.forEach(this::invalidate));
+        return remaining;
+    }
+
+    /**
+     * Promotes the next user waiting for the event, if any: adds them to the
+     * attendees and publishes them as a CONFIRMED RSVP after commit. Entries of
+     * users who joined directly in the meantime are dropped and skipped.
+     */
+    @Transactional
+    public Optional<WaitlistEntry> promoteNext(Long eventId) {
+        // A rolled-back promotion puts the rows back, so rebuild the cache from the table
+        onRollback(() -> invalidate(eventId));
+        WaitlistEntry entry;
+        while ((entry = takeNext(eventId)) != null) {
+            if (seat(entry)) {
+                WaitlistEntry promoted = entry;
+                afterCommit(() -> publishPromotion(promoted));
+                log.info("Promoting user {} from waitlist of event {}", entry.getUserId(), eventId);
+                return Optional.of(entry);
+            }
+            log.debug("User {} already attends event {}, dropped their waitlist entry", entry.getUserId(), eventId);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 1-based position of the user in the event's waitlist, or empty if they are
+     * not waiting.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> position(Long eventId, String userId) {
+        return waitlistRepository.findByEventIdAndUserId(eventId, userId).stream()
+                .findFirst()
+                .map(entry -> waitlistRepository.countByEventIdAndIdLessThan(eventId, entry.getId()) + 1);
+    }
+
+    @Transactional(readOnly = true)
+    public long size(Long eventId) {
+        return waitlistRepository.countByEventId(eventId);
+    }
+
+    public long getPromotedTotal() {
+        return promotedTotal.get();
+    }
+
+    // Removes and returns the head of the event's waitlist, or null if it is empty
+    private WaitlistEntry takeNext(Long eventId) {
+        EventQueue queue = queues.computeIfAbsent(eventId, EventQueue::new);
+        queue.lock.lock();
+        try {
+            while (true) {
+                if (queue.heap.isEmpty()) {
+                    refill(queue);
+                    if (queue.heap.isEmpty()) {
+                        return null;
+                    }
+                }
+                WaitlistEntry head = queue.heap.poll();
+                if (waitlistRepository.deleteEntry(head.getId()) == 1) {
+                    return head;
+                }
+                log.debug("Waitlist entry {} for event {} already taken", head.getId(), eventId);
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    private void refill(EventQueue queue) {
+        List<WaitlistEntry> head = waitlistRepository.findByEventIdOrderByIdAsc(queue.eventId,
+                PageRequest.of(0, headCacheSize));
+        queue.heap.addAll(head);
+        queue.complete = head.size() < headCacheSize;
+        queue.maxId = head.isEmpty() ? 0 : head.get(head.size() - 1).getId();
+    }
+
+    // Adds a newly committed entry to the cached head. Once the heap has been full,
+    // it only covers ids up to maxId; later entries wait in the table for a refill.
+    private void offer(WaitlistEntry entry) {
+        EventQueue queue = queues.get(entry.getEventId());
+        if (queue == null) {
+            return; // nothing cached yet, the first promotion loads it
+        }
+        queue.lock.lock();
+        try {
+            if (queue.complete && queue.heap.size() < headCacheSize) {
+                queue.heap.add(entry);
+                queue.maxId = Math.max(queue.maxId, entry.getId());
+            } else {
+                queue.complete = false;
+                // Commits can land out of id order; keep the cached head gap-free
+                if (entry.getId() < queue.maxId) {
+                    queue.heap.add(entry);
+                }
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    // Never blocks on the queue lock - this runs while a promotion may be holding it
+    private void invalidate(Long eventId) {
+        queues.remove(eventId);
+    }
+
+    // Read from the table, not the attendee cache, which another instance's writes don't invalidate.
+    // False if the user already attends, having joined directly while waiting.
+    private boolean seat(WaitlistEntry entry) {
+        Event event = eventRepository.findAllWithAttendeesByIdIn(List.of(entry.getEventId())).stream()
+                .findFirst()
+                .orElse(null);
+        if (event == null) {
+            log.warn("Promoted user {} from the waitlist of deleted event {}", entry.getUserId(), entry.getEventId());
+            return true;
+        }
+        if (event.hasAttendee(entry.getUserId())) {
+            return false;
+        }
+        Map<String, Object> details = new HashMap<>();
+        details.put("name", entry.getUserName());
+        details.put("email", entry.getUserEmail());
+        userService.resolve(entry.getUserId(), details);
+        event.addAttendee(userService.reference(entry.getUserId()));
+        return true;
+    }
+
+    private void publishPromotion(WaitlistEntry entry) {
+        promotedTotal.incrementAndGet();
+        RsvpMessage message = new RsvpMessage(entry.getEventId(), entry.getUserId(), entry.getUserName(),
+                entry.getUserEmail(), RsvpMessage.CONFIRMED);
+        // The seat is already taken by this transaction, so a failed publish is retried, not undone
+        retryScheduler.getObject().retryIfUnsent(RsvpMessage.CONFIRMED, message,
+                rsvpPublisher.getObject().sendRsvpConfirmed(message));
+    }
+
+    private Map<String, WaitlistEntry> findEntries(List<RsvpMessage> messages) {
+        Set<Long> eventIds = messages.stream().map(RsvpMessage::getEventId).collect(Collectors.toSet());
+        Set<String> userIds = messages.stream().map(RsvpMessage::getUserId).collect(Collectors.toSet());
+        Map<String, WaitlistEntry> entries = new HashMap<>();
+        // The IN x IN query can over-match across pairs; keying by pair filters that out
+        for (WaitlistEntry entry : waitlistRepository.findByEventIdInAndUserIdIn(eventIds, userIds)) {
+            entries.put(key(entry.getEventId(), entry.getUserId()), entry);
+        }
+        return entries;
+    }
+
+    private static String key(Long eventId, String userId) {
+        return eventId + ":" + userId;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    // Cached head of one event's waitlist, ordered by entry id (join order).
+    // Promotion holds the lock across JDBC calls, so it is a ReentrantLock rather
+    // than a monitor, which would pin the carrier thread of a virtual thread
+    private static class EventQueue {
+        final ReentrantLock lock = new ReentrantLock();
+        final Long eventId;
+        final PriorityQueue<WaitlistEntry> heap = new PriorityQueue<>(
+                Comparator.comparing(WaitlistEntry::getId));
+        // True while the heap holds every committed entry of the event
+        boolean complete;
+        long maxId;
+
+        EventQueue(Long eventId) {
+            this.eventId = eventId;
+        }
+    }
+}
@@ -1,43 +1,46 @@
 package com.titus.developer.jugtours.web;
 
 import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.TokenRevocationService;
 import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     
     private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
     
-    public AuthController(JwtService jwtService) {
+    public AuthController(JwtService jwtService, TokenRevocationService revocationService) {
         this.jwtService = jwtService;
+        this.revocationService = revocationService;
     }
     
+    // Exchanges a still-valid bearer token for a fresh one and revokes the old
+    // one. Login itself hands out the first token (SecurityConfiguration), and
+    // refreshes stop jwt.max-session-age after that login.
     @PostMapping("/token")
-    public ResponseEntity<Map<String, String>> generateToken(@AuthenticationPrincipal OAuth2User user, HttpServletRequest request) {
-        System.out.println("=== TOKEN REQUEST DEBUG ===");
-        System.out.println("User: " + user);
-        System.out.println("Session ID: " + request.getSession().getId());
-        System.out.println("Referer: " + request.getHeader("referer"));
-        System.out.println("User-Agent: " + request.getHeader("user-agent"));
-        
-        if (user == null) {
-            System.out.println("ERROR: OAuth2User is null - session not established");
+    public ResponseEntity<Map<String, String>> generateToken(HttpServletRequest request) {
+        Claims claims = (Claims) request.getAttribute("jwtClaims");
+        if (claims == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+        Optional<String> token = jwtService.refreshToken(claims);
+        if (token.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        revocationService.revoke(claims);
         
-        String token = jwtService.generateToken(user);
         Map<String, String> response = new HashMap<>();
-        response.put("token", token);
+        response.put("token", token.get());
         response.put("type", "Bearer");
         
         return ResponseEntity.ok(response);
@@ -59,4 +62,17 @@ public class AuthController {
         
         return ResponseEntity.ok(userInfo);
     }
-} 
\ No newline at end of file
+    
+    // Revokes the bearer token used for this request
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        Claims claims = (Claims) request.getAttribute("jwtClaims");
+        
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        revocationService.revoke(claims);
+        return ResponseEntity.noContent().build();
+    }
+} 
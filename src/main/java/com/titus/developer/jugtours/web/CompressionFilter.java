@@ -0,0 +1,312 @@
+package com.titus.developer.jugtours.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips responses of the configured media types once they reach a minimum
+ * size, for clients that accept it.
+ *
+ * Tomcat's own compression (server.compression) always deflates at the
+ * default level; this takes the level as a setting so it can be traded
+ * against CPU. Output is held back until min-response-size bytes have been
+ * written: responses that end before then, that aren't of a listed type, or
+ * that arrive already encoded go out untouched. A flush before the
+ * threshold also sends what there is uncompressed, so streamed output isn't
+ * held up.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final int minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final int level;
+    private final AtomicLong compressed = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    public CompressionFilter(int minResponseSize, List<MediaType> mimeTypes, int level) {
+        this.minResponseSize = minResponseSize;
+        this.mimeTypes = mimeTypes;
+        this.level = level;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request) || "HEAD".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(response);
+        filterChain.doFilter(request, compressing);
+        compressing.finish();
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    public long compressed() {
+        return compressed.get();
+    }
+
+    /** Bytes written by the app into responses that were compressed. */
+    public long bytesIn() {
+        return bytesIn.get();
+    }
+
+    /** What those responses took on the wire. */
+    public long bytesOut() {
+        return bytesOut.get();
+    }
+
+    private boolean compressible(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        if (contentType == null || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        MediaType type = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(candidate -> candidate.includes(type));
+    }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletResponse response;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream target; // null until decided
+        private GZIPOutputStream gzip;
+        private long contentLength = -1;
+        private long written;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        // Only known to be right once we decide not to compress
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (target == null) {
+                contentLength = len;
+            } else if (gzip == null) {
+                response.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CompressingOutputStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CompressingOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            flush();
+            response.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (target == null) {
+                pending.reset();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (target == null) {
+                pending.reset();
+                contentLength = -1;
+            }
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            written += length;
+            if (target != null) {
+                target.write(bytes, offset, length);
+                return;
+            }
+            pending.write(bytes, offset, length);
+            if (pending.size() >= minResponseSize) {
+                decide(true);
+            }
+        }
+
+        void flush() throws IOException {
+            if (target == null && pending.size() > 0) {
+                decide(false);
+            }
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null && pending.size() > 0) {
+                decide(false);
+            } else if (target == null && contentLength >= 0) {
+                // Nothing written: leave the body (and any error page) to the container
+                response.setContentLengthLong(contentLength);
+            }
+            if (gzip != null) {
+                gzip.finish();
+                compressed.incrementAndGet();
+                bytesIn.addAndGet(written);
+            }
+        }
+
+        private void decide(boolean compress) throws IOException {
+            OutputStream out = response.getOutputStream();
+            if (compress && !response.isCommitted() && compressible(response)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                CountingOutputStream counted = new CountingOutputStream(out);
+                gzip = new GZIPOutputStream(counted, 8192, true) {
+                    {
+                        def.setLevel(level);
+                    }
+                };
+                target = gzip;
+            } else {
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                target = out;
+            }
+            pending.writeTo(target);
+            pending.reset();
+        }
+
+        private class CompressingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                CompressingResponse.this.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                CompressingResponse.this.flush();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Non-blocking writes are not supported");
+            }
+        }
+    }
+
+    private class CountingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytesOut.incrementAndGet();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytesOut.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.titus.developer.jugtours.web;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Keeps the in-flight OAuth2 authorization request in a signed cookie instead
+ * of the HTTP session.
+ *
+ * The request is saved when the browser is sent to the identity provider and
+ * read back on the callback, which may land on any instance: every node signs
+ * and verifies with the same key, so no sticky routing or shared session store
+ * is needed. The cookie carries its own expiry under the signature and is
+ * cleared as soon as the callback consumes it.
+ */
+@Component
+public class CookieOAuth2AuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    private static final Logger log = LoggerFactory.getLogger(CookieOAuth2AuthorizationRequestRepository.class);
+
+    static final String COOKIE_NAME = "oauth2_auth_request";
+
+    // Only what an OAuth2AuthorizationRequest is made of may be deserialized
+    private static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=10;java.lang.*;java.util.*;org.springframework.security.oauth2.core.**;!*");
+
+    @Value("${oauth2.authorization-request.cookie-secret:${jwt.secret:mySecretKey123456789012345678901234567890}}")
+    private String secret;
+
+    // Seconds the user has to finish logging in at the identity provider
+    @Value("${oauth2.authorization-request.max-age:180}")
+    private int maxAge;
+
+    private SecretKeySpec signingKey;
+
+    @PostConstruct
+    void init() {
+        signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        Cookie cookie = findCookie(request);
+        return cookie != null ? decode(cookie.getValue()) : null;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest,
+            HttpServletRequest request, HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            clearCookie(request, response);
+            return;
+        }
+        writeCookie(request, response, encode(authorizationRequest), maxAge);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+            HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            clearCookie(request, response);
+        }
+        return authorizationRequest;
+    }
+
+    // base64url(expiry millis + serialized request) "." base64url(HMAC-SHA256 of the former)
+    private String encode(OAuth2AuthorizationRequest authorizationRequest) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream data = new DataOutputStream(bytes)) {
+                data.writeLong(System.currentTimeMillis() + maxAge * 1000L);
+                try (ObjectOutputStream objects = new ObjectOutputStream(data)) {
+                    objects.writeObject(authorizationRequest);
+                }
+            }
+            byte[] payload = bytes.toByteArray();
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize OAuth2 authorization request", e);
+        }
+    }
+
+    private OAuth2AuthorizationRequest decode(String value) {
+        int dot = value.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(value.substring(0, dot));
+            byte[] signature = decoder.decode(value.substring(dot + 1));
+            // Nothing is deserialized until the signature checks out
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                log.warn("Rejected OAuth2 authorization request cookie with a bad signature");
+                return null;
+            }
+            try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload))) {
+                if (data.readLong() < System.currentTimeMillis()) {
+                    return null;
+                }
+                ObjectInputStream objects = new ObjectInputStream(data);
+                objects.setObjectInputFilter(DESERIALIZATION_FILTER);
+                return (OAuth2AuthorizationRequest) objects.readObject();
+            }
+        } catch (IllegalArgumentException | IOException | ClassNotFoundException | ClassCastException e) {
+            log.warn("Could not read OAuth2 authorization request cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static Cookie findCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return cookie;
+            }
+        }
+        return null;
+    }
+
+    private static void clearCookie(HttpServletRequest request, HttpServletResponse response) {
+        writeCookie(request, response, "", 0);
+    }
+
+    // Lax still sends the cookie on the identity provider's top-level redirect back to us
+    private static void writeCookie(HttpServletRequest request, HttpServletResponse response,
+            String value, int maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .path("/")
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
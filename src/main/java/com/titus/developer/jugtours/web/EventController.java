@@ -1,17 +1,27 @@
 package com.titus.developer.jugtours.web;
 
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessagePublisher;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
 import com.titus.developer.jugtours.model.Event;
 import com.titus.developer.jugtours.model.EventRepository;
 import com.titus.developer.jugtours.model.Group;
 import com.titus.developer.jugtours.model.GroupRepository;
 import com.titus.developer.jugtours.model.User;
-import com.titus.developer.jugtours.model.UserRepository;
 import com.titus.developer.jugtours.service.ImageService;
+import com.titus.developer.jugtours.service.ReadYourWritesService;
+import com.titus.developer.jugtours.service.UserService;
+import com.titus.developer.jugtours.service.WaitlistService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -21,6 +31,7 @@ import java.security.Principal;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import java.util.HashMap;
@@ -38,58 +49,33 @@ class EventController {
     private static final Logger log = LoggerFactory.getLogger(EventController.class);
     private EventRepository eventRepository;
     private GroupRepository groupRepository;
-    private UserRepository userRepository;
+    private UserService userService;
     private ImageService imageService;
+    private RsvpMessagePublisher rsvpPublisher;
+    private RsvpRetryScheduler retryScheduler;
+    private WaitlistService waitlistService;
+    private ObservationRegistry observationRegistry;
+    private ReadYourWritesService readYourWrites;
 
     public EventController(EventRepository eventRepository, GroupRepository groupRepository,
-            UserRepository userRepository, ImageService imageService) {
+            UserService userService, ImageService imageService, RsvpMessagePublisher rsvpPublisher,
+            RsvpRetryScheduler retryScheduler, WaitlistService waitlistService,
+            ObservationRegistry observationRegistry, ReadYourWritesService readYourWrites) {
         this.eventRepository = eventRepository;
         this.groupRepository = groupRepository;
-        this.userRepository = userRepository;
+        this.userService = userService;
         this.imageService = imageService;
+        this.rsvpPublisher = rsvpPublisher;
+        this.retryScheduler = retryScheduler;
+        this.waitlistService = waitlistService;
+        this.observationRegistry = observationRegistry;
+        this.readYourWrites = readYourWrites;
     }
 
     @GetMapping("/events")
     Collection<Map<String, Object>> events(Principal principal) {
         Collection<Event> userEvents = eventRepository.findAllById(principal.getName());
-        return userEvents.stream().map(event -> {
-            Map<String, Object> eventWithGroup = new java.util.HashMap<>();
-            eventWithGroup.put("id", event.getId());
-            eventWithGroup.put("date", event.getDate());
-            eventWithGroup.put("title", event.getTitle());
-            eventWithGroup.put("description", event.getDescription());
-
-            if (event.getGroup() != null) {
-                Map<String, Object> groupInfo = new java.util.HashMap<>();
-                groupInfo.put("id", event.getGroup().getId());
-                groupInfo.put("name", event.getGroup().getName());
-                groupInfo.put("address", event.getGroup().getAddress());
-                groupInfo.put("city", event.getGroup().getCity());
-                groupInfo.put("stateOrProvince", event.getGroup().getStateOrProvince());
-                groupInfo.put("country", event.getGroup().getCountry());
-                groupInfo.put("postalCode", event.getGroup().getPostalCode());
-                groupInfo.put("imageUrl", event.getGroup().getImageUrl());
-
-                eventWithGroup.put("group", groupInfo);
-            }
-
-            // Add attendees
-            if (event.getAttendees() != null) {
-                Collection<Map<String, Object>> attendees = event.getAttendees().stream()
-                        .map(attendee -> {
-                            Map<String, Object> attendeeInfo = new java.util.HashMap<>();
-                            attendeeInfo.put("id", attendee.getId());
-                            attendeeInfo.put("name", attendee.getName());
-                            attendeeInfo.put("email", attendee.getEmail());
-                            attendeeInfo.put("profilePictureUrl", attendee.getProfilePictureUrl());
-                            return attendeeInfo;
-                        })
-                        .collect(java.util.stream.Collectors.toList());
-                eventWithGroup.put("attendees", attendees);
-            }
-
-            return eventWithGroup;
-        }).collect(java.util.stream.Collectors.toList());
+        return views(userEvents);
     }
 
     @GetMapping("events/available")
@@ -98,8 +84,9 @@ class EventController {
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String date) {
 
-        long startTime = System.currentTimeMillis();
-        log.info("Fetching events - Page: {}, Size: {}, Date filter: {}", page, size, date);
+        log.debug("Fetching events - Page: {}, Size: {}, Date filter: {}", page, size, date);
+        EventPageEvent jfr = new EventPageEvent();
+        jfr.begin();
 
         Collection<Event> allEvents;
         long totalElements;
@@ -108,6 +95,7 @@ class EventController {
             // When filtering by date, get all events and filter in memory (for minimal
             // change)
             allEvents = eventRepository.findAll();
+            jfr.rowsScanned = allEvents.size();
             allEvents = allEvents.stream()
                     .filter(event -> {
                         try {
@@ -133,53 +121,11 @@ class EventController {
             Page<Event> eventPage = eventRepository.findAllWithGroupAndAttendees(pageable);
             allEvents = eventPage.getContent();
             totalElements = eventPage.getTotalElements();
+            jfr.rowsScanned = allEvents.size();
         }
 
-        long dbTime = System.currentTimeMillis();
-        log.info("Database query took: {}ms, returned {} events",
-                dbTime - startTime, allEvents.size());
-
         // Process the events (either from pagination or filtering)
-        List<Map<String, Object>> eventList = allEvents.stream()
-                .map(event -> {
-                    Map<String, Object> eventWithGroup = new HashMap<>();
-                    eventWithGroup.put("id", event.getId());
-                    eventWithGroup.put("date", event.getDate());
-                    eventWithGroup.put("title", event.getTitle());
-                    eventWithGroup.put("description", event.getDescription());
-
-                    if (event.getGroup() != null) {
-                        Map<String, Object> groupInfo = new HashMap<>();
-                        groupInfo.put("id", event.getGroup().getId());
-                        groupInfo.put("name", event.getGroup().getName());
-                        groupInfo.put("address", event.getGroup().getAddress());
-                        groupInfo.put("city", event.getGroup().getCity());
-                        groupInfo.put("stateOrProvince", event.getGroup().getStateOrProvince());
-                        groupInfo.put("country", event.getGroup().getCountry());
-                        groupInfo.put("postalCode", event.getGroup().getPostalCode());
-                        groupInfo.put("imageUrl", event.getGroup().getImageUrl());
-
-                        eventWithGroup.put("group", groupInfo);
-                    }
-
-                    // Add attendees
-                    if (event.getAttendees() != null) {
-                        List<Map<String, Object>> attendees = event.getAttendees().stream()
-                                .map(attendee -> {
-                                    Map<String, Object> attendeeInfo = new HashMap<>();
-                                    attendeeInfo.put("id", attendee.getId());
-                                    attendeeInfo.put("name", attendee.getName());
-                                    attendeeInfo.put("email", attendee.getEmail());
-                                    attendeeInfo.put("profilePictureUrl", attendee.getProfilePictureUrl());
-                                    return attendeeInfo;
-                                })
-                                .collect(Collectors.toList());
-                        eventWithGroup.put("attendees", attendees);
-                    }
-
-                    return eventWithGroup;
-                })
-                .collect(Collectors.toList());
+        List<Map<String, Object>> eventList = views(allEvents);
 
         Map<String, Object> response = new HashMap<>();
         response.put("content", eventList);
@@ -189,10 +135,12 @@ class EventController {
         response.put("totalPages", (int) Math.ceil((double) totalElements / size));
         response.put("hasNext", (page + 1) * size < totalElements);
 
-        long totalTime = System.currentTimeMillis() - startTime;
-        log.info("Request completed in {}ms - Sent {} events to client",
-                totalTime, eventList.size());
-
+        jfr.page = page;
+        jfr.size = size;
+        jfr.dateFiltered = date != null && !date.trim().isEmpty();
+        jfr.rows = eventList.size();
+        jfr.totalElements = totalElements;
+        jfr.commit();
         return ResponseEntity.ok(response);
     }
 
@@ -222,6 +170,8 @@ class EventController {
             @RequestParam(defaultValue = "20") int size,
             Principal principal, HttpServletRequest request) {
         log.info("Request to search events with query: '{}', page: {}, size: {}", q, page, size);
+        EventSearchEvent jfr = new EventSearchEvent();
+        jfr.begin();
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("date").ascending());
         Page<Event> searchResults = eventRepository.findByTitleContainingIgnoreCase(q.trim(), pageable);
@@ -235,6 +185,12 @@ class EventController {
         response.put("totalElements", searchResults.getTotalElements());
         response.put("hasNext", searchResults.hasNext());
 
+        jfr.query = q;
+        jfr.page = page;
+        jfr.size = size;
+        jfr.rows = searchResults.getNumberOfElements();
+        jfr.totalElements = searchResults.getTotalElements();
+        jfr.commit();
         return ResponseEntity.ok(response);
         // String userId = getUserId(principal, request);
         // Map<String, Object> userDetails = getUserDetails(principal, request);
@@ -258,43 +214,7 @@ class EventController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        Event event = eventOpt.get();
-        Map<String, Object> eventWithGroup = new java.util.HashMap<>();
-        eventWithGroup.put("id", event.getId());
-        eventWithGroup.put("date", event.getDate());
-        eventWithGroup.put("title", event.getTitle());
-        eventWithGroup.put("description", event.getDescription());
-
-        if (event.getGroup() != null) {
-            Map<String, Object> groupInfo = new java.util.HashMap<>();
-            groupInfo.put("id", event.getGroup().getId());
-            groupInfo.put("name", event.getGroup().getName());
-            groupInfo.put("address", event.getGroup().getAddress());
-            groupInfo.put("city", event.getGroup().getCity());
-            groupInfo.put("stateOrProvince", event.getGroup().getStateOrProvince());
-            groupInfo.put("country", event.getGroup().getCountry());
-            groupInfo.put("postalCode", event.getGroup().getPostalCode());
-            groupInfo.put("imageUrl", event.getGroup().getImageUrl());
-
-            eventWithGroup.put("group", groupInfo);
-        }
-
-        // Add attendees
-        if (event.getAttendees() != null) {
-            Collection<Map<String, Object>> attendees = event.getAttendees().stream()
-                    .map(attendee -> {
-                        Map<String, Object> attendeeInfo = new java.util.HashMap<>();
-                        attendeeInfo.put("id", attendee.getId());
-                        attendeeInfo.put("name", attendee.getName());
-                        attendeeInfo.put("email", attendee.getEmail());
-                        attendeeInfo.put("profilePictureUrl", attendee.getProfilePictureUrl());
-                        return attendeeInfo;
-                    })
-                    .collect(java.util.stream.Collectors.toList());
-            eventWithGroup.put("attendees", attendees);
-        }
-
-        return ResponseEntity.ok().body(eventWithGroup);
+        return ResponseEntity.ok().body(EventViews.of(eventOpt.get()));
     }
 
     @PostMapping("/events")
@@ -303,12 +223,6 @@ class EventController {
         log.info("Request to create event: {}", eventRequest);
 
         String userId = getUserId(principal, request);
-        Map<String, Object> userDetails = getUserDetails(principal, request);
-
-        // Find or create user
-        Optional<User> user = userRepository.findById(userId);
-        user.orElse(new User(userId,
-                userDetails.get("name").toString(), userDetails.get("email").toString()));
 
         // Find the group and verify user owns it
         Optional<Group> group = groupRepository.findById(eventRequest.getGroupId());
@@ -371,6 +285,18 @@ class EventController {
     @Transactional
     ResponseEntity<?> joinEvent(@PathVariable("id") Long eventId,
             Principal principal, HttpServletRequest request) {
+        RsvpEvent rsvp = new RsvpEvent(eventId, "join");
+        rsvp.begin();
+        ResponseEntity<?> response = null;
+        try {
+            response = join(eventId, principal, request);
+            return response;
+        } finally {
+            commitOnCompletion(rsvp, response);
+        }
+    }
+
+    private ResponseEntity<?> join(Long eventId, Principal principal, HttpServletRequest request) {
         log.info("Request to attend event: {}", eventId);
 
         String userId = getUserId(principal, request);
@@ -378,23 +304,11 @@ class EventController {
 
         log.info("User ID: {}", userId);
 
-        // Find user
-        Optional<User> user = userRepository.findById(userId);
-        User currentUser = user.orElse(new User(userId,
-                userDetails.get("name").toString(), userDetails.get("email").toString()));
-
-        // Save the user if it's new
-        if (user.isEmpty()) {
-            // Assign a random profile picture to the new user
-            currentUser.setProfilePictureUrl(imageService.generateRandomProfilePictureUrl(userId));
-            currentUser = userRepository.save(currentUser);
-            log.info("Created new user: {}", currentUser.getName());
-        } else {
-            log.info("Found existing user: {}", currentUser.getName());
-        }
+        // Users are upserted at login, so this is normally a cache hit
+        User currentUser = userService.resolve(userId, userDetails);
 
-        // Find the event
-        Optional<Event> eventOpt = eventRepository.findById(eventId);
+        // With its current attendees; a cached list may predate another instance's write
+        Optional<Event> eventOpt = eventRepository.findWithAttendeesById(eventId);
         if (eventOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -409,10 +323,18 @@ class EventController {
         }
 
         // add user to event
-        event.addAttendee(currentUser);
+        event.addAttendee(userService.reference(userId));
         Event result = eventRepository.save(event);
         log.info("User {} successfully joined event {}", userId, eventId);
 
+        RsvpMessage message = new RsvpMessage(eventId, userId, currentUser.getName(),
+                currentUser.getEmail(), "CONFIRMED");
+        afterCommit(() -> {
+            readYourWrites.recordWrite(userId);
+            // Committed already: a failed publish is retried, not reported to the user
+            retryScheduler.retryIfUnsent(RsvpMessage.CONFIRMED, message, rsvpPublisher.sendRsvpConfirmed(message));
+        });
+
         return ResponseEntity.ok().body(result);
     }
 
@@ -420,12 +342,24 @@ class EventController {
     @Transactional
     ResponseEntity<?> leaveEvent(@PathVariable("id") Long eventId,
             Principal principal, HttpServletRequest request) {
+        RsvpEvent rsvp = new RsvpEvent(eventId, "leave");
+        rsvp.begin();
+        ResponseEntity<?> response = null;
+        try {
+            response = leave(eventId, principal, request);
+            return response;
+        } finally {
+            commitOnCompletion(rsvp, response);
+        }
+    }
+
+    private ResponseEntity<?> leave(Long eventId, Principal principal, HttpServletRequest request) {
         log.info("Request to leave event: {}", eventId);
 
         String userId = getUserId(principal, request);
 
-        // Find the event
-        Optional<Event> eventOpt = eventRepository.findById(eventId);
+        // With its current attendees; a cached list may predate another instance's write
+        Optional<Event> eventOpt = eventRepository.findWithAttendeesById(eventId);
         if (eventOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -448,6 +382,14 @@ class EventController {
             event.removeAttendee(userToRemove);
             eventRepository.save(event);
             log.info("User {} successfully left event {}", userId, eventId);
+
+            RsvpMessage message = new RsvpMessage(eventId, userId, userToRemove.getName(),
+                    userToRemove.getEmail(), "CANCELLED");
+            afterCommit(() -> {
+                readYourWrites.recordWrite(userId);
+                retryScheduler.retryIfUnsent(RsvpMessage.CANCELLED, message,
+                        rsvpPublisher.sendRsvpCancelled(message));
+            });
         }
 
         return ResponseEntity.ok().build();
@@ -455,6 +397,84 @@ class EventController {
     // // Logic to remove user from event attendees
     // }
 
+    @GetMapping("/events/{id}/waitlist")
+    ResponseEntity<?> waitlistStatus(@PathVariable("id") Long eventId,
+            Principal principal, HttpServletRequest request) {
+        String userId = getUserId(principal, request);
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("eventId", eventId);
+        status.put("size", waitlistService.size(eventId));
+        status.put("position", waitlistService.position(eventId, userId).orElse(null));
+        return ResponseEntity.ok().body(status);
+    }
+
+    // Waitlist changes are applied asynchronously by the RSVP pipeline
+    @PostMapping("/events/{id}/waitlist")
+    ResponseEntity<?> joinWaitlist(@PathVariable("id") Long eventId,
+            Principal principal, HttpServletRequest request) {
+        log.info("Request to join waitlist of event: {}", eventId);
+
+        String userId = getUserId(principal, request);
+        Map<String, Object> userDetails = getUserDetails(principal, request);
+
+        Optional<Event> eventOpt = eventRepository.findById(eventId);
+        if (eventOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (eventOpt.get().hasAttendee(userId)) {
+            return ResponseEntity.badRequest().body("User is already attending this event");
+        }
+
+        User currentUser = userService.resolve(userId, userDetails);
+        RsvpMessage message = new RsvpMessage(eventId, userId, currentUser.getName(),
+                currentUser.getEmail(), RsvpMessage.WAITLIST);
+        if (!accepted(RsvpMessage.WAITLIST, message, rsvpPublisher.sendWaitlistAdded(message))) {
+            return unavailable();
+        }
+        // Written asynchronously, usually well within the window
+        readYourWrites.recordWrite(userId);
+        return ResponseEntity.accepted().build();
+    }
+
+    @DeleteMapping("/events/{id}/waitlist")
+    ResponseEntity<?> leaveWaitlist(@PathVariable("id") Long eventId,
+            Principal principal, HttpServletRequest request) {
+        log.info("Request to leave waitlist of event: {}", eventId);
+
+        String userId = getUserId(principal, request);
+        if (waitlistService.position(eventId, userId).isEmpty()) {
+            return ResponseEntity.badRequest().body("User is not on the waitlist for this event");
+        }
+
+        // Not a CANCELLED: if the user was promoted meanwhile, that would free their new seat
+        RsvpMessage message = new RsvpMessage(eventId, userId, null, null, RsvpMessage.WAITLIST_LEFT);
+        if (!accepted(RsvpMessage.WAITLIST_LEFT, message, rsvpPublisher.sendWaitlistLeft(message))) {
+            return unavailable();
+        }
+        readYourWrites.recordWrite(userId);
+        return ResponseEntity.accepted().build();
+    }
+
+    // The waitlist endpoints write nothing themselves, so a publish the transport
+    // turned away (a full publish window) fails the request and the client can
+    // try again. Failures after that, like a missing broker confirm, fall back to
+    // a stored retry like any other unpublished message.
+    private boolean accepted(String type, RsvpMessage message, CompletableFuture<Void> sent) {
+        if (sent.isCompletedExceptionally()) {
+            log.warn("RSVP {} message rejected by the publisher: {}", type, message);
+            return false;
+        }
+        retryScheduler.retryIfUnsent(type, message, sent);
+        return true;
+    }
+
+    private ResponseEntity<?> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("RSVP processing is busy, please try again");
+    }
+
     // DTO for event creation
     public static class EventRequest {
         private String title;
@@ -496,8 +516,51 @@ class EventController {
         }
     }
 
+    // Publish RSVP side effects only once the attendee change is committed, so
+    // consumers never see (or race with) uncommitted state
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Records the RSVP once the transaction is over, so its duration covers the
+    // flush and commit; a null response means the handler threw
+    private static void commitOnCompletion(RsvpEvent rsvp, ResponseEntity<?> response) {
+        if (!rsvp.isEnabled()) {
+            return;
+        }
+        rsvp.status = response != null ? response.getStatusCode().value() : 500;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rsvp.commit();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                rsvp.committed = status == STATUS_COMMITTED;
+                rsvp.commit();
+            }
+        });
+    }
+
     // Helper methods to get user ID and details from either JWT claims or OAuth2
     // principal
+    // Own span, so lazy group and attendee loads show up apart from the repository call
+    private List<Map<String, Object>> views(Collection<Event> events) {
+        return Observation.createNotStarted("jugtours.view.mapping", observationRegistry)
+                .contextualName("map events")
+                .lowCardinalityKeyValue("view", "event")
+                .observe(() -> events.stream().map(EventViews::of).collect(Collectors.toList()));
+    }
+
     private String getUserId(Principal principal, HttpServletRequest request) {
         // Try JWT first
         io.jsonwebtoken.Claims claims = (io.jsonwebtoken.Claims) request.getAttribute("jwtClaims");
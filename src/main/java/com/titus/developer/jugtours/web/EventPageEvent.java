@@ -0,0 +1,35 @@
+package com.titus.developer.jugtours.web;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one page of GET /api/events/available. */
+@Name("com.titus.jugtours.EventPage")
+@Label("Available Events Page")
+@Category({"JUG Tours", "Web"})
+@StackTrace(false)
+class EventPageEvent extends Event {
+
+    @Label("Page")
+    int page;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Date Filtered")
+    boolean dateFiltered;
+
+    @Label("Rows Scanned")
+    @Description("Events loaded to build the page; the date filter pages in memory")
+    int rowsScanned;
+
+    @Label("Rows Returned")
+    int rows;
+
+    @Label("Total Elements")
+    long totalElements;
+}
@@ -0,0 +1,30 @@
+package com.titus.developer.jugtours.web;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one page of GET /api/events/search. */
+@Name("com.titus.jugtours.EventSearch")
+@Label("Event Search")
+@Category({"JUG Tours", "Web"})
+@StackTrace(false)
+class EventSearchEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Page")
+    int page;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Rows Returned")
+    int rows;
+
+    @Label("Total Elements")
+    long totalElements;
+}
@@ -0,0 +1,99 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.ReactiveEventRepository.EventListingRow;
+import com.titus.developer.jugtours.model.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JSON shape of an event as the frontend expects it: the event's fields,
+ * its group's details and its attendees. Shared by every endpoint that
+ * returns events, the reactive API, and by the view-serialization benchmark.
+ */
+public final class EventViews {
+
+    private EventViews() {
+    }
+
+    public static Map<String, Object> of(Event event) {
+        Map<String, Object> eventWithGroup = new HashMap<>();
+        eventWithGroup.put("id", event.getId());
+        eventWithGroup.put("date", event.getDate());
+        eventWithGroup.put("title", event.getTitle());
+        eventWithGroup.put("description", event.getDescription());
+
+        Group group = event.getGroup();
+        if (group != null) {
+            Map<String, Object> groupInfo = new HashMap<>();
+            groupInfo.put("id", group.getId());
+            groupInfo.put("name", group.getName());
+            groupInfo.put("address", group.getAddress());
+            groupInfo.put("city", group.getCity());
+            groupInfo.put("stateOrProvince", group.getStateOrProvince());
+            groupInfo.put("country", group.getCountry());
+            groupInfo.put("postalCode", group.getPostalCode());
+            groupInfo.put("imageUrl", group.getImageUrl());
+
+            eventWithGroup.put("group", groupInfo);
+        }
+
+        // Add attendees
+        if (event.getAttendees() != null) {
+            List<Map<String, Object>> attendees = new ArrayList<>(event.getAttendees().size());
+            for (User attendee : event.getAttendees()) {
+                Map<String, Object> attendeeInfo = new HashMap<>();
+                attendeeInfo.put("id", attendee.getId());
+                attendeeInfo.put("name", attendee.getName());
+                attendeeInfo.put("email", attendee.getEmail());
+                attendeeInfo.put("profilePictureUrl", attendee.getProfilePictureUrl());
+                attendees.add(attendeeInfo);
+            }
+            eventWithGroup.put("attendees", attendees);
+        }
+
+        return eventWithGroup;
+    }
+
+    /**
+     * The same view from an event's listing rows, one per attendee.
+     */
+    public static Map<String, Object> of(List<EventListingRow> rows) {
+        EventListingRow first = rows.get(0);
+        Map<String, Object> eventWithGroup = new HashMap<>();
+        eventWithGroup.put("id", first.eventId());
+        eventWithGroup.put("date", first.date());
+        eventWithGroup.put("title", first.title());
+        eventWithGroup.put("description", first.description());
+
+        Map<String, Object> groupInfo = new HashMap<>();
+        groupInfo.put("id", first.groupId());
+        groupInfo.put("name", first.groupName());
+        groupInfo.put("address", first.groupAddress());
+        groupInfo.put("city", first.groupCity());
+        groupInfo.put("stateOrProvince", first.groupStateOrProvince());
+        groupInfo.put("country", first.groupCountry());
+        groupInfo.put("postalCode", first.groupPostalCode());
+        groupInfo.put("imageUrl", first.groupImageUrl());
+        eventWithGroup.put("group", groupInfo);
+
+        List<Map<String, Object>> attendees = new ArrayList<>(rows.size());
+        for (EventListingRow row : rows) {
+            if (row.attendeeId() != null) {
+                Map<String, Object> attendeeInfo = new HashMap<>();
+                attendeeInfo.put("id", row.attendeeId());
+                attendeeInfo.put("name", row.attendeeName());
+                attendeeInfo.put("email", row.attendeeEmail());
+                attendeeInfo.put("profilePictureUrl", row.attendeeProfilePictureUrl());
+                attendees.add(attendeeInfo);
+            }
+        }
+        eventWithGroup.put("attendees", attendees);
+
+        return eventWithGroup;
+    }
+}
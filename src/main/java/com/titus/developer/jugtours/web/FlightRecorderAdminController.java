@@ -0,0 +1,68 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.service.FlightRecorderService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Admins only (SecurityConfiguration): dumps hold stack traces, system properties and environment
+@RestController
+@RequestMapping("/api/admin/jfr")
+class FlightRecorderAdminController {
+
+    private final FlightRecorderService flightRecorder;
+    // A dump can be hundreds of MB of disk and a lot of I/O; one at a time
+    private final AtomicBoolean dumping = new AtomicBoolean();
+
+    public FlightRecorderAdminController(FlightRecorderService flightRecorder) {
+        this.flightRecorder = flightRecorder;
+    }
+
+    @GetMapping
+    Map<String, Object> status() {
+        return flightRecorder.getStats();
+    }
+
+    // Open the result in JDK Mission Control or with `jfr print`
+    @PostMapping("/dump")
+    void dump(HttpServletResponse response) throws IOException {
+        if (!dumping.compareAndSet(false, true)) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        try {
+            Optional<Path> dump = flightRecorder.dump();
+            if (dump.isEmpty()) {
+                response.setStatus(HttpStatus.CONFLICT.value());
+                return;
+            }
+            Path file = dump.get();
+            // Deleted however the response ends, including a client that disconnects mid-copy
+            try {
+                String filename = "jugtours-"
+                        + Instant.now().truncatedTo(ChronoUnit.SECONDS).toString().replace(':', '-') + ".jfr";
+                response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+                response.setContentLengthLong(Files.size(file));
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString());
+                Files.copy(file, response.getOutputStream());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            dumping.set(false);
+        }
+    }
+}
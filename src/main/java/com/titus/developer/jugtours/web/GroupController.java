@@ -1,11 +1,12 @@
 package com.titus.developer.jugtours.web;
 
 import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
 import com.titus.developer.jugtours.model.Group;
 import com.titus.developer.jugtours.model.GroupRepository;
 import com.titus.developer.jugtours.model.User;
-import com.titus.developer.jugtours.model.UserRepository;
 import com.titus.developer.jugtours.service.ImageService;
+import com.titus.developer.jugtours.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -37,19 +38,20 @@ class GroupController {
 
     private final Logger log = LoggerFactory.getLogger(GroupController.class);
     private GroupRepository groupRepository;
-    private UserRepository userRepository;
+    private EventRepository eventRepository;
+    private UserService userService;
     private ImageService imageService;
 
-    public GroupController(GroupRepository groupRepository, UserRepository userRepository, ImageService imageService) {
+    public GroupController(GroupRepository groupRepository, EventRepository eventRepository,
+            UserService userService, ImageService imageService) {
         this.groupRepository = groupRepository;
-        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+        this.userService = userService;
         this.imageService = imageService;
     }
 
     @GetMapping("/groups")
     Collection<Map<String, Object>> groups(Principal principal, HttpServletRequest request) {
-        long startTime = System.currentTimeMillis();
-        
         String userId = getUserId(principal, request);
         List<Object[]> userGroupSummaries = groupRepository.findUserGroupSummaries(userId);
 
@@ -81,9 +83,6 @@ class GroupController {
                 return group;
             })
             .collect(Collectors.toList());
-            
-        long endTime = System.currentTimeMillis();
-        log.info("User groups fetched in {}ms - {} groups", endTime - startTime, result.size());
 
         return result;
     }
@@ -94,6 +93,16 @@ class GroupController {
         Collection<Group> groups = groupRepository.findAllWithMembersAndEvents();
         // log.info("Found {} groups", groups.size());
 
+        // The response includes every event's attendees. Load them all in one query
+        // (into the same persistence context) instead of one lazy fetch per event.
+        List<Long> eventIds = groups.stream()
+                .flatMap(group -> group.getEvents().stream())
+                .map(Event::getId)
+                .toList();
+        if (!eventIds.isEmpty()) {
+            eventRepository.findAllWithAttendeesByIdIn(eventIds);
+        }
+
         // Ensure all groups have consistent images
         groups.forEach(group -> {
             // log.info("Group {}: imageUrl = {}", group.getId(), group.getImageUrl());
@@ -113,8 +122,6 @@ class GroupController {
 
     @GetMapping("/groups/summary")
     Collection<Map<String, Object>> getGroupSummaries() {
-        long startTime = System.currentTimeMillis();
-        
         List<Object[]> summaries = groupRepository.findAllGroupSummaries();
         
         List<Map<String, Object>> result = summaries.stream()
@@ -133,10 +140,7 @@ class GroupController {
                 return group;
             })
             .collect(Collectors.toList());
-            
-        long endTime = System.currentTimeMillis();
-        log.info("Group summaries fetched in {}ms - {} groups", endTime - startTime, result.size());
-        
+
         return result;
     }
 
@@ -146,9 +150,10 @@ class GroupController {
             @RequestParam(defaultValue = "12") int size,
             HttpServletRequest request) {
         
-        long startTime = System.currentTimeMillis();
         String userId = getCurrentUserId(request);
-        log.info("Paginated groups request - userId: {}, page: {}, size: {}", userId, page, size);
+        log.debug("Paginated groups request - userId: {}, page: {}, size: {}", userId, page, size);
+        GroupPageEvent jfr = new GroupPageEvent();
+        jfr.begin();
         
         // Use database-level pagination
         Pageable pageable = PageRequest.of(page, size);
@@ -164,6 +169,7 @@ class GroupController {
                 // Ensure group has consistent image
                 if (imageUrl == null || imageUrl.isEmpty()) {
                     imageUrl = imageService.generateRandomImageUrl(groupId);
+                    jfr.imagesBackfilled++;
                     
                     // Update the database with the generated image URL
                     Optional<Group> groupEntity = groupRepository.findById(groupId);
@@ -198,10 +204,11 @@ class GroupController {
         response.put("totalPages", pageResult.getTotalPages());
         response.put("hasNext", pageResult.hasNext());
         
-        long endTime = System.currentTimeMillis();
-        log.info("Paginated available groups fetched in {}ms - page {} of {} (total {} groups)", 
-                endTime - startTime, pageResult.getNumber(), pageResult.getTotalPages(), pageResult.getTotalElements());
-        
+        jfr.page = page;
+        jfr.size = size;
+        jfr.rows = groups.size();
+        jfr.totalElements = pageResult.getTotalElements();
+        jfr.commit();
         return ResponseEntity.ok(response);
     }
     
@@ -366,10 +373,9 @@ class GroupController {
         String userId = getUserId(principal, request);
         Map<String, Object> userDetails = getUserDetails(principal, request);
 
-        // check to see if user already exists
-        Optional<User> user = userRepository.findById(userId);
-        User currentUser = user.orElse(new User(userId,
-                userDetails.get("name").toString(), userDetails.get("email").toString()));
+        // Users are upserted at login; attach a reference rather than loading the row
+        userService.resolve(userId, userDetails);
+        User currentUser = userService.reference(userId);
 
         // Check if a group with this name already exists
         Optional<Group> existingGroup = groupRepository.findByName(group.getName());
@@ -433,20 +439,9 @@ class GroupController {
 
         log.info("User ID: {}", userId);
 
-        // Find or create user
-        Optional<User> user = userRepository.findById(userId);
-        User currentUser = user.orElse(new User(userId,
-                userDetails.get("name").toString(), userDetails.get("email").toString()));
-
-        // Save the user if it's new
-        if (user.isEmpty()) {
-            // Assign a random profile picture to the new user
-            currentUser.setProfilePictureUrl(imageService.generateRandomProfilePictureUrl(userId));
-            currentUser = userRepository.save(currentUser);
-            log.info("Created new user: {}", currentUser.getName());
-        } else {
-            log.info("Found existing user: {}", currentUser.getName());
-        }
+        // Users are upserted at login; attach a reference rather than loading the row
+        userService.resolve(userId, userDetails);
+        User currentUser = userService.reference(userId);
 
         // Find the group
         Optional<Group> groupOpt = groupRepository.findById(groupId);
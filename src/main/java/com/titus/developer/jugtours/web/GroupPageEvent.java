@@ -0,0 +1,32 @@
+package com.titus.developer.jugtours.web;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** JFR event for one page of GET /api/groups/available/paginated. */
+@Name("com.titus.jugtours.GroupPage")
+@Label("Available Groups Page")
+@Category({"JUG Tours", "Web"})
+@StackTrace(false)
+class GroupPageEvent extends Event {
+
+    @Label("Page")
+    int page;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Rows Returned")
+    int rows;
+
+    @Label("Total Elements")
+    long totalElements;
+
+    @Label("Images Backfilled")
+    @Description("Groups without an image that were given one, each a lookup and an update")
+    int imagesBackfilled;
+}
@@ -1,12 +1,18 @@
 package com.titus.developer.jugtours.web;
 
 import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.TokenRevocationService;
 import io.jsonwebtoken.Claims;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,15 +21,28 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
+    // Required for /api/admin/** (see SecurityConfiguration)
+    public static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
     private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
+    private final ObservationRegistry observationRegistry;
+    private final Set<String> adminSubjects;
     
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocationService revocationService,
+            ObservationRegistry observationRegistry, @Value("${admin.subjects:}") String[] adminSubjects) {
         this.jwtService = jwtService;
+        this.revocationService = revocationService;
+        this.observationRegistry = observationRegistry;
+        this.adminSubjects = Set.copyOf(Arrays.asList(adminSubjects));
     }
     
     @Override
@@ -39,14 +58,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         String jwt = authHeader.substring(7);
         
-        if (jwtService.isTokenValid(jwt) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            Claims claims = jwtService.extractClaims(jwt);
+        // Already authenticated (e.g. OAuth2 session) - skip token work entirely
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        // One verification per request; repeat tokens are served from the verified-token cache.
+        // Revocation is checked on every request since cached tokens may since have been revoked.
+        Optional<Claims> verified = authenticate(jwt);
+        if (verified.isPresent()) {
+            Claims claims = verified.get();
             
             // Create a user details object from JWT claims
             UserDetails userDetails = User.builder()
                     .username(claims.getSubject())
                     .password("") // No password needed for JWT
-                    .authorities(new ArrayList<>()) // Add authorities if needed
+                    .authorities(authorities(claims.getSubject()))
                     .build();
             
             UsernamePasswordAuthenticationToken authToken = 
@@ -61,4 +89,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+    
+    private List<GrantedAuthority> authorities(String subject) {
+        return adminSubjects.contains(subject) ? List.of(new SimpleGrantedAuthority(ADMIN_AUTHORITY)) : List.of();
+    }
+
+    // Signature check (or cache hit) plus revocation lookup, as one span
+    private Optional<Claims> authenticate(String jwt) {
+        Observation observation = Observation.createNotStarted("jugtours.jwt.authenticate", observationRegistry)
+                .contextualName("jwt authenticate");
+        return observation.observe(() -> {
+            Optional<Claims> verified = jwtService.verify(jwt)
+                    .filter(claims -> !revocationService.isRevoked(claims.getId()));
+            observation.lowCardinalityKeyValue("outcome", verified.isPresent() ? "authenticated" : "rejected");
+            return verified;
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.service.SlowQueryLog;
+import com.titus.developer.jugtours.service.SlowQueryLog.SlowQuery;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+class QueryAdminController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public QueryAdminController(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    // Newest first, with bind values (types only unless jdbc.slow-query.capture-binds), origin and (once fetched) the plan
+    @GetMapping("/slow")
+    List<SlowQuery> slowQueries() {
+        return slowQueryLog.getEntries();
+    }
+
+    @GetMapping("/slow/stats")
+    Map<String, Object> slowQueryStats() {
+        return slowQueryLog.getStats();
+    }
+
+    @DeleteMapping("/slow")
+    ResponseEntity<?> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.config.QueryCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link QueryCounter} scope around each API request. With headers
+ * enabled (dev) the totals are returned as X-Query-Statements, X-Query-Rows
+ * and X-Query-Collections; the body is buffered for that, since the counts
+ * are only known once it has been written.
+ */
+public class QueryCountingFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_HEADER = "X-Query-Statements";
+    static final String ROWS_HEADER = "X-Query-Rows";
+    static final String COLLECTIONS_HEADER = "X-Query-Collections";
+
+    private final boolean headers;
+
+    public QueryCountingFilter(boolean headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String name = request.getMethod() + " " + request.getRequestURI();
+        if (!headers) {
+            try (QueryCounter.Scope ignored = QueryCounter.begin(name)) {
+                filterChain.doFilter(request, response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        QueryCounter.Scope scope = QueryCounter.begin(name);
+        try {
+            filterChain.doFilter(request, buffered);
+        } finally {
+            scope.close();
+            buffered.setHeader(STATEMENTS_HEADER, Long.toString(scope.getStatements()));
+            buffered.setHeader(ROWS_HEADER, Long.toString(scope.getRows()));
+            buffered.setHeader(COLLECTIONS_HEADER, Long.toString(scope.getCollections()));
+            buffered.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.model.ReactiveEventRepository;
+import com.titus.developer.jugtours.model.ReactiveEventRepository.EventListingRow;
+import com.titus.developer.jugtours.model.ReactiveGroupRepository;
+import com.titus.developer.jugtours.model.ReactiveGroupRepository.GroupSummaryRow;
+import com.titus.developer.jugtours.service.ImageService;
+import io.jsonwebtoken.Claims;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The browse endpoints of EventController and GroupController on WebFlux and
+ * R2DBC. Same paths and the same JSON per item, but each listing is streamed
+ * as it is read, as a JSON array or, for Accept: application/x-ndjson, one
+ * item per line. The paging metadata the MVC endpoints wrap around their
+ * content is sent as X-Total-Count instead. Reads only: group images missing
+ * from the database are filled in for the response but not saved.
+ */
+public class ReactiveBrowseHandler {
+
+    static final String TOTAL_COUNT = "X-Total-Count";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> VIEW =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final ReactiveEventRepository eventRepository;
+    private final ReactiveGroupRepository groupRepository;
+    private final ImageService imageService;
+
+    public ReactiveBrowseHandler(ReactiveEventRepository eventRepository, ReactiveGroupRepository groupRepository,
+            ImageService imageService) {
+        this.eventRepository = eventRepository;
+        this.groupRepository = groupRepository;
+        this.imageService = imageService;
+    }
+
+    // GET /api/events/available?page&size&date: events on or after date, if given, by date
+    public Mono<ServerResponse> availableEvents(ServerRequest request) {
+        int page = intParam(request, "page", 0, 0);
+        int size = intParam(request, "size", 20, 1);
+        long offset = (long) page * size;
+        Instant from = request.queryParam("date").filter(date -> !date.isBlank()).map(date -> {
+            try {
+                return LocalDate.parse(date.trim()).atStartOfDay(ZoneId.systemDefault()).toInstant();
+            } catch (DateTimeParseException e) {
+                throw new ServerWebInputException("date must be YYYY-MM-DD");
+            }
+        }).orElse(null);
+
+        Mono<Long> total = from == null ? eventRepository.count() : eventRepository.countByDateGreaterThanEqual(from);
+        Flux<EventListingRow> rows = from == null ? eventRepository.findListing(size, offset)
+                : eventRepository.findListingFrom(from, size, offset);
+        return total.flatMap(count -> stream(request, count, events(rows)));
+    }
+
+    // GET /api/events/search?q&page&size: title contains q, ignoring case, by date
+    public Mono<ServerResponse> searchEvents(ServerRequest request) {
+        String q = request.queryParam("q").orElseThrow(() -> new ServerWebInputException("q is required"));
+        int page = intParam(request, "page", 0, 0);
+        int size = intParam(request, "size", 20, 1);
+        String pattern = "%" + q.trim().toLowerCase()
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        return eventRepository.countByTitleLike(pattern).flatMap(count -> stream(request, count,
+                events(eventRepository.findListingByTitleLike(pattern, size, (long) page * size))));
+    }
+
+    // GET /api/events/calendar-dates: {date, count} per day (UTC) that has events, in order, rather than
+    // the MVC endpoint's eventDates map; its totalEvents is the X-Total-Count
+    public Mono<ServerResponse> calendarDates(ServerRequest request) {
+        Flux<Map<String, Object>> days = eventRepository.findAllDates()
+                .map(row -> row.date().atOffset(ZoneOffset.UTC).toLocalDate().toString())
+                .bufferUntilChanged()
+                .map(dates -> {
+                    Map<String, Object> day = new HashMap<>();
+                    day.put("date", dates.get(0));
+                    day.put("count", dates.size());
+                    return day;
+                });
+        return eventRepository.count().flatMap(count -> stream(request, count, days));
+    }
+
+    // GET /api/groups/available/paginated?page&size: the caller's groups first, then by name
+    public Mono<ServerResponse> availableGroups(ServerRequest request) {
+        int page = intParam(request, "page", 0, 0);
+        int size = intParam(request, "size", 12, 1);
+        String userId = request.attribute("jwtClaims").map(claims -> ((Claims) claims).getSubject()).orElse(null);
+
+        Flux<Map<String, Object>> groups = groupRepository.findSummaries(userId, size, (long) page * size)
+                .map(this::group);
+        return groupRepository.count().flatMap(count -> stream(request, count, groups));
+    }
+
+    private static Flux<Map<String, Object>> events(Flux<EventListingRow> rows) {
+        return rows.bufferUntilChanged(EventListingRow::eventId).map(EventViews::of);
+    }
+
+    private Map<String, Object> group(GroupSummaryRow row) {
+        String imageUrl = row.imageUrl();
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            imageUrl = imageService.generateRandomImageUrl(row.id());
+        }
+        Map<String, Object> group = new HashMap<>();
+        group.put("id", row.id());
+        group.put("name", row.name());
+        group.put("imageUrl", imageUrl);
+        group.put("address", row.address());
+        group.put("city", row.city());
+        group.put("stateOrProvince", row.stateOrProvince());
+        group.put("country", row.country());
+        group.put("postalCode", row.postalCode());
+        group.put("memberCount", row.memberCount());
+        group.put("eventCount", row.eventCount());
+        group.put("isMember", row.isMember());
+        return group;
+    }
+
+    private static Mono<ServerResponse> stream(ServerRequest request, long total, Flux<Map<String, Object>> items) {
+        return ServerResponse.ok()
+                .header(TOTAL_COUNT, Long.toString(total))
+                .contentType(contentType(request))
+                .body(items, VIEW);
+    }
+
+    private static MediaType contentType(ServerRequest request) {
+        List<MediaType> accept = request.headers().accept();
+        return accept.contains(MediaType.APPLICATION_NDJSON) ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue, int min) {
+        int value;
+        try {
+            value = request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException(name + " must be a number");
+        }
+        if (value < min) {
+            throw new ServerWebInputException(name + " must be at least " + min);
+        }
+        return value;
+    }
+}
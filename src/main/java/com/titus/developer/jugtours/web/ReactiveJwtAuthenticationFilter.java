@@ -0,0 +1,44 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * {@link JwtAuthenticationFilter} for the reactive API: a bearer token is
+ * required, and its claims are left in the "jwtClaims" request attribute.
+ * Both checks are in memory (verified-token cache, revocation Bloom filter),
+ * so they run on the event loop.
+ */
+public class ReactiveJwtAuthenticationFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
+
+    public ReactiveJwtAuthenticationFilter(JwtService jwtService, TokenRevocationService revocationService) {
+        this.jwtService = jwtService;
+        this.revocationService = revocationService;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        Optional<Claims> verified = authHeader == null || !authHeader.startsWith("Bearer ") ? Optional.empty()
+                : jwtService.verify(authHeader.substring(7))
+                        .filter(claims -> !revocationService.isRevoked(claims.getId()));
+        if (verified.isEmpty()) {
+            return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        request.attributes().put("jwtClaims", verified.get());
+        return next.handle(request);
+    }
+}
@@ -0,0 +1,102 @@
+package com.titus.developer.jugtours.web;
+
+import com.titus.developer.jugtours.messaging.RsvpDeduplicator;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessageProducer;
+import com.titus.developer.jugtours.messaging.RsvpMessagePublisher;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler.ParkedRsvp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/admin/rsvp")
+class RsvpAdminController {
+
+    private final Logger log = LoggerFactory.getLogger(RsvpAdminController.class);
+    private final RsvpRetryScheduler retryScheduler;
+    private final RsvpMessagePublisher rsvpPublisher;
+    private final ObjectProvider<RsvpMessageProducer> rabbitProducer;
+    private final RsvpDeduplicator deduplicator;
+
+    public RsvpAdminController(RsvpRetryScheduler retryScheduler, RsvpMessagePublisher rsvpPublisher,
+            ObjectProvider<RsvpMessageProducer> rabbitProducer, RsvpDeduplicator deduplicator) {
+        this.retryScheduler = retryScheduler;
+        this.rsvpPublisher = rsvpPublisher;
+        this.rabbitProducer = rabbitProducer;
+        this.deduplicator = deduplicator;
+    }
+
+    @GetMapping("/parked")
+    List<ParkedRsvp> parked() {
+        return retryScheduler.getParked();
+    }
+
+    @GetMapping("/retries")
+    Map<String, Object> retryStats() {
+        return retryScheduler.getStats();
+    }
+
+    // Duplicate hit rate and evictions, for sizing rsvp.dedupe.*
+    @GetMapping("/dedupe")
+    Map<String, Object> dedupeStats() {
+        return deduplicator.getStats();
+    }
+
+    @GetMapping("/publisher")
+    Map<String, Object> publisherStats() {
+        RsvpMessageProducer producer = rabbitProducer.getIfAvailable();
+        return producer != null ? producer.getStats() : Map.of();
+    }
+
+    // Up to max messages from the parking lot, and up to max from the broker's dead letters
+    @PostMapping("/parked/replay")
+    ResponseEntity<Map<String, Object>> replayParked(@RequestParam(defaultValue = "1000") int max) {
+        List<ParkedRsvp> parked = retryScheduler.drainParked(max);
+        for (ParkedRsvp entry : parked) {
+            publish(entry.getType(), entry.getMessage());
+        }
+
+        // Broker-side dead letters only exist when RabbitMQ is the transport
+        RsvpMessageProducer producer = rabbitProducer.getIfAvailable();
+        int fromBroker = producer != null ? producer.replayDeadLettered(max) : 0;
+
+        log.info("Replayed {} parked RSVP messages and {} dead-lettered messages", parked.size(), fromBroker);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("replayed", parked.size());
+        response.put("replayedFromBroker", fromBroker);
+        return ResponseEntity.ok(response);
+    }
+
+    // Drained messages are no longer parked; one that can't be published goes back to retrying
+    private void publish(String type, RsvpMessage message) {
+        CompletableFuture<Void> sent;
+        switch (type) {
+            case RsvpMessage.CONFIRMED:
+                sent = rsvpPublisher.sendRsvpConfirmed(message);
+                break;
+            case RsvpMessage.WAITLIST:
+                sent = rsvpPublisher.sendWaitlistAdded(message);
+                break;
+            case RsvpMessage.WAITLIST_LEFT:
+                sent = rsvpPublisher.sendWaitlistLeft(message);
+                break;
+            case RsvpMessage.CANCELLED:
+                sent = rsvpPublisher.sendRsvpCancelled(message);
+                break;
+            default:
+                log.warn("Cannot replay RSVP message with unknown type {}: {}", type, message);
+                return;
+        }
+        retryScheduler.retryIfUnsent(type, message, sent);
+    }
+}
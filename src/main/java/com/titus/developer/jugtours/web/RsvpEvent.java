@@ -0,0 +1,39 @@
+package com.titus.developer.jugtours.web;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one join or leave. It is committed when the transaction
+ * completes, so its duration includes the flush and commit where attendee
+ * row locks are actually taken.
+ */
+@Name("com.titus.jugtours.Rsvp")
+@Label("RSVP")
+@Category({"JUG Tours", "Web"})
+@Description("Join or leave of an event, through transaction completion")
+@StackTrace(false)
+class RsvpEvent extends Event {
+
+    @Label("Event Id")
+    long eventId;
+
+    @Label("Action")
+    @Description("join or leave")
+    String action;
+
+    @Label("HTTP Status")
+    int status;
+
+    @Label("Committed")
+    boolean committed;
+
+    RsvpEvent(long eventId, String action) {
+        this.eventId = eventId;
+        this.action = action;
+    }
+}
@@ -1,7 +1,7 @@
 package com.titus.developer.jugtours.web;
 
 import com.titus.developer.jugtours.messaging.RsvpMessage;
-import com.titus.developer.jugtours.messaging.RsvpMessageProducer;
+import com.titus.developer.jugtours.messaging.RsvpMessagePublisher;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,9 +11,9 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/test")
 public class RsvpTestController {
     
-    private final RsvpMessageProducer rsvpMessageProducer;
+    private final RsvpMessagePublisher rsvpMessageProducer;
     
-    public RsvpTestController(RsvpMessageProducer rsvpMessageProducer) {
+    public RsvpTestController(RsvpMessagePublisher rsvpMessageProducer) {
         this.rsvpMessageProducer = rsvpMessageProducer;
     }
     
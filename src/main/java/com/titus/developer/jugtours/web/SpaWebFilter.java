@@ -4,24 +4,48 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Forwards client-side routes (/events, /groups/3, ...) to the SPA's
+ * index.html so deep links and refreshes work when the React bundle is served
+ * from this jar. Anything under a server-side prefix or whose last segment has
+ * a file extension is passed through.
+ *
+ * Runs on every request, so the check is a prefix table and one scan of the
+ * last path segment rather than a regex.
+ */
 public class SpaWebFilter extends OncePerRequestFilter {
 
+    static final String INDEX = "/index.html";
+
+    private static final String[] SERVER_PREFIXES = {
+            "/api/", "/oauth2/", "/login/", "/logout", "/actuator", "/error"
+    };
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
-        String path = request.getRequestURI();
-        Authentication user = SecurityContextHolder.getContext().getAuthentication();
-        if (user != null && !path.startsWith("/api") && !path.contains(".") && path.matches("/(.*)")) {
-            request.getRequestDispatcher("/").forward(request, response);
+        if (isSpaRoute(request.getRequestURI())) {
+            request.getRequestDispatcher(INDEX).forward(request, response);
             return;
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    static boolean isSpaRoute(String path) {
+        if (path.equals("/api")) {
+            return false;
+        }
+        for (String prefix : SERVER_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return false;
+            }
+        }
+        // /assets/index-1a2b3c.js, /favicon.ico, ...
+        return path.indexOf('.', path.lastIndexOf('/')) < 0;
+    }
+}
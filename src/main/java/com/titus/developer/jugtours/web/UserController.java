@@ -1,12 +1,12 @@
 package com.titus.developer.jugtours.web;
 
+import com.titus.developer.jugtours.service.TokenRevocationService;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
-import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,10 +23,13 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api")
 public class UserController {
-    private final ClientRegistration registration;
+    private final ClientRegistrationRepository registrations;
+    private final TokenRevocationService revocationService;
 
-    public UserController(ClientRegistrationRepository registrations) {
-        this.registration = registrations.findByRegistrationId("auth0");
+    // The registration is resolved on first use, so look it up per logout rather than at startup
+    public UserController(ClientRegistrationRepository registrations, TokenRevocationService revocationService) {
+        this.registrations = registrations;
+        this.revocationService = revocationService;
     }
 
     @GetMapping("/user")
@@ -57,16 +60,26 @@ public class UserController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request,
-            @AuthenticationPrincipal(expression = "idToken") OidcIdToken idToken) {
+    public ResponseEntity<?> logout(HttpServletRequest request, Principal principal) {
+        // A bearer token would otherwise stay valid until it expires
+        io.jsonwebtoken.Claims claims = (io.jsonwebtoken.Claims) request.getAttribute("jwtClaims");
+        if (claims != null) {
+            revocationService.revoke(claims);
+        }
+
         // send logout URL to client so they can initiate logout
-        String logoutUrl = this.registration.getProviderDetails()
+        ClientRegistration registration = registrations.findByRegistrationId("auth0");
+        String logoutUrl = registration.getProviderDetails()
                 .getConfigurationMetadata().get("end_session_endpoint").toString();
 
         Map<String, String> logoutDetails = new HashMap<>();
         logoutDetails.put("logoutUrl", logoutUrl);
-        logoutDetails.put("idToken", idToken.getTokenValue());
-        request.getSession(false).invalidate();
+        // Only present when logging out on the OAuth2 callback itself; bearer-token
+        // requests carry no ID token and there is no session to invalidate
+        if (principal instanceof OAuth2AuthenticationToken oauth2Token
+                && oauth2Token.getPrincipal() instanceof OidcUser oidcUser) {
+            logoutDetails.put("idToken", oidcUser.getIdToken().getTokenValue());
+        }
         return ResponseEntity.ok().body(logoutDetails);
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// admin.subjects is admin|test in application-test.properties
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminAccessIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void testUserTokenIsForbiddenFromRsvpAdmin() throws Exception {
+        String token = token("john-smith-123");
+
+        mockMvc.perform(get("/api/admin/rsvp/parked").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/rsvp/retries").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/rsvp/parked/replay").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/rsvp/parked"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testAdminTokenCanUseRsvpAdmin() throws Exception {
+        String token = token("admin|test");
+
+        mockMvc.perform(get("/api/admin/rsvp/parked").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/admin/rsvp/parked/replay").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String subject) {
+        return "Bearer " + jwtService.generateToken(Map.of(
+                "sub", subject, "name", "Test User", "email", subject + "@example.com", "picture", ""));
+    }
+}
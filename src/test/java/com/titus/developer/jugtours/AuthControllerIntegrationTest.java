@@ -0,0 +1,56 @@
+package com.titus.developer.jugtours;
+
+import com.jayway.jsonpath.JsonPath;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+
+    @Test
+    void testExchangeRevokesThePresentedToken() throws Exception {
+        String token = "Bearer " + jwtService.generateToken(Map.of(
+                "sub", "auth-test-123", "name", "Test User", "email", "auth-test@example.com", "picture", ""));
+
+        String body = mockMvc.perform(post("/api/auth/token").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String refreshed = "Bearer " + JsonPath.read(body, "$.token");
+        assertThat(refreshed).isNotEqualTo(token);
+
+        mockMvc.perform(post("/api/auth/token").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/auth/user").header(HttpHeaders.AUTHORIZATION, refreshed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sub").value("auth-test-123"));
+    }
+
+    @Test
+    void testExchangeWithoutTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/token"))
+                .andExpect(status().isUnauthorized());
+    }
+}
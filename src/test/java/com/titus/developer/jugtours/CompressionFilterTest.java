@@ -0,0 +1,115 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.web.CompressionFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompressionFilterTest {
+
+    private static final String LARGE_JSON = "[" + "{\"title\":\"JUG meetup\",\"city\":\"Denver\"},".repeat(100) + "{}]";
+
+    private final CompressionFilter filter = new CompressionFilter(1024,
+            List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType("text/*")), 6);
+
+    @Test
+    public void testLargeJsonIsGzippedForClientsThatAcceptIt() throws Exception {
+        MockHttpServletResponse response = send("gzip, deflate, br", json(LARGE_JSON));
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Content-Length")).isNull();
+        assertThat(response.getHeaders("Vary")).contains("Accept-Encoding");
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_JSON);
+        assertThat(response.getContentAsByteArray().length).isLessThan(LARGE_JSON.length() / 5);
+        assertThat(filter.compressed()).isEqualTo(1);
+        assertThat(filter.bytesIn()).isEqualTo(LARGE_JSON.length());
+        assertThat(filter.bytesOut()).isEqualTo(response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testWriterOutputIsGzippedToo() throws Exception {
+        MockHttpServletResponse response = send("gzip", (request, servletResponse) -> {
+            servletResponse.setContentType("text/plain");
+            servletResponse.setCharacterEncoding("UTF-8");
+            servletResponse.getWriter().write(LARGE_JSON);
+        });
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    public void testSmallResponsesKeepTheirContentLength() throws Exception {
+        MockHttpServletResponse response = send("gzip", json("{\"id\":1}"));
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentLength()).isEqualTo(8);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(filter.compressed()).isZero();
+    }
+
+    @Test
+    public void testNothingIsCompressedForClientsThatDontAcceptGzip() throws Exception {
+        for (String acceptEncoding : new String[] {null, "identity", "br", "gzip;q=0", "gzip; q=0.0"}) {
+            MockHttpServletResponse response = send(acceptEncoding, json(LARGE_JSON));
+
+            assertThat(response.getHeader("Content-Encoding")).as(acceptEncoding).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(LARGE_JSON);
+        }
+    }
+
+    @Test
+    public void testOtherMediaTypesAndEncodedResponsesPassThrough() throws Exception {
+        byte[] image = LARGE_JSON.getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse png = send("gzip", (request, response) -> {
+            response.setContentType("image/png");
+            response.getOutputStream().write(image);
+        });
+        MockHttpServletResponse encoded = send("gzip", (request, response) -> {
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setHeader("Content-Encoding", "br");
+            response.getOutputStream().write(image);
+        });
+
+        assertThat(png.getHeader("Content-Encoding")).isNull();
+        assertThat(png.getContentAsByteArray()).isEqualTo(image);
+        assertThat(encoded.getHeader("Content-Encoding")).isEqualTo("br");
+        assertThat(encoded.getContentAsByteArray()).isEqualTo(image);
+    }
+
+    private MockHttpServletResponse send(String acceptEncoding, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events/available");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static FilterChain json(String body) {
+        return (request, response) -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+            response.getOutputStream().flush();
+        };
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.web.CookieOAuth2AuthorizationRequestRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each "node" is its own repository instance sharing only the secret, the way
+ * separate backend instances behind a load balancer would.
+ */
+public class CookieOAuth2AuthorizationRequestRepositoryTest {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private InMemoryClientRegistrationRepository registrations;
+
+    @BeforeEach
+    public void setup() {
+        registrations = new InMemoryClientRegistrationRepository(ClientRegistration.withRegistrationId("auth0")
+                .clientId("client")
+                .clientSecret("secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("openid", "profile", "email")
+                .authorizationUri("https://idp.example.com/authorize")
+                .tokenUri("https://idp.example.com/oauth/token")
+                .build());
+    }
+
+    @Test
+    public void testCallbackOnAnotherNodeFindsTheAuthorizationRequest() throws Exception {
+        CookieOAuth2AuthorizationRequestRepository nodeA = node(SECRET);
+        CookieOAuth2AuthorizationRequestRepository nodeB = node(SECRET);
+
+        // Login starts on node A, which redirects to the identity provider
+        OAuth2AuthorizationRequestRedirectFilter redirectFilter =
+                new OAuth2AuthorizationRequestRedirectFilter(registrations);
+        redirectFilter.setAuthorizationRequestRepository(nodeA);
+        MockHttpServletRequest start = new MockHttpServletRequest("GET", "/oauth2/authorization/auth0");
+        start.setServletPath("/oauth2/authorization/auth0");
+        MockHttpServletResponse redirect = new MockHttpServletResponse();
+        redirectFilter.doFilter(start, redirect, new MockFilterChain());
+
+        String state = UriComponentsBuilder.fromUriString(redirect.getRedirectedUrl())
+                .build().getQueryParams().getFirst("state");
+        state = URLDecoder.decode(state, StandardCharsets.UTF_8);
+        Cookie cookie = redirect.getCookie("oauth2_auth_request");
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.isHttpOnly()).isTrue();
+
+        // The identity provider's callback lands on node B
+        MockHttpServletRequest callback = new MockHttpServletRequest("GET", "/login/oauth2/code/auth0");
+        callback.setParameter("state", state);
+        callback.setParameter("code", "abc");
+        callback.setCookies(cookie);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        OAuth2AuthorizationRequest authorizationRequest = nodeB.removeAuthorizationRequest(callback, response);
+
+        assertThat(authorizationRequest).isNotNull();
+        assertThat(authorizationRequest.getState()).isEqualTo(state);
+        assertThat(authorizationRequest.getClientId()).isEqualTo("client");
+        assertThat(response.getCookie("oauth2_auth_request").getMaxAge()).isZero();
+        assertThat(start.getSession(false)).isNull();
+        assertThat(callback.getSession(false)).isNull();
+    }
+
+    @Test
+    public void testTamperedCookieIsRejected() {
+        CookieOAuth2AuthorizationRequestRepository node = node(SECRET);
+        Cookie cookie = save(node);
+        String value = cookie.getValue();
+        char flipped = value.charAt(10) == 'A' ? 'B' : 'A';
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        callback.setCookies(new Cookie(cookie.getName(), value.substring(0, 10) + flipped + value.substring(11)));
+
+        assertThat(node.loadAuthorizationRequest(callback)).isNull();
+    }
+
+    @Test
+    public void testNodeWithDifferentSecretRejectsCookie() {
+        Cookie cookie = save(node(SECRET));
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        callback.setCookies(cookie);
+
+        assertThat(node("another-secret-another-secret-another-secret").loadAuthorizationRequest(callback)).isNull();
+    }
+
+    @Test
+    public void testExpiredCookieIsRejected() {
+        CookieOAuth2AuthorizationRequestRepository node = node(SECRET);
+        ReflectionTestUtils.setField(node, "maxAge", -1);
+        Cookie cookie = save(node);
+
+        MockHttpServletRequest callback = new MockHttpServletRequest();
+        callback.setCookies(new Cookie(cookie.getName(), cookie.getValue()));
+
+        assertThat(node.loadAuthorizationRequest(callback)).isNull();
+    }
+
+    private Cookie save(CookieOAuth2AuthorizationRequestRepository node) {
+        OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://idp.example.com/authorize")
+                .clientId("client")
+                .redirectUri("http://localhost:8080/login/oauth2/code/auth0")
+                .state("state-123")
+                .build();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        node.saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+        return response.getCookie("oauth2_auth_request");
+    }
+
+    private static CookieOAuth2AuthorizationRequestRepository node(String secret) {
+        CookieOAuth2AuthorizationRequestRepository repository = new CookieOAuth2AuthorizationRequestRepository();
+        ReflectionTestUtils.setField(repository, "secret", secret);
+        ReflectionTestUtils.setField(repository, "maxAge", 180);
+        ReflectionTestUtils.invokeMethod(repository, "init");
+        return repository;
+    }
+}
@@ -7,30 +7,43 @@ import com.titus.developer.jugtours.model.Group;
 import com.titus.developer.jugtours.model.GroupRepository;
 import com.titus.developer.jugtours.model.User;
 import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
 
+// Query budgets count what each request issues itself. The tests are not
+// @Transactional: each request runs and commits its own transaction, as in
+// production, so its reads and flushed writes are all counted. Rows are removed
+// again after each test.
 @SpringBootTest(properties = {
         "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
 })
 @AutoConfigureMockMvc
+@ExtendWith(QueryBudgetExtension.class)
 @ActiveProfiles("test")
-@Transactional
 class EventControllerIntegrationTest {
 
     @Autowired
@@ -43,37 +56,47 @@ class EventControllerIntegrationTest {
     private ObjectMapper objectMapper;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserService userService;
 
     private Group testGroup;
     private Event testEvent;
     private User testUser;
 
     @BeforeEach
-    @Transactional
     void setup() {
-        // Create and save a test user
-        testUser = new User("test-user", "Test User", "testuser@example.com");
-        testUser = userRepository.save(testUser);
-        userRepository.flush();
-
-        // Create and save a test group, add test user as member
-        testGroup = new Group("Test Group");
-        testGroup.addUser(testUser);
-        testGroup = groupRepository.save(testGroup);
-        groupRepository.flush();
-
-        // Create and save a test event
-        testEvent = Event.builder()
-                .title("Test Event")
-                .description("Test Event Description")
-                .date(Instant.now())
-                .group(testGroup)
-                .build();
-        testEvent = eventRepository.save(testEvent);
-        eventRepository.flush();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Create and save a test user
+            testUser = userRepository.save(new User("test-user", "Test User", "testuser@example.com"));
+
+            // Create and save a test group, add test user as member
+            Group group = new Group("Test Group");
+            group.addUser(testUser);
+            testGroup = groupRepository.save(group);
+
+            // Create and save a test event
+            testEvent = eventRepository.save(Event.builder()
+                    .title("Test Event")
+                    .description("Test Event Description")
+                    .date(Instant.now())
+                    .group(testGroup)
+                    .build());
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        // Deleting the group deletes its events (and their attendee rows) too
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                groupRepository.findById(testGroup.getId()).ifPresent(groupRepository::delete));
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testGetEvents() throws Exception {
         mockMvc.perform(get("/api/events")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -87,6 +110,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testGetAvailableEvents() throws Exception {
         mockMvc.perform(get("/api/events/available")
                 .param("size", "9999")
@@ -110,7 +134,9 @@ class EventControllerIntegrationTest {
                         jsonPath("$.content[?(@.title == 'Test Event')].description").value("Test Event Description"));
     }
 
+    // The fetch-join page query is paged in memory, so this reads every event's rows
     @Test
+    @QueryBudget(statements = 2)
     void testGetAvailableEventsWithPagination() throws Exception {
         mockMvc.perform(get("/api/events/available")
                 .param("page", "0")
@@ -132,6 +158,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 2, collections = 1)
     void testGetEventById() throws Exception {
         mockMvc.perform(get("/api/events/" + testEvent.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -145,6 +172,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testGetEventByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/events/99999")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -157,6 +185,17 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    void testQueryCountsReturnedAsHeaders() throws Exception {
+        mockMvc.perform(get("/api/events/99999")
+                .with(oauth2Login().attributes(attrs -> attrs.put("sub", "test-user"))))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("X-Query-Statements", "1"))
+                .andExpect(header().string("X-Query-Rows", "0"))
+                .andExpect(header().string("X-Query-Collections", "0"));
+    }
+
+    @Test
+    @QueryBudget(statements = 3, collections = 1)
     void testCreateEvent() throws Exception {
         Map<String, Object> eventRequest = new HashMap<>();
         eventRequest.put("title", "New Test Event");
@@ -177,6 +216,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     // @WithMockUser(username = "test-user-123")
     void testCreateEventWithInvalidGroup() throws Exception {
         Map<String, Object> eventRequest = new HashMap<>();
@@ -196,7 +236,11 @@ class EventControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // The event with its attendees, its group, and the insert. Adding the user
+    // reference to the attendee set reads the user (its hashCode), but from the
+    // entity.user cache, which the user's save put it in
     @Test
+    @QueryBudget(statements = 3)
     void testJoinEvent() throws Exception {
         mockMvc.perform(post("/api/events/" + testEvent.getId() + "/attendees")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -210,12 +254,31 @@ class EventControllerIntegrationTest {
                 .andExpect(jsonPath("$.title").value("Test Event"));
 
         // Verify user was added as attendee
-        Event updatedEvent = eventRepository.findById(testEvent.getId()).orElse(null);
-        assert updatedEvent != null;
-        assert updatedEvent.hasAttendee("test-user");
+        assertThat(attendeeIds()).containsExactly("test-user");
     }
 
+    // Known to UserService (as after login) but not in entity.user: the reference
+    // costs a user query after all
     @Test
+    @QueryBudget(statements = 4)
+    void testJoinEventWithUserNotCached() throws Exception {
+        userService.resolve("test-user", Map.of());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(User.class);
+
+        mockMvc.perform(post("/api/events/" + testEvent.getId() + "/attendees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .with(oauth2Login().attributes(attrs -> {
+                    attrs.put("sub", "test-user");
+                    attrs.put("name", "Test User");
+                    attrs.put("email", "testuser@example.com");
+                })))
+                .andExpect(status().isOk());
+
+        assertThat(attendeeIds()).containsExactly("test-user");
+    }
+
+    @Test
+    @QueryBudget(statements = 1)
     void testJoinEventAlreadyAttending() throws Exception {
         // Add user as attendee first
         testEvent.addAttendee(testUser);
@@ -233,6 +296,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testJoinEventNotFound() throws Exception {
         mockMvc.perform(post("/api/events/99999/attendees")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -245,6 +309,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 2)
     void testLeaveEvent() throws Exception {
         // Add user as attendee first
         testEvent.addAttendee(testUser);
@@ -260,12 +325,11 @@ class EventControllerIntegrationTest {
                 .andExpect(status().isOk());
 
         // Verify user was removed as attendee
-        Event updatedEvent = eventRepository.findById(testEvent.getId()).orElse(null);
-        assert updatedEvent != null;
-        assert !updatedEvent.hasAttendee("test-user");
+        assertThat(attendeeIds()).isEmpty();
     }
 
     @Test
+    @QueryBudget(statements = 2)
     void testLeaveEventNotAttending() throws Exception {
         mockMvc.perform(delete("/api/events/" + testEvent.getId() + "/attendees")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -279,6 +343,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 4, collections = 2)
     void testUpdateEvent() throws Exception {
         Event updateData = Event.builder()
                 .title("Updated Event Title")
@@ -302,6 +367,7 @@ class EventControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 3)
     void testDeleteEvent() throws Exception {
         mockMvc.perform(delete("/api/events/" + testEvent.getId())
                 .contentType(MediaType.APPLICATION_JSON))
@@ -310,4 +376,8 @@ class EventControllerIntegrationTest {
         // Verify event was deleted
         assert eventRepository.findById(testEvent.getId()).isEmpty();
     }
-}
\ No newline at end of file
+
+    private List<String> attendeeIds() {
+        return eventRepository.findAllAttendeesById(testEvent.getId()).stream().map(User::getId).toList();
+    }
+}
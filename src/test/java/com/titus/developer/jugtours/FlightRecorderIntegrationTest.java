@@ -0,0 +1,139 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "jfr.continuous.enabled=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FlightRecorderIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void testDumpContainsApplicationEventsWithTheirFields(@TempDir Path dir) throws Exception {
+        String token = "Bearer " + jwtService.generateToken(Map.of(
+                "sub", "john-smith-123", "name", "John Smith", "email", "john.smith@example.com", "picture", ""));
+        long eventId = eventRepository.findAll().get(0).getId();
+
+        // The continuous settings skip fast calls; a second recording with no thresholds catches these
+        try (Recording everything = new Recording()) {
+            everything.enable("com.titus.jugtours.Rsvp").withThreshold(Duration.ZERO);
+            everything.enable("com.titus.jugtours.EventPage").withThreshold(Duration.ZERO);
+            everything.enable("com.titus.jugtours.EventSearch").withThreshold(Duration.ZERO);
+            everything.enable("com.titus.jugtours.GroupPage").withThreshold(Duration.ZERO);
+            everything.enable("com.titus.jugtours.JwtVerification").withThreshold(Duration.ZERO);
+            everything.start();
+
+            mockMvc.perform(get("/api/events/available").param("size", "5").header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/events/search").param("q", "meetup").param("size", "5")
+                    .header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/groups/available/paginated").param("size", "3")
+                    .header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(delete("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                    .andExpect(status().isOk());
+
+            MvcResult dump = mockMvc.perform(post("/api/admin/jfr/dump").header(HttpHeaders.AUTHORIZATION, adminToken()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString(".jfr")))
+                    .andReturn();
+            Path file = Files.write(dir.resolve("dump.jfr"), dump.getResponse().getContentAsByteArray());
+            assertThat(tempDumps()).as("temporary dump files left behind").isEmpty();
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("com.titus.jugtours."))
+                    .toList();
+
+            assertThat(events).extracting(e -> e.getEventType().getName())
+                    .contains("com.titus.jugtours.EventPage", "com.titus.jugtours.EventSearch",
+                            "com.titus.jugtours.GroupPage", "com.titus.jugtours.Rsvp",
+                            "com.titus.jugtours.JwtVerification");
+            assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.titus.jugtours.EventPage"))
+                    .anySatisfy(e -> {
+                        assertThat(e.getInt("size")).isEqualTo(5);
+                        assertThat(e.getInt("rows")).isEqualTo(5);
+                    });
+            assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.titus.jugtours.Rsvp"))
+                    .anySatisfy(e -> {
+                        assertThat(e.getLong("eventId")).isEqualTo(eventId);
+                        assertThat(e.getString("action")).isEqualTo("join");
+                        assertThat(e.getInt("status")).isEqualTo(200);
+                        assertThat(e.getBoolean("committed")).isTrue();
+                    });
+            assertThat(events).filteredOn(e -> e.getEventType().getName().equals("com.titus.jugtours.JwtVerification"))
+                    .anySatisfy(e -> assertThat(e.getBoolean("cached")).isTrue());
+        }
+    }
+
+    @Test
+    void testStatusReportsTheContinuousRecording() throws Exception {
+        mockMvc.perform(get("/api/admin/jfr").header(HttpHeaders.AUTHORIZATION, adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.continuous").value(true))
+                .andExpect(jsonPath("$.maxAge").value("PT6H"));
+    }
+
+    @Test
+    void testDumpIsForbiddenToUsers() throws Exception {
+        String token = "Bearer " + jwtService.generateToken(Map.of(
+                "sub", "john-smith-123", "name", "John Smith", "email", "john.smith@example.com", "picture", ""));
+
+        mockMvc.perform(post("/api/admin/jfr/dump").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/jfr").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+    }
+
+    private static List<Path> tempDumps() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().matches("jugtours-.*\\.jfr")).toList();
+        }
+    }
+
+    private String adminToken() {
+        return "Bearer " + jwtService.generateToken(Map.of(
+                "sub", "admin|test", "name", "Admin", "email", "admin@example.com", "picture", ""));
+    }
+}
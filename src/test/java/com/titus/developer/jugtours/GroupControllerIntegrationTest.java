@@ -5,26 +5,36 @@ import com.titus.developer.jugtours.model.Group;
 import com.titus.developer.jugtours.model.GroupRepository;
 import com.titus.developer.jugtours.model.User;
 import com.titus.developer.jugtours.model.UserRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.oauth2Login;
 
+// Query budgets count what each request issues itself. The tests are not
+// @Transactional: each request runs and commits its own transaction, as in
+// production, so its reads and flushed writes are all counted. Rows are removed
+// again after each test.
 @SpringBootTest(properties = {
         "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
 })
 @AutoConfigureMockMvc
+@ExtendWith(QueryBudgetExtension.class)
 @ActiveProfiles("test")
-@Transactional
 class GroupControllerIntegrationTest {
 
     @Autowired
@@ -35,6 +45,8 @@ class GroupControllerIntegrationTest {
     private GroupRepository groupRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     private User testUser;
     private Group testGroup;
@@ -54,7 +66,16 @@ class GroupControllerIntegrationTest {
         testGroup = groupRepository.save(testGroup);
     }
 
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            groupRepository.findById(testGroup.getId()).ifPresent(groupRepository::delete);
+            groupRepository.findByName("New Test Group").ifPresent(groupRepository::delete);
+        });
+    }
+
     @Test
+    @QueryBudget(statements = 2)
     void testGetGroups() throws Exception {
         // Add user to group
         testGroup.addUser(testUser);
@@ -74,7 +95,10 @@ class GroupControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].eventCount").value(0));
     }
 
+    // Groups with members and events, every event's attendees in one query, and the
+    // image backfill update for the test group
     @Test
+    @QueryBudget(statements = 3)
     void testGetAvailableGroups() throws Exception {
         mockMvc.perform(get("/api/groups/available")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -92,6 +116,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 3, collections = 1)
     void testGetGroupById() throws Exception {
         mockMvc.perform(get("/api/groups/" + testGroup.getId())
                 .contentType(MediaType.APPLICATION_JSON))
@@ -103,6 +128,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testGetGroupByIdNotFound() throws Exception {
         mockMvc.perform(get("/api/groups/99999")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -110,6 +136,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 4)
     void testCreateGroup() throws Exception {
         Group newGroup = new Group("New Test Group");
         newGroup.setAddress("456 New St");
@@ -130,6 +157,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 4, collections = 2)
     void testJoinGroup() throws Exception {
         mockMvc.perform(post("/api/groups/members/" + testGroup.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -143,12 +171,11 @@ class GroupControllerIntegrationTest {
                 .andExpect(jsonPath("$.name").value("Test Group"));
 
         // Verify user was added to group
-        Group updatedGroup = groupRepository.findById(testGroup.getId()).orElse(null);
-        assert updatedGroup != null;
-        assert updatedGroup.hasUser("test-user");
+        assertThat(memberIds()).containsExactly("test-user");
     }
 
     @Test
+    @QueryBudget(statements = 1, collections = 1)
     void testJoinGroupAlreadyMember() throws Exception {
         // Add user to group first
         testGroup.addUser(testUser);
@@ -166,6 +193,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 1)
     void testJoinGroupNotFound() throws Exception {
         mockMvc.perform(post("/api/groups/members/99999")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -178,6 +206,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 2, collections = 1)
     void testLeaveGroup() throws Exception {
         // Add user to group first
         testGroup.addUser(testUser);
@@ -193,12 +222,11 @@ class GroupControllerIntegrationTest {
                 .andExpect(status().isOk());
 
         // Verify user was removed from group
-        Group updatedGroup = groupRepository.findById(testGroup.getId()).orElse(null);
-        assert updatedGroup != null;
-        assert !updatedGroup.hasUser("test-user");
+        assertThat(memberIds()).isEmpty();
     }
 
     @Test
+    @QueryBudget(statements = 2, collections = 1)
     void testLeaveGroupNotMember() throws Exception {
         mockMvc.perform(delete("/api/groups/members/" + testGroup.getId())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -212,6 +240,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 4, collections = 2)
     void testUpdateGroup() throws Exception {
         Group updateData = new Group("Updated Group Name");
         updateData.setAddress("789 Updated St");
@@ -227,6 +256,7 @@ class GroupControllerIntegrationTest {
     }
 
     @Test
+    @QueryBudget(statements = 4, collections = 1)
     void testDeleteGroup() throws Exception {
         mockMvc.perform(delete("/api/groups/" + testGroup.getId())
                 .contentType(MediaType.APPLICATION_JSON))
@@ -235,4 +265,8 @@ class GroupControllerIntegrationTest {
         // Verify group was deleted
         assert groupRepository.findById(testGroup.getId()).isEmpty();
     }
-}
\ No newline at end of file
+
+    private List<String> memberIds() {
+        return groupRepository.findAllMembersByGroupId(testGroup.getId()).stream().map(User::getId).toList();
+    }
+}
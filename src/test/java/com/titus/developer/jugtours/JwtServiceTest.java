@@ -0,0 +1,93 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class JwtServiceTest {
+
+    @Test
+    public void testVerifiesOwnTokens() {
+        JwtService jwtService = jwtService(3_600_000L, 100);
+        String token = jwtService.generateToken(user("auth0|123"));
+
+        Optional<Claims> claims = jwtService.verify(token);
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("auth0|123");
+        assertThat(claims.get().get("email")).isEqualTo("auth0|123@example.com");
+        // Second call is a cache hit with the same result
+        assertThat(jwtService.verify(token)).contains(claims.get());
+        assertThat(jwtService.isTokenValid(token)).isTrue();
+    }
+
+    @Test
+    public void testRejectsForeignAndTamperedTokens() {
+        JwtService jwtService = jwtService(3_600_000L, 100);
+        String foreign = jwtService("0123456789abcdef0123456789abcdef01234567", 3_600_000L, 100)
+                .generateToken(user("auth0|123"));
+        String token = jwtService.generateToken(user("auth0|123"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtService.verify(foreign)).isEmpty();
+        assertThat(jwtService.verify(tampered)).isEmpty();
+        assertThat(jwtService.verify("not-a-jwt")).isEmpty();
+    }
+
+    @Test
+    public void testCachedTokenStillExpires() {
+        JwtService jwtService = jwtService(1_500L, 100);
+        String token = jwtService.generateToken(user("auth0|123"));
+
+        assertThat(jwtService.verify(token)).isPresent();
+        await().atMost(Duration.ofSeconds(5)).until(() -> jwtService.verify(token).isEmpty());
+    }
+
+    @Test
+    public void testRefreshKeepsLoginTimeAndStopsAtMaxSessionAge() {
+        JwtService jwtService = jwtService(3_600_000L, 100);
+        ReflectionTestUtils.setField(jwtService, "maxSessionAge", 3_000L);
+        Claims login = jwtService.verify(jwtService.generateToken(user("auth0|123"))).get();
+
+        Claims refreshed = jwtService.verify(jwtService.refreshToken(login).get()).get();
+        assertThat(refreshed.getSubject()).isEqualTo("auth0|123");
+        assertThat(refreshed.getId()).isNotEqualTo(login.getId());
+        assertThat(refreshed.get("auth_time", Long.class)).isEqualTo(login.get("auth_time", Long.class));
+        // Capped by the session, not a full jwt.expiration from now
+        assertThat(refreshed.getExpiration().getTime())
+                .isLessThanOrEqualTo(login.get("auth_time", Long.class) * 1000 + 3_000L);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> jwtService.refreshToken(refreshed).isEmpty());
+    }
+
+    private static JwtService jwtService(long expiration, int cacheSize) {
+        return jwtService("mySecretKey123456789012345678901234567890", expiration, cacheSize);
+    }
+
+    private static JwtService jwtService(String secret, long expiration, int cacheSize) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", secret);
+        ReflectionTestUtils.setField(jwtService, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    private static DefaultOAuth2User user(String sub) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("sub", sub);
+        attributes.put("name", "Test User");
+        attributes.put("email", sub + "@example.com");
+        return new DefaultOAuth2User(List.of(), attributes, "sub");
+    }
+}
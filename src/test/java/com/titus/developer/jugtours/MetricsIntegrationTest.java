@@ -0,0 +1,48 @@
+package com.titus.developer.jugtours;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPrometheusScrapeCoversRequestsPoolHibernateCachesAndJvm() throws Exception {
+        mockMvc.perform(get("/api/events/available").param("size", "5"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("uri=\"/api/events/available\""),
+                        containsString("hikaricp_connections_pending"),
+                        containsString("hikaricp_connections_acquire_seconds"),
+                        containsString("hibernate_query_executions_total"),
+                        containsString("hibernate_entities_loads_total"),
+                        containsString("hibernate_collections_fetches_total"),
+                        containsString("cache_gets_total{application=\"jugtours\",cache=\"users\",result=\"hit\"}"),
+                        containsString("cache_gets_total{application=\"jugtours\",cache=\"jwt.verified\",result=\"miss\"}"),
+                        containsString("cache_gets_total{application=\"jugtours\",cache=\"query.group-summaries\",result=\"hit\"}"),
+                        containsString("jvm_gc_memory_allocated_bytes_total"))));
+    }
+}
@@ -0,0 +1,88 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.config.NativeImageConfig;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.User;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hints can only really be proven by the native build; these check they
+ * are registered, and that the names they register still exist in the
+ * libraries on the classpath.
+ */
+public class NativeImageHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeImageConfig.Hints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testEntitiesAndRsvpMessageAreBindable() throws NoSuchMethodException {
+        assertThat(RuntimeHintsPredicates.reflection().onField(Event.class, "attendees")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(User.class.getDeclaredConstructor()).invoke())
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(User.class, "setName").invoke()).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(RsvpMessage.class.getConstructor(String.class,
+                Long.class, String.class, String.class, String.class, String.class, Instant.class)).invoke())
+                .accepts(hints);
+    }
+
+    // The entity list is kept by hand; catch one added to the model but not there
+    @Test
+    void testEveryEntityIsRegistered() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        List<String> entities = scanner.findCandidateComponents(Event.class.getPackageName()).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .toList();
+
+        assertThat(entities).contains(Event.class.getName());
+        for (String entity : entities) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(entity)))
+                    .as(entity).accepts(hints);
+        }
+    }
+
+    @Test
+    void testJjwtImplementationsAreRegisteredAndExist() throws ClassNotFoundException {
+        List<String> types = Stream.concat(NativeImageConfig.Hints.JJWT_IMPL.stream(),
+                NativeImageConfig.Hints.JJWT_JACKSON.stream()).toList();
+        for (String type : types) {
+            Class.forName(type);
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Deserializer"))
+                .accepts(hints);
+    }
+
+    @Test
+    void testJdbcProxiesAndCacheConfigAreRegistered() {
+        for (Class<?> jdbcType : new Class<?>[] {Connection.class, PreparedStatement.class, ResultSet.class}) {
+            assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, jdbcType)).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("ehcache.xml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("ehcache-core.xsd")).accepts(hints);
+    }
+}
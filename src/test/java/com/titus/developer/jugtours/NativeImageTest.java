@@ -0,0 +1,168 @@
+package com.titus.developer.jugtours;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the native executable (target/jugtours, or -Dnative.executable) on an
+ * in-memory H2 database and goes through the paths that rely on the
+ * hints in NativeImageConfig: JWTs, entities and their lazy associations,
+ * the second-level and query caches, the JDBC proxies and the login
+ * redirect. Anything the image is missing shows up here as a 500.
+ *
+ * Run with: mvn -Pnative -DskipTests native:compile, then mvn -Pnative test
+ */
+@Tag("native")
+class NativeImageTest {
+
+    private static final Path EXECUTABLE = Path.of(System.getProperty("native.executable", "target/jugtours"));
+    private static final String JWT_SECRET = "native-image-test-secret-0123456789abcdef";
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static Process app;
+    private static String baseUrl;
+    private static String token;
+
+    @BeforeAll
+    static void start() throws Exception {
+        assumeTrue(Files.isExecutable(EXECUTABLE), "No native executable; run mvn -Pnative -DskipTests native:compile first");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        Path log = Path.of("target", "native-image-test.log");
+        app = new ProcessBuilder(List.of(EXECUTABLE.toString(),
+                "--spring.profiles.active=" + System.getProperty("native.profiles", "prod"),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:native",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--jwt.secret=" + JWT_SECRET))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        // Ready once the demo data is in
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            assertThat(app.isAlive()).as("app running, see %s", log).isTrue();
+            assertThat(System.nanoTime()).as("ready within %s, see %s", TIMEOUT, log).isLessThan(deadline);
+            try {
+                if (get("/actuator/health/readiness", false).statusCode() == 200) {
+                    break;
+                }
+            } catch (IOException notListeningYet) {
+                // keep polling
+            }
+            Thread.sleep(50);
+        }
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken(Map.of("sub", "native|user", "name", "Native User",
+                "email", "native-user@example.com", "picture", ""));
+    }
+
+    @AfterAll
+    static void stop() throws InterruptedException {
+        if (app != null) {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    @Test
+    void testEventsPageWithBearerToken() throws Exception {
+        HttpResponse<String> response = get("/api/events/available?page=0&size=20", true);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JsonNode page = mapper.readTree(response.body());
+        assertThat(page.get("content")).isNotEmpty();
+        assertThat(page.get("content").get(0).get("group").get("name").asText()).isNotBlank();
+    }
+
+    @Test
+    void testJoiningAndLeavingAnEvent() throws Exception {
+        JsonNode events = mapper.readTree(get("/api/events/available?page=0&size=1", true).body());
+        long eventId = events.get("content").get(0).get("id").asLong();
+
+        assertThat(send("POST", "/api/events/" + eventId + "/attendees").statusCode()).isEqualTo(200);
+        JsonNode event = mapper.readTree(get("/api/events/" + eventId, true).body());
+        assertThat(event.get("attendees").findValuesAsText("id")).contains("native|user");
+
+        assertThat(send("DELETE", "/api/events/" + eventId + "/attendees").statusCode()).isEqualTo(200);
+        event = mapper.readTree(get("/api/events/" + eventId, true).body());
+        assertThat(event.get("attendees").findValuesAsText("id")).doesNotContain("native|user");
+    }
+
+    @Test
+    void testGroupSummariesFromTheQueryCache() throws Exception {
+        HttpResponse<String> first = get("/api/groups/summary", true);
+        HttpResponse<String> cached = get("/api/groups/summary", true);
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(mapper.readTree(first.body())).isNotEmpty();
+        assertThat(mapper.readTree(cached.body())).isEqualTo(mapper.readTree(first.body()));
+    }
+
+    @Test
+    void testUnauthenticatedApiCallsAreSentToLogin() throws Exception {
+        HttpResponse<String> response = get("/api/events", false);
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.headers().firstValue("Location")).hasValueSatisfying(
+                location -> assertThat(location).endsWith("/oauth2/authorization/auth0"));
+    }
+
+    private static HttpResponse<String> get(String path, boolean authenticated) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .timeout(TIMEOUT);
+        if (authenticated) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(TIMEOUT)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
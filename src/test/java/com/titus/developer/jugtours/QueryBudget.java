@@ -0,0 +1,25 @@
+package com.titus.developer.jugtours;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Upper bound on the database work each request made by the annotated test may
+ * do, enforced by {@link QueryBudgetExtension}. Raise a budget only when the
+ * extra queries are intended.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /** JDBC statements per request. */
+    long statements();
+
+    /** Lazy collection fetches per request; none unless declared. */
+    long collections() default 0;
+
+    /** Result-set rows per request; -1 for no limit. */
+    long rows() default -1;
+}
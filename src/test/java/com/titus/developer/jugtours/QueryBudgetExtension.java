@@ -0,0 +1,60 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.config.QueryCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a {@link QueryBudget} test if any request it made through MockMvc
+ * exceeded the budget. Each request runs in its own QueryCounter scope (opened
+ * by QueryCountingFilter) nested in one this extension opens around the test
+ * method, so setup and assertions done directly on repositories don't count.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (context.getRequiredTestMethod().isAnnotationPresent(QueryBudget.class)) {
+            context.getStore(NAMESPACE).put(context.getUniqueId(),
+                    QueryCounter.begin(context.getDisplayName()));
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryCounter.Scope test = context.getStore(NAMESPACE)
+                .remove(context.getUniqueId(), QueryCounter.Scope.class);
+        if (test == null) {
+            return;
+        }
+        test.close();
+
+        QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+        assertThat(test.getNested())
+                .as("requests recorded; is jdbc.query-counting.enabled set?")
+                .isNotEmpty();
+
+        List<String> overBudget = new ArrayList<>();
+        for (QueryCounter.Scope request : test.getNested()) {
+            if (request.getStatements() > budget.statements()
+                    || request.getCollections() > budget.collections()
+                    || (budget.rows() >= 0 && request.getRows() > budget.rows())) {
+                overBudget.add(request.toString());
+            }
+        }
+        assertThat(overBudget)
+                .as("requests over budget (%d statements, %d collection fetches, %s rows)",
+                        budget.statements(), budget.collections(),
+                        budget.rows() < 0 ? "any" : Long.toString(budget.rows()))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,224 @@
+package com.titus.developer.jugtours;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titus.developer.jugtours.config.ReactiveApiServer;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Rows are committed so the R2DBC connections can see them, and removed again
+// after each test. Events are dated in 2100 so date-filtered listings only
+// return this test's events.
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "reactive.enabled=true",
+        "reactive.server.port=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReactiveApiIntegrationTest {
+
+    private static final String FROM_2100 = "/api/events/available?date=2100-01-01&size=10";
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private WebTestClient client;
+    private String token;
+    private List<User> users;
+    private Group member;
+    private Group other;
+
+    @BeforeEach
+    public void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveApiServer.getPort()).build();
+        token = "Bearer " + jwtService.generateToken(Map.of("sub", "reactive|1", "name", "Reactive One",
+                "email", "reactive-1@example.com", "picture", ""));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            users = userRepository.saveAll(List.of(
+                    new User("reactive|1", "Reactive One", "reactive-1@example.com"),
+                    new User("reactive|2", "Reactive Two", "reactive-2@example.com")));
+            member = new Group("Reactive JUG Member");
+            member.setCity("Denver");
+            member.addUser(users.get(0));
+            member = groupRepository.save(member);
+            other = groupRepository.save(new Group("Reactive JUG Other"));
+
+            eventRepository.saveAll(List.of(
+                    event("Reactive kickoff", "2100-01-02T18:00:00Z", member, Set.copyOf(users)),
+                    event("Reactive 100% async", "2100-01-02T20:00:00Z", member, Set.of(users.get(1))),
+                    event("Reactive retro", "2100-01-05T18:00:00Z", other, Set.of())));
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventRepository.deleteAll(eventRepository.findAll().stream()
+                    .filter(event -> event.getTitle().startsWith("Reactive ")).toList());
+            groupRepository.deleteAllById(List.of(member.getId(), other.getId()));
+            userRepository.deleteAll(users);
+        });
+    }
+
+    @Test
+    public void testEventListingMatchesTheMvcEndpoint() throws Exception {
+        List<Map<String, Object>> reactive = client.get().uri(FROM_2100)
+                .header("Authorization", token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "3")
+                .expectBody(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                })
+                .returnResult().getResponseBody();
+
+        String mvc = mockMvc.perform(get(FROM_2100).header("Authorization", token))
+                .andReturn().getResponse().getContentAsString();
+        List<Map<String, Object>> content = objectMapper.convertValue(objectMapper.readTree(mvc).get("content"),
+                new TypeReference<>() {
+                });
+
+        assertThat(sortAttendees(reactive)).isEqualTo(sortAttendees(content));
+        assertThat(reactive).extracting(event -> event.get("title"))
+                .containsExactly("Reactive kickoff", "Reactive 100% async", "Reactive retro");
+    }
+
+    @Test
+    public void testListingsStreamAsNdjson() {
+        List<String> lines = List.of(client.get().uri(FROM_2100)
+                .header("Authorization", token)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody().split("\n"));
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("\"title\":\"Reactive kickoff\"");
+    }
+
+    @Test
+    public void testSearchTreatsWildcardsLiterally() {
+        client.get().uri(uri -> uri.path("/api/events/search").queryParam("q", "100%").build())
+                .header("Authorization", token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "1")
+                .expectBody()
+                .jsonPath("$[0].title").isEqualTo("Reactive 100% async")
+                .jsonPath("$[0].attendees[0].id").isEqualTo("reactive|2");
+
+        client.get().uri(uri -> uri.path("/api/events/search").queryParam("q", "REACTIVE RE").queryParam("size", 1).build())
+                .header("Authorization", token)
+                .exchange()
+                .expectHeader().valueEquals("X-Total-Count", "1")
+                .expectBody()
+                .jsonPath("$[0].title").isEqualTo("Reactive retro")
+                .jsonPath("$[0].attendees").isEmpty();
+    }
+
+    @Test
+    public void testCalendarDatesCountEventsPerDay() {
+        List<Map<String, Object>> days = client.get().uri("/api/events/calendar-dates")
+                .header("Authorization", token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", Long.toString(eventRepository.count()))
+                .expectBody(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                })
+                .returnResult().getResponseBody();
+
+        assertThat(days).contains(Map.of("date", "2100-01-02", "count", 2), Map.of("date", "2100-01-05", "count", 1));
+        assertThat(days).extracting(day -> (String) day.get("date")).isSorted();
+    }
+
+    @Test
+    public void testGroupsListTheCallersGroupsFirst() {
+        client.get().uri("/api/groups/available/paginated?size=1")
+                .header("Authorization", token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", Long.toString(groupRepository.count()))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Reactive JUG Member")
+                .jsonPath("$[0].isMember").isEqualTo(true)
+                .jsonPath("$[0].memberCount").isEqualTo(1)
+                .jsonPath("$[0].eventCount").isEqualTo(2)
+                .jsonPath("$[0].imageUrl").isNotEmpty();
+    }
+
+    @Test
+    public void testRequestsNeedAValidTokenAndParameters() {
+        client.get().uri(FROM_2100).exchange().expectStatus().isUnauthorized();
+        client.get().uri(FROM_2100).header("Authorization", "Bearer not-a-jwt").exchange()
+                .expectStatus().isUnauthorized();
+        client.get().uri("/api/events/available?date=someday").header("Authorization", token).exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/events/search").header("Authorization", token).exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/events/1").header("Authorization", token).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private static Event event(String title, String date, Group group, Set<User> attendees) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setDescription(title + " at the JUG");
+        event.setDate(Instant.parse(date));
+        event.setGroup(group);
+        event.setAttendees(new HashSet<>(attendees));
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> sortAttendees(List<Map<String, Object>> events) {
+        events.forEach(event -> ((List<Map<String, Object>>) event.get("attendees"))
+                .sort(Comparator.comparing(attendee -> (String) attendee.get("id"))));
+        return events;
+    }
+}
@@ -0,0 +1,99 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.config.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes against two separate in-memory H2 databases, each holding a row that
+ * names it, so every read shows which one served it.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final AtomicBoolean pinned = new AtomicBoolean();
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), pinned::get);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToTheReplica() {
+        assertThat(servedIn(readOnly)).isEqualTo("replica");
+        assertThat(dataSource.replicaConnections()).isEqualTo(1);
+    }
+
+    @Test
+    public void testWritesAndNonTransactionalReadsStayOnThePrimary() {
+        readWrite.executeWithoutResult(status -> jdbc.update("insert into marker values ('written')"));
+
+        assertThat(servedIn(readWrite)).isEqualTo("primary");
+        assertThat(served()).isEqualTo("primary");
+        assertThat(jdbc.queryForObject("select count(*) from marker", Integer.class)).isEqualTo(2);
+        assertThat(dataSource.replicaConnections()).isZero();
+    }
+
+    @Test
+    public void testPinnedCallerReadsFromThePrimary() {
+        pinned.set(true);
+
+        assertThat(servedIn(readOnly)).isEqualTo("primary");
+        assertThat(dataSource.pinnedReads()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnavailableReplicaFallsBackToThePrimary() {
+        replica.close();
+
+        assertThat(servedIn(readOnly)).isEqualTo("primary");
+        assertThat(dataSource.replicaFailures()).isEqualTo(1);
+    }
+
+    private String servedIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> served());
+    }
+
+    private String served() {
+        return jdbc.queryForObject("select name from marker order by name limit 1", String.class);
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource db = new HikariDataSource();
+        db.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        db.setPoolName(name);
+        db.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(db);
+        jdbc.execute("drop table if exists marker");
+        jdbc.execute("create table marker (name varchar(20))");
+        jdbc.update("insert into marker values (?)", name);
+        return db;
+    }
+}
@@ -0,0 +1,80 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.config.ReplicaRoutingDataSource;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The "replica" is a second pool on the same in-memory database, so routing can be
+// observed through the JPA stack without any replication
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "jdbc.replicas.urls=jdbc:h2:mem:testdb",
+        "jdbc.replicas.sticky-window=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testBrowseReadsUseTheReplicaUntilTheUserRsvps() throws Exception {
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        long eventId = eventRepository.findAll().get(0).getId();
+        String jane = token("jane-routing", "Jane");
+        String john = token("john-routing", "John");
+
+        long replicaBefore = routing.replicaConnections();
+        mockMvc.perform(get("/api/events/available").param("size", "5").header(HttpHeaders.AUTHORIZATION, jane))
+                .andExpect(status().isOk());
+        assertThat(routing.replicaConnections()).isGreaterThan(replicaBefore);
+
+        long primaryBefore = routing.primaryConnections();
+        mockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, jane))
+                .andExpect(status().isOk());
+        assertThat(routing.primaryConnections()).isGreaterThan(primaryBefore);
+
+        // Jane's reads are now pinned to the primary; John's still go to the replica
+        long pinnedBefore = routing.pinnedReads();
+        replicaBefore = routing.replicaConnections();
+        mockMvc.perform(get("/api/events/available").param("size", "5").header(HttpHeaders.AUTHORIZATION, jane))
+                .andExpect(status().isOk());
+        assertThat(routing.pinnedReads()).isGreaterThan(pinnedBefore);
+        assertThat(routing.replicaConnections()).isEqualTo(replicaBefore);
+
+        mockMvc.perform(get("/api/events/available").param("size", "5").header(HttpHeaders.AUTHORIZATION, john))
+                .andExpect(status().isOk());
+        assertThat(routing.replicaConnections()).isGreaterThan(replicaBefore);
+
+        mockMvc.perform(delete("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, jane))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String sub, String name) {
+        return "Bearer " + jwtService.generateToken(Map.of(
+                "sub", sub, "name", name, "email", sub + "@example.com", "picture", ""));
+    }
+}
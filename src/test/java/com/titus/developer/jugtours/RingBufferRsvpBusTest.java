@@ -0,0 +1,120 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.messaging.RingBufferRsvpBus;
+import com.titus.developer.jugtours.messaging.RsvpBatchProcessor;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class RingBufferRsvpBusTest {
+
+    private RsvpBatchProcessor batchProcessor;
+    private RingBufferRsvpBus bus;
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private CountDownLatch processed;
+
+    @BeforeEach
+    public void setup() {
+        batchProcessor = mock(RsvpBatchProcessor.class);
+        doAnswer(inv -> record(inv.getArgument(0), inv.getArgument(1))).when(batchProcessor).apply(anyString(), anyList());
+
+        bus = new RingBufferRsvpBus(batchProcessor, mock(RsvpRetryScheduler.class));
+        ReflectionTestUtils.setField(bus, "ringSize", 64);
+        ReflectionTestUtils.setField(bus, "waitStrategy", "blocking");
+        ReflectionTestUtils.setField(bus, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(bus, "offerTimeout", 1000L);
+    }
+
+    @AfterEach
+    public void teardown() {
+        ReflectionTestUtils.invokeMethod(bus, "stop");
+    }
+
+    @Test
+    public void testMessagesAreDeliveredInOrderGroupedByType() throws Exception {
+        processed = new CountDownLatch(4);
+        ReflectionTestUtils.invokeMethod(bus, "start");
+
+        bus.sendRsvpConfirmed(message("u1", "CONFIRMED"));
+        bus.sendRsvpConfirmed(message("u2", "CONFIRMED"));
+        bus.sendRsvpCancelled(message("u1", "CANCELLED"));
+        bus.sendWaitlistAdded(message("u3", "WAITLIST"));
+
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        // Runs of the same type may be split across batches but never reordered
+        assertThat(String.join(",", calls)).isEqualTo("CONFIRMED:u1,CONFIRMED:u2,CANCELLED:u1,WAITLIST:u3");
+    }
+
+    @Test
+    public void testBatchesNeverExceedMaxBatchSize() throws Exception {
+        processed = new CountDownLatch(100);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            List<RsvpMessage> batch = inv.getArgument(1);
+            batchSizes.add(batch.size());
+            return record(inv.getArgument(0), batch);
+        }).when(batchProcessor).apply(anyString(), anyList());
+        ReflectionTestUtils.invokeMethod(bus, "start");
+
+        for (int i = 0; i < 100; i++) {
+            bus.sendRsvpConfirmed(message("user-" + i, "CONFIRMED"));
+        }
+
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batchSizes).allMatch(size -> size <= 10);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(100);
+    }
+
+    @Test
+    public void testFullRingFailsThePublishInsteadOfBlocking() throws Exception {
+        processed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            return record(inv.getArgument(0), inv.getArgument(1));
+        }).when(batchProcessor).apply(anyString(), anyList());
+        ReflectionTestUtils.setField(bus, "offerTimeout", 50L);
+        ReflectionTestUtils.invokeMethod(bus, "start");
+
+        // The consumer is stuck on its first batch, so the ring fills up
+        CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < 100 && !sent.isCompletedExceptionally(); i++) {
+            sent = bus.sendRsvpConfirmed(message("user-" + i, "CONFIRMED"));
+        }
+        release.countDown();
+
+        assertThat(sent).isCompletedExceptionally();
+        assertThatThrownBy(sent::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(processed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private int record(String type, List<RsvpMessage> batch) {
+        for (RsvpMessage message : batch) {
+            calls.add(type + ":" + message.getUserId());
+            processed.countDown();
+        }
+        return batch.size();
+    }
+
+    private RsvpMessage message(String userId, String status) {
+        return new RsvpMessage(1L, userId, "User " + userId, userId + "@example.com", status);
+    }
+}
@@ -0,0 +1,129 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.messaging.RsvpBatchProcessor;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Messages are handed to the processor directly, in the order the queues could deliver them
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@ActiveProfiles("test")
+public class RsvpBatchProcessorTest {
+
+    @Autowired
+    private RsvpBatchProcessor batchProcessor;
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long eventId;
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        user = userRepository.save(new User("batch-user", "Batch User", "batch-user@example.com"));
+        Group group = groupRepository.save(new Group("Batch JUG " + System.nanoTime()));
+        Event event = new Event();
+        event.setTitle("Ordering talk");
+        event.setDate(Instant.now());
+        event.setGroup(group);
+        event.setAttendees(new HashSet<>());
+        eventId = eventRepository.save(event).getId();
+    }
+
+    @Test
+    public void testConfirmationAfterTheUserLeftDoesNotSeatThemAgain() {
+        // Joined and left again (both committed by the web tier) before the CONFIRMED arrives
+        int current = batchProcessor.apply(RsvpMessage.CONFIRMED, List.of(message(RsvpMessage.CONFIRMED)));
+
+        assertThat(current).isZero();
+        assertThat(attendeeIds()).doesNotContain(user.getId());
+    }
+
+    @Test
+    public void testCancellationAfterTheUserRejoinedKeepsTheirSeat() {
+        // Left, then joined again, before the CANCELLED arrives
+        attend(user);
+        waitlistService.enqueue(List.of(new RsvpMessage(eventId, "batch-waiting", "Waiting User",
+                "batch-waiting@example.com", RsvpMessage.WAITLIST)));
+
+        int promoted = batchProcessor.apply(RsvpMessage.CANCELLED, List.of(message(RsvpMessage.CANCELLED)));
+
+        assertThat(promoted).isEqualTo(1);
+        assertThat(attendeeIds()).contains(user.getId(), "batch-waiting");
+        assertThat(waitlistService.size(eventId)).isZero();
+    }
+
+    @Test
+    public void testLeavingTheWaitlistAfterBeingPromotedKeepsTheSeat() {
+        // Promoted (seated, entry gone) before the WAITLIST_LEFT arrives
+        attend(user);
+        waitlistService.enqueue(List.of(new RsvpMessage(eventId, "batch-waiting", "Waiting User",
+                "batch-waiting@example.com", RsvpMessage.WAITLIST)));
+
+        int removed = batchProcessor.apply(RsvpMessage.WAITLIST_LEFT, List.of(message(RsvpMessage.WAITLIST_LEFT)));
+
+        assertThat(removed).isZero();
+        assertThat(attendeeIds()).containsExactly(user.getId());
+        assertThat(waitlistService.position(eventId, "batch-waiting")).isPresent();
+    }
+
+    @Test
+    public void testLeavingTheWaitlistRemovesOnlyTheEntry() {
+        waitlistService.enqueue(List.of(message(RsvpMessage.WAITLIST)));
+
+        int removed = batchProcessor.apply(RsvpMessage.WAITLIST_LEFT, List.of(message(RsvpMessage.WAITLIST_LEFT)));
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(waitlistService.position(eventId, user.getId())).isEmpty();
+        assertThat(attendeeIds()).isEmpty();
+    }
+
+    @Test
+    public void testConfirmationOfACurrentAttendeeIsCountedOnce() {
+        attend(user);
+        RsvpMessage confirmed = message(RsvpMessage.CONFIRMED);
+
+        assertThat(batchProcessor.apply(RsvpMessage.CONFIRMED, List.of(confirmed))).isEqualTo(1);
+        // Redelivery
+        assertThat(batchProcessor.apply(RsvpMessage.CONFIRMED, List.of(confirmed))).isZero();
+        assertThat(attendeeIds()).containsOnlyOnce(user.getId());
+    }
+
+    private void attend(User attendee) {
+        Event event = eventRepository.findAllWithAttendeesByIdIn(List.of(eventId)).get(0);
+        event.addAttendee(attendee);
+        eventRepository.save(event);
+    }
+
+    private List<String> attendeeIds() {
+        return eventRepository.findAllAttendeesById(eventId).stream().map(User::getId).toList();
+    }
+
+    private RsvpMessage message(String status) {
+        return new RsvpMessage(eventId, user.getId(), user.getName(), user.getEmail(), status);
+    }
+}
@@ -0,0 +1,83 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.messaging.RsvpDeduplicator;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RsvpDeduplicatorTest {
+
+    private RsvpDeduplicator deduplicator;
+
+    @BeforeEach
+    public void setup() {
+        deduplicator = new RsvpDeduplicator();
+        ReflectionTestUtils.setField(deduplicator, "windowMillis", 60_000L);
+        ReflectionTestUtils.setField(deduplicator, "maxEntries", 3);
+    }
+
+    @Test
+    public void testRedeliveryIsDropped() {
+        RsvpMessage message = message("u1");
+        RsvpMessage redelivered = roundTrip(message);
+
+        assertThat(redelivered.getMessageId()).isEqualTo(message.getMessageId());
+        assertThat(redelivered.getTimestamp()).isEqualTo(message.getTimestamp());
+
+        assertThat(deduplicator.claim(List.of(message))).containsExactly(message);
+        assertThat(deduplicator.claim(List.of(redelivered, message("u2")))).hasSize(1)
+                .extracting(RsvpMessage::getUserId).containsExactly("u2");
+        assertThat(deduplicator.getStats().get("duplicates")).isEqualTo(1L);
+        assertThat((double) deduplicator.getStats().get("hitRate")).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    public void testReleasedMessageCanBeProcessedAgain() {
+        RsvpMessage message = message("u1");
+        deduplicator.claim(List.of(message));
+        deduplicator.release(List.of(message));
+
+        assertThat(deduplicator.claim(List.of(message))).containsExactly(message);
+    }
+
+    @Test
+    public void testWindowIsBounded() {
+        RsvpMessage first = message("u1");
+        deduplicator.claim(List.of(first, message("u2"), message("u3"), message("u4")));
+
+        assertThat(deduplicator.getStats().get("size")).isEqualTo(3);
+        assertThat(deduplicator.getStats().get("evictedBySize")).isEqualTo(1L);
+        // The oldest id fell out of the window, so it is no longer recognised
+        assertThat(deduplicator.claim(List.of(first))).containsExactly(first);
+
+        ReflectionTestUtils.setField(deduplicator, "windowMillis", -1L);
+        deduplicator.claim(List.of());
+        assertThat(deduplicator.getStats().get("size")).isEqualTo(0);
+    }
+
+    @Test
+    public void testMessagesWithoutIdAlwaysPass() {
+        RsvpMessage legacy = new RsvpMessage(null, 1L, "u1", "User", "u1@example.com", RsvpMessage.CONFIRMED, null);
+
+        assertThat(deduplicator.claim(List.of(legacy, legacy))).hasSize(2);
+        assertThat(legacy.getTimestamp()).isNotNull();
+    }
+
+    private static RsvpMessage message(String userId) {
+        return new RsvpMessage(1L, userId, "User", userId + "@example.com", RsvpMessage.CONFIRMED);
+    }
+
+    private static RsvpMessage roundTrip(RsvpMessage message) {
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        Message wire = converter.toMessage(message, new MessageProperties());
+        return (RsvpMessage) converter.fromMessage(wire);
+    }
+}
@@ -0,0 +1,135 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.config.RabbitConfig;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessageProducer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class RsvpMessageProducerTest {
+
+    private RabbitTemplate template;
+    private RsvpMessageProducer producer;
+    // Correlations of sent messages by user id, for the test to ack or nack
+    private final Map<String, CorrelationData> sent = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setup() {
+        template = mock(RabbitTemplate.class);
+        doAnswer(inv -> {
+            RsvpMessage message = inv.getArgument(2);
+            sent.put(message.getUserId(), inv.getArgument(3));
+            return null;
+        }).when(template).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        producer = new RsvpMessageProducer(template);
+        ReflectionTestUtils.setField(producer, "maxInFlight", 2);
+        ReflectionTestUtils.setField(producer, "confirmTimeout", 1000L);
+        ReflectionTestUtils.setField(producer, "offerTimeout", 10L);
+        ReflectionTestUtils.invokeMethod(producer, "start");
+    }
+
+    @AfterEach
+    public void teardown() {
+        ReflectionTestUtils.invokeMethod(producer, "stop");
+    }
+
+    @Test
+    public void testEachFutureCompletesWithItsOwnConfirm() {
+        CompletableFuture<Void> confirmed = producer.sendRsvpConfirmed(message("u1"));
+        CompletableFuture<Void> cancelled = producer.sendRsvpCancelled(message("u2"));
+        await().until(() -> sent.size() == 2);
+
+        ack("u1");
+        assertThat(confirmed).isCompleted();
+        assertThat(cancelled).isNotDone();
+        ack("u2");
+
+        CompletableFuture.allOf(confirmed, cancelled).join();
+        verify(template).convertAndSend(eq(RabbitConfig.RSVP_EXCHANGE), eq(RabbitConfig.RSVP_CONFIRMED_ROUTING_KEY),
+                any(Object.class), any(CorrelationData.class));
+        verify(template).convertAndSend(eq(RabbitConfig.RSVP_EXCHANGE), eq(RabbitConfig.RSVP_CANCELLED_ROUTING_KEY),
+                any(Object.class), any(CorrelationData.class));
+        assertThat(producer.getStats().get("confirmedTotal")).isEqualTo(2L);
+        assertThat(producer.getStats().get("inFlight")).isEqualTo(0);
+    }
+
+    @Test
+    public void testNackFailsOnlyThatMessage() {
+        CompletableFuture<Void> nacked = producer.sendWaitlistAdded(message("u1"));
+        CompletableFuture<Void> acked = producer.sendWaitlistAdded(message("u2"));
+        await().until(() -> sent.size() == 2);
+
+        sent.get("u1").getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+        ack("u2");
+
+        assertThatThrownBy(nacked::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(AmqpException.class)
+                .hasMessageContaining("queue full");
+        acked.join();
+        assertThat(producer.getStats().get("nackedTotal")).isEqualTo(1L);
+        assertThat(producer.getStats().get("failedTotal")).isEqualTo(1L);
+    }
+
+    @Test
+    public void testUnconfirmedMessageTimesOut() {
+        ReflectionTestUtils.setField(producer, "confirmTimeout", 50L);
+
+        CompletableFuture<Void> future = producer.sendRsvpConfirmed(message("u1"));
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(AmqpException.class)
+                .hasMessageContaining("not confirmed within 50ms");
+        assertThat(producer.getStats().get("inFlight")).isEqualTo(0);
+    }
+
+    @Test
+    public void testFullWindowPushesBack() {
+        List<CompletableFuture<Void>> admitted = List.of(
+                producer.sendRsvpConfirmed(message("u1")),
+                producer.sendRsvpConfirmed(message("u2")));
+        CompletableFuture<Void> overflow = producer.sendRsvpConfirmed(message("u3"));
+
+        assertThatThrownBy(overflow::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(producer.getStats().get("rejectedTotal")).isEqualTo(1L);
+
+        await().until(() -> sent.size() == 2);
+        ack("u1");
+        ack("u2");
+        CompletableFuture.allOf(admitted.toArray(new CompletableFuture[0])).join();
+        // Confirmed messages free up the window again
+        CompletableFuture<Void> next = producer.sendRsvpConfirmed(message("u4"));
+        await().until(() -> sent.containsKey("u4"));
+        ack("u4");
+        next.join();
+    }
+
+    private void ack(String userId) {
+        sent.get(userId).getFuture().complete(new CorrelationData.Confirm(true, null));
+    }
+
+    private static RsvpMessage message(String userId) {
+        return new RsvpMessage(1L, userId, "User", userId + "@example.com", RsvpMessage.CONFIRMED);
+    }
+}
@@ -0,0 +1,157 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.messaging.RsvpBatchProcessor;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
+import com.titus.developer.jugtours.model.PendingRsvp;
+import com.titus.developer.jugtours.model.PendingRsvpRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Own database: schedulers of other cached test contexts would otherwise claim these retries
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "spring.datasource.url=jdbc:h2:mem:retrytest",
+        "rsvp.retry.max-attempts=3",
+        "rsvp.retry.initial-interval=10",
+        "rsvp.retry.multiplier=2.0",
+        "rsvp.retry.max-interval=100",
+        "rsvp.retry.parking-capacity=10",
+        "rsvp.retry.poll-interval=20"
+})
+@ActiveProfiles("test")
+public class RsvpRetrySchedulerTest {
+
+    @MockitoBean
+    private RsvpBatchProcessor batchProcessor;
+    @Autowired
+    private RsvpRetryScheduler scheduler;
+    @Autowired
+    private PendingRsvpRepository pendingRepository;
+
+    @BeforeEach
+    public void setup() {
+        pendingRepository.deleteAll();
+    }
+
+    @Test
+    public void testTransientFailureRecoversOnRetry() {
+        when(batchProcessor.apply(eq(RsvpMessage.CONFIRMED), anyList()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+        long recovered = (long) scheduler.getStats().get("recoveredTotal");
+
+        scheduler.scheduleRetries(RsvpMessage.CONFIRMED, List.of(message("u1")), new RuntimeException("db down"));
+
+        await().untilAsserted(() -> assertThat(scheduler.getStats().get("recoveredTotal")).isEqualTo(recovered + 1));
+        assertThat(scheduler.getStats().get("pendingRetries")).isEqualTo(0);
+        assertThat(pendingRepository.count()).isZero();
+        assertThat(scheduler.getParked()).isEmpty();
+    }
+
+    @Test
+    public void testExhaustedMessagesAreParkedIndividually() {
+        when(batchProcessor.apply(eq(RsvpMessage.CANCELLED), anyList()))
+                .thenThrow(new RuntimeException("still broken"));
+        long retried = (long) scheduler.getStats().get("retriedTotal");
+
+        scheduler.scheduleRetries(RsvpMessage.CANCELLED, List.of(message("u1"), message("u2")),
+                new RuntimeException("broken"));
+
+        await().untilAsserted(() -> assertThat(scheduler.getParked()).hasSize(2));
+        assertThat(scheduler.getParked().get(0).getAttempts()).isEqualTo(3);
+        assertThat(scheduler.getParked().get(0).getLastError()).isEqualTo("still broken");
+        assertThat(scheduler.getParked().get(0).getMessage().getUserEmail()).endsWith("@example.com");
+        assertThat(scheduler.getStats().get("retriedTotal")).isEqualTo(retried + 6);
+
+        // At most max at a time
+        assertThat(scheduler.drainParked(1)).hasSize(1);
+        assertThat(scheduler.getParked()).hasSize(1);
+        assertThat(scheduler.drainParked(10)).hasSize(1);
+        assertThat(scheduler.getParked()).isEmpty();
+        assertThat(scheduler.drainParked(10)).isEmpty();
+    }
+
+    @Test
+    public void testRetriesLeftByAnEarlierRunArePickedUp() {
+        when(batchProcessor.apply(eq(RsvpMessage.WAITLIST), anyList())).thenReturn(1);
+        // Stored before a restart: one never tried, one claimed by an instance that
+        // then crashed, its lease since run out
+        PendingRsvp stored = pending("restart-1");
+        PendingRsvp claimed = pending("restart-2");
+        claimed.setAttempts(1);
+        pendingRepository.saveAll(List.of(stored, claimed));
+        PendingRsvp parked = pending("restart-3");
+        parked.setParked(true);
+        parked.setParkedAt(Instant.now());
+        pendingRepository.save(parked);
+
+        await().untilAsserted(() -> assertThat(scheduler.getStats().get("pendingRetries")).isEqualTo(0));
+        verify(batchProcessor).apply(eq(RsvpMessage.WAITLIST),
+                argThat(messages -> messages.get(0).getUserId().equals("restart-1")));
+        verify(batchProcessor).apply(eq(RsvpMessage.WAITLIST),
+                argThat(messages -> messages.get(0).getUserId().equals("restart-2")));
+        assertThat(scheduler.getParked()).extracting(p -> p.getMessage().getUserId()).containsExactly("restart-3");
+    }
+
+    @Test
+    public void testUnpublishedMessageIsAppliedByARetry() {
+        when(batchProcessor.apply(eq(RsvpMessage.CONFIRMED), anyList())).thenReturn(1);
+
+        scheduler.retryIfUnsent(RsvpMessage.CONFIRMED, message("unsent"),
+                CompletableFuture.failedFuture(new RuntimeException("not confirmed")));
+        scheduler.retryIfUnsent(RsvpMessage.CONFIRMED, message("sent"), CompletableFuture.completedFuture(null));
+
+        await().untilAsserted(() -> verify(batchProcessor).apply(eq(RsvpMessage.CONFIRMED),
+                argThat(messages -> messages.get(0).getUserId().equals("unsent"))));
+        await().untilAsserted(() -> assertThat(pendingRepository.count()).isZero());
+        verify(batchProcessor, never()).apply(eq(RsvpMessage.CONFIRMED),
+                argThat(messages -> messages.get(0).getUserId().equals("sent")));
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyUpToMaxInterval() {
+        for (int i = 0; i < 20; i++) {
+            long first = (long) ReflectionTestUtils.invokeMethod(scheduler, "backoff", 1);
+            long third = (long) ReflectionTestUtils.invokeMethod(scheduler, "backoff", 3);
+            long tenth = (long) ReflectionTestUtils.invokeMethod(scheduler, "backoff", 10);
+            assertThat(first).isBetween(5L, 11L);
+            assertThat(third).isBetween(20L, 41L);
+            assertThat(tenth).isBetween(50L, 101L);
+        }
+    }
+
+    private PendingRsvp pending(String userId) {
+        PendingRsvp entry = new PendingRsvp();
+        entry.setType(RsvpMessage.WAITLIST);
+        entry.setMessageId(userId + "-message");
+        entry.setEventId(1L);
+        entry.setUserId(userId);
+        entry.setStatus(RsvpMessage.WAITLIST);
+        entry.setSentAt(Instant.now());
+        entry.setNextAttemptAt(Instant.now().minusSeconds(1));
+        return entry;
+    }
+
+    private RsvpMessage message(String userId) {
+        return new RsvpMessage(1L, userId, "User " + userId, userId + "@example.com", RsvpMessage.CANCELLED);
+    }
+}
@@ -0,0 +1,142 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not @Transactional: cache entries are only written and invalidated when a transaction commits
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Test
+    void testEventAttendeesAreServedFromTheCacheAndInvalidatedByJoinAndLeave() throws Exception {
+        long eventId = eventRepository.findAll().get(0).getId();
+        String token = token("jane-l2", "Jane");
+
+        mockMvc.perform(get("/api/events/" + eventId)).andExpect(status().isOk());
+        long hits = region("collection.event-attendees").getHitCount();
+        mockMvc.perform(get("/api/events/" + eventId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.attendees[*].id", not(hasItem("jane-l2"))));
+        assertThat(region("collection.event-attendees").getHitCount()).isGreaterThan(hits);
+
+        mockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/" + eventId))
+                .andExpect(jsonPath("$.attendees[*].id", hasItem("jane-l2")));
+
+        mockMvc.perform(delete("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/" + eventId))
+                .andExpect(jsonPath("$.attendees[*].id", not(hasItem("jane-l2"))));
+    }
+
+    @Test
+    void testGroupSummariesComeFromTheQueryCacheUntilMembershipChanges() throws Exception {
+        Group group = groupRepository.findAll().get(0);
+        String path = "$[?(@.id == " + group.getId() + ")].memberCount";
+        String token = token("john-l2", "John");
+
+        mockMvc.perform(get("/api/groups/summary")).andExpect(status().isOk());
+        int members = memberCount(group.getId());
+        long hits = region("query.group-summaries").getHitCount();
+        mockMvc.perform(get("/api/groups/summary")).andExpect(status().isOk());
+        assertThat(region("query.group-summaries").getHitCount()).isGreaterThan(hits);
+
+        // Joining writes group_members, which makes the cached summaries stale
+        long misses = region("query.group-summaries").getMissCount();
+        mockMvc.perform(post("/api/groups/members/" + group.getId()).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/summary"))
+                .andExpect(jsonPath(path, hasItem(members + 1)));
+        assertThat(region("query.group-summaries").getMissCount()).isGreaterThan(misses);
+
+        mockMvc.perform(delete("/api/groups/members/" + group.getId()).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/summary"))
+                .andExpect(jsonPath(path, hasItem(members)));
+    }
+
+    @Test
+    void testGroupsAndUsersAreCachedByIdAcrossTransactions() {
+        Group group = groupRepository.findAll().get(0);
+        User user = userRepository.save(new User("ada-l2", "Ada", "ada-l2@example.com"));
+        sessionFactory.getCache().evictEntityData(Group.class);
+        sessionFactory.getCache().evictEntityData(User.class);
+
+        groupRepository.findById(group.getId());
+        userRepository.findById(user.getId());
+        long groupHits = region("entity.group").getHitCount();
+        long userHits = region("entity.user").getHitCount();
+        groupRepository.findById(group.getId());
+        userRepository.findById(user.getId());
+        assertThat(region("entity.group").getHitCount()).isGreaterThan(groupHits);
+        assertThat(region("entity.user").getHitCount()).isGreaterThan(userHits);
+    }
+
+    private int memberCount(Long groupId) {
+        return groupRepository.findAllGroupSummaries().stream()
+                .filter(row -> row[0].equals(groupId))
+                .mapToInt(row -> ((Number) row[8]).intValue())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return sessionFactory.getStatistics().getCacheRegionStatistics(name);
+    }
+
+    private String token(String sub, String name) {
+        return "Bearer " + jwtService.generateToken(Map.of(
+                "sub", sub, "name", name, "email", sub + "@example.com", "picture", ""));
+    }
+}
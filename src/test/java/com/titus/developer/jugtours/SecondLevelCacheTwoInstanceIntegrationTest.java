@@ -0,0 +1,117 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two instances on one database, each with its own second-level cache: a write on
+// one only invalidates that instance's cache. Own database, so the second
+// instance's startup leaves the other test contexts' data alone
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "spring.datasource.url=" + SecondLevelCacheTwoInstanceIntegrationTest.DATABASE
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecondLevelCacheTwoInstanceIntegrationTest {
+
+    static final String DATABASE = "jdbc:h2:mem:twoinstances;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext other;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static MockMvc otherMockMvc;
+
+    // Once this instance's context (and so the schema) exists
+    @BeforeEach
+    void startOtherInstance() {
+        if (other != null) {
+            return;
+        }
+        other = new SpringApplicationBuilder(JugtoursApplication.class)
+                .profiles("test")
+                // Arguments, so they override application-test.properties as @SpringBootTest's do
+                .run("--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+                        "--spring.datasource.url=" + DATABASE,
+                        // The schema and demo data are the first instance's
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--server.port=0");
+        otherMockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) other)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @AfterAll
+    static void stopOtherInstance() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void testJoinAndLeaveSeeTheOtherInstancesWrites() throws Exception {
+        long eventId = eventRepository.findAll().get(0).getId();
+        String token = token("kate-l2", "Kate");
+
+        // This instance caches the attendees; the other instance adds one
+        mockMvc.perform(get("/api/events/" + eventId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/" + eventId)).andExpect(status().isOk());
+        otherMockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+
+        // Leaving here must not trust the cached list, which doesn't have her
+        mockMvc.perform(delete("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        assertThat(attendeeRows(eventId, "kate-l2")).isZero();
+
+        // Same again for a join: a stale list here would insert a duplicate row
+        mockMvc.perform(get("/api/events/" + eventId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/events/" + eventId)).andExpect(status().isOk());
+        otherMockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/events/" + eventId + "/attendees").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+        assertThat(attendeeRows(eventId, "kate-l2")).isEqualTo(1);
+    }
+
+    private int attendeeRows(long eventId, String userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM event_attendees WHERE event_id = ? AND attendees_id = ?",
+                Integer.class, eventId, userId);
+    }
+
+    private String token(String sub, String name) {
+        return "Bearer " + jwtService.generateToken(Map.of(
+                "sub", sub, "name", name, "email", sub + "@example.com", "picture", ""));
+    }
+}
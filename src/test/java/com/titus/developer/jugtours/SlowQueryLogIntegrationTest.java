@@ -0,0 +1,141 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.SlowQueryLog;
+import com.titus.developer.jugtours.service.SlowQueryLog.SlowQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A zero threshold makes every statement "slow"
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "jdbc.slow-query.threshold-ms=0",
+        "jdbc.slow-query.capture-binds=true",
+        "jdbc.slow-query.capacity=5"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class SlowQueryLogIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void reset() {
+        slowQueryLog.clear();
+    }
+
+    @Test
+    void testSlowQueryIsCapturedWithBindsOriginAndPlan() throws Exception {
+        Long eventId = eventRepository.findAll().get(0).getId();
+        slowQueryLog.clear();
+
+        mockMvc.perform(get("/api/events/" + eventId)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token()))
+                .andExpect(status().isOk());
+
+        SlowQuery query = slowQueryLog.getEntries().stream()
+                .filter(q -> q.getRoute() != null && q.getRoute().equals("GET /api/events/{id}"))
+                .filter(q -> q.getBindValues().contains(String.valueOf(eventId)))
+                // Not the lazy collection loads that follow during mapping
+                .filter(q -> q.getRepositoryMethod() != null)
+                .findFirst()
+                .orElseThrow();
+        assertThat(query.getSql()).startsWithIgnoringCase("select");
+        assertThat(query.getRepositoryMethod()).isEqualTo("EventRepository.findById");
+
+        // The plan is fetched in the background
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(5));
+        while (query.getPlan() == null && Instant.now().isBefore(deadline)) {
+            Thread.sleep(20);
+        }
+        assertThat(query.getPlan()).containsIgnoringCase("select");
+    }
+
+    @Test
+    void testRingKeepsOnlyTheNewestEntries() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/events").header(HttpHeaders.AUTHORIZATION, "Bearer " + token()))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(slowQueryLog.getEntries()).hasSize(5);
+        assertThat(slowQueryLog.getStats()).containsEntry("capacity", 5);
+        assertThat((Long) slowQueryLog.getStats().get("captured")).isGreaterThan(5);
+    }
+
+    @Test
+    void testAdminEndpointListsAndClearsSlowQueries() throws Exception {
+        String token = token();
+        mockMvc.perform(get("/api/events").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        String adminToken = jwtService.generateToken(Map.of(
+                "sub", "admin|test", "name", "Admin", "email", "admin@example.com", "picture", ""));
+        mockMvc.perform(get("/api/admin/queries/slow").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sql").exists())
+                .andExpect(jsonPath("$[0].elapsedMillis").exists());
+        mockMvc.perform(delete("/api/admin/queries/slow").header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+                .andExpect(status().isNoContent());
+
+        assertThat(slowQueryLog.getEntries()).isEmpty();
+    }
+
+    @Test
+    void testBindValuesAreOnlyTypedUnlessCaptureIsEnabled() throws Exception {
+        Long eventId = eventRepository.findAll().get(0).getId();
+        slowQueryLog.clear();
+        ReflectionTestUtils.setField(slowQueryLog, "captureBinds", false);
+        try {
+            mockMvc.perform(get("/api/events/" + eventId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token()))
+                    .andExpect(status().isOk());
+        } finally {
+            ReflectionTestUtils.setField(slowQueryLog, "captureBinds", true);
+        }
+
+        SlowQuery query = slowQueryLog.getEntries().stream()
+                .filter(q -> "EventRepository.findById".equals(q.getRepositoryMethod()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(query.getBindValues()).containsExactly("<Long>");
+    }
+
+    @Test
+    void testAdminEndpointIsForbiddenToUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/queries/slow").header(HttpHeaders.AUTHORIZATION, "Bearer " + token()))
+                .andExpect(status().isForbidden());
+    }
+
+    private String token() {
+        return jwtService.generateToken(Map.of(
+                "sub", "john-smith-123", "name", "John Smith", "email", "john.smith@example.com", "picture", ""));
+    }
+}
@@ -0,0 +1,35 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.web.SpaWebFilter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaWebFilterTest {
+
+    private final SpaWebFilter filter = new SpaWebFilter();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/", "/events", "/groups/3", "/auth/callback", "/v1.2/events"})
+    public void testClientRoutesAreForwardedToIndex(String path) throws Exception {
+        assertThat(forwardedUrl(path)).isEqualTo("/index.html");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api", "/api/groups", "/oauth2/authorization/auth0", "/login/oauth2/code/auth0",
+            "/assets/index-1a2b3c.js", "/favicon.ico", "/index.html", "/error"})
+    public void testServerPathsAndFilesPassThrough(String path) throws Exception {
+        assertThat(forwardedUrl(path)).isNull();
+    }
+
+    private String forwardedUrl(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getForwardedUrl();
+    }
+}
@@ -0,0 +1,101 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.RevokedToken;
+import com.titus.developer.jugtours.model.RevokedTokenRepository;
+import com.titus.developer.jugtours.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationServiceTest {
+
+    private RevokedTokenRepository repository;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    public void setup() {
+        repository = mock(RevokedTokenRepository.class);
+        revocationService = new TokenRevocationService(repository);
+        ReflectionTestUtils.setField(revocationService, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationService, "syncInterval", 60_000L);
+    }
+
+    @AfterEach
+    public void teardown() {
+        ReflectionTestUtils.invokeMethod(revocationService, "stop");
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedAndPersisted() {
+        ReflectionTestUtils.invokeMethod(revocationService, "init");
+        Claims claims = claims(UUID.randomUUID().toString(), Instant.now().plusSeconds(3600));
+
+        assertThat(revocationService.isRevoked(claims.getId())).isFalse();
+        revocationService.revoke(claims);
+
+        assertThat(revocationService.isRevoked(claims.getId())).isTrue();
+        assertThat(revocationService.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(revocationService.isRevoked(null)).isFalse();
+        verify(repository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    public void testRevocationsSurviveRestart() {
+        String jti = UUID.randomUUID().toString();
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken(jti, Instant.now().plusSeconds(3600), Instant.now())));
+
+        ReflectionTestUtils.invokeMethod(revocationService, "init");
+
+        assertThat(revocationService.isRevoked(jti)).isTrue();
+    }
+
+    @Test
+    public void testSyncPicksUpOtherInstancesAndDropsExpired() throws InterruptedException {
+        ReflectionTestUtils.invokeMethod(revocationService, "init");
+        Claims expiring = claims(UUID.randomUUID().toString(), Instant.now().plusMillis(50));
+        revocationService.revoke(expiring);
+        String elsewhere = UUID.randomUUID().toString();
+        when(repository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                new RevokedToken(elsewhere, Instant.now().plusSeconds(3600), Instant.now())));
+
+        Thread.sleep(100);
+        ReflectionTestUtils.invokeMethod(revocationService, "sync");
+
+        assertThat(revocationService.isRevoked(elsewhere)).isTrue();
+        assertThat(revocationService.isRevoked(expiring.getId())).isFalse();
+        assertThat(revocationService.size()).isEqualTo(1);
+        verify(repository).deleteExpired(any());
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        ReflectionTestUtils.invokeMethod(revocationService, "init");
+        for (int i = 0; i < 5000; i++) {
+            Claims claims = claims("jti-" + i, Instant.now().plusSeconds(3600));
+            revocationService.revoke(claims);
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertThat(revocationService.isRevoked("jti-" + i)).isTrue();
+        }
+    }
+
+    private static Claims claims(String jti, Instant expiresAt) {
+        return Jwts.claims().id(jti).subject("auth0|123").expiration(Date.from(expiresAt)).build();
+    }
+}
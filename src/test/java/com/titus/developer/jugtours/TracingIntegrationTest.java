@@ -0,0 +1,83 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.service.JwtService;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Import(TracingIntegrationTest.InMemoryExporter.class)
+@ActiveProfiles("test")
+class TracingIntegrationTest {
+
+    @TestConfiguration
+    static class InMemoryExporter {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private InMemorySpanExporter exporter;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void reset() {
+        exporter.reset();
+    }
+
+    @Test
+    void testAvailableEventsIsBrokenDownIntoAuthDbMappingAndSerializationSpans() throws Exception {
+        String token = jwtService.generateToken(Map.of(
+                "sub", "john-smith-123", "name", "John Smith", "email", "john.smith@example.com", "picture", ""));
+
+        mockMvc.perform(get("/api/events/available").param("size", "5")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        SpanData server = spans.stream()
+                .filter(span -> span.getName().equals("http get /api/events/available"))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(spans)
+                .filteredOn(span -> span.getTraceId().equals(server.getTraceId()))
+                .extracting(SpanData::getName)
+                .contains("jwt authenticate",
+                        "event-repository.find-all-with-group-and-attendees",
+                        "map events",
+                        "write json");
+    }
+}
@@ -0,0 +1,59 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.ImageService;
+import com.titus.developer.jugtours.service.UserService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Against the real database and transaction manager: the lost insert race has to
+// leave the caller's transaction able to commit
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@ActiveProfiles("test")
+class UserServiceIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testLosingTheInsertRaceInsideATransactionStillCommits() {
+        userRepository.save(new User("race-user", "Winner", "winner@example.com"));
+        // Another request inserts the user between this one's lookup and its insert
+        UserRepository racing = mock(UserRepository.class, delegatesTo(userRepository));
+        when(racing.findById("race-user"))
+                .thenReturn(Optional.empty())
+                .thenAnswer(invocation -> userRepository.findById("race-user"));
+        UserService userService = new UserService(racing, new ImageService(), entityManager, transactionManager);
+        ReflectionTestUtils.setField(userService, "cacheSize", 10);
+        ReflectionTestUtils.invokeMethod(userService, "init");
+
+        // As in joinEvent: resolved inside the request's transaction, which then commits
+        User user = new TransactionTemplate(transactionManager).execute(status ->
+                userService.resolve("race-user", Map.of("name", "Loser", "email", "loser@example.com")));
+
+        assertThat(user.getName()).isEqualTo("Winner");
+        assertThat(userRepository.findById("race-user")).get()
+                .extracting(User::getName).isEqualTo("Winner");
+    }
+}
@@ -0,0 +1,103 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import com.titus.developer.jugtours.service.ImageService;
+import com.titus.developer.jugtours.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserServiceTest {
+
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private UserService userService;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        userService = new UserService(userRepository, new ImageService(), entityManager,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(userService, "cacheSize", 2);
+        ReflectionTestUtils.invokeMethod(userService, "init");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testUpsertCreatesThenResolveIsServedFromCache() {
+        when(userRepository.findById("auth0|1")).thenReturn(Optional.empty());
+
+        User created = userService.upsert("auth0|1", "User One", "one@example.com");
+        User resolved = userService.resolve("auth0|1", Map.of());
+
+        assertThat(created.getProfilePictureUrl()).isNotNull();
+        assertThat(resolved.getName()).isEqualTo("User One");
+        verify(userRepository, times(1)).findById("auth0|1");
+        verify(entityManager).persist(any(User.class));
+    }
+
+    @Test
+    public void testUpsertUpdatesChangedDetails() {
+        when(userRepository.findById("auth0|1"))
+                .thenReturn(Optional.of(new User("auth0|1", "Old Name", "one@example.com")));
+
+        User user = userService.upsert("auth0|1", "New Name", "one@example.com");
+
+        assertThat(user.getName()).isEqualTo("New Name");
+        verify(userRepository).save(any(User.class));
+        verify(entityManager, never()).persist(any(User.class));
+    }
+
+    @Test
+    public void testMissingDetailsDoNotOverwriteStoredOnes() {
+        when(userRepository.findById("auth0|1"))
+                .thenReturn(Optional.of(new User("auth0|1", "User One", "one@example.com")));
+
+        // A cache miss resolved from a message or token without a name
+        User user = userService.resolve("auth0|1", Map.of());
+
+        assertThat(user.getName()).isEqualTo("User One");
+        assertThat(user.getEmail()).isEqualTo("one@example.com");
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    public void testConcurrentInsertKeepsExistingRow() {
+        User winner = new User("auth0|1", "User One", "one@example.com");
+        when(userRepository.findById("auth0|1")).thenReturn(Optional.empty(), Optional.of(winner));
+        doThrow(new PersistenceException("duplicate")).when(entityManager).flush();
+
+        User user = userService.resolve("auth0|1", Map.of("name", "User One", "email", "one@example.com"));
+
+        assertThat(user.getId()).isEqualTo("auth0|1");
+        assertThat(userService.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        when(userRepository.findById(any())).thenReturn(Optional.empty());
+
+        userService.upsert("a", "A", "a@example.com");
+        userService.upsert("b", "B", "b@example.com");
+        userService.upsert("c", "C", "c@example.com");
+
+        assertThat(userService.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,146 @@
+package com.titus.developer.jugtours;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.WaitlistEntry;
+import com.titus.developer.jugtours.service.UserService;
+import com.titus.developer.jugtours.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A small head cache so promotions keep refilling it from the table
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "rsvp.waitlist.head-cache-size=8"
+})
+@ActiveProfiles("test")
+public class WaitlistServiceTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long eventId;
+
+    @BeforeEach
+    public void setup() {
+        Group group = groupRepository.save(new Group("Waitlist JUG " + System.nanoTime()));
+        Event event = new Event();
+        event.setTitle("Sold out talk");
+        event.setDate(Instant.now());
+        event.setGroup(group);
+        eventId = eventRepository.save(event).getId();
+    }
+
+    @Test
+    public void testPromotesInJoinOrder() {
+        waitlistService.enqueue(waitlisted(0, 20));
+        // Duplicates keep their original place
+        assertThat(waitlistService.enqueue(waitlisted(0, 5))).isZero();
+        assertThat(waitlistService.size(eventId)).isEqualTo(20);
+        assertThat(waitlistService.position(eventId, "user-3")).contains(4L);
+
+        List<String> promoted = new ArrayList<>();
+        Optional<WaitlistEntry> next;
+        while ((next = waitlistService.promoteNext(eventId)).isPresent()) {
+            promoted.add(next.get().getUserId());
+        }
+
+        assertThat(promoted).containsExactlyElementsOf(
+                waitlisted(0, 20).stream().map(RsvpMessage::getUserId).collect(Collectors.toList()));
+        assertThat(waitlistService.size(eventId)).isZero();
+    }
+
+    @Test
+    public void testConcurrentCancellationsPromoteEachUserOnce() throws Exception {
+        int waiting = 200;
+        waitlistService.enqueue(waitlisted(0, waiting));
+
+        ConcurrentLinkedQueue<String> promoted = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> cancellations = new ArrayList<>();
+        // More cancellations than waiting users: the surplus must find an empty waitlist
+        for (int i = 0; i < waiting + 50; i++) {
+            cancellations.add(pool.submit(() -> waitlistService.promoteNext(eventId)
+                    .ifPresent(entry -> promoted.add(entry.getUserId()))));
+        }
+        for (Future<?> cancellation : cancellations) {
+            cancellation.get();
+        }
+        pool.shutdown();
+
+        assertThat(promoted).hasSize(waiting).doesNotHaveDuplicates();
+        assertThat(waitlistService.size(eventId)).isZero();
+
+        // Each promotion seats its user in the promoting transaction
+        assertThat(eventRepository.findAllAttendeesById(eventId)).hasSize(waiting);
+    }
+
+    @Test
+    public void testLeavingWaitlistKeepsOthersInOrder() {
+        waitlistService.enqueue(waitlisted(0, 3));
+
+        List<RsvpMessage> remaining = waitlistService.removeWaitlisted(List.of(
+                new RsvpMessage(eventId, "user-0", null, null, RsvpMessage.CANCELLED),
+                new RsvpMessage(eventId, "not-waiting", null, null, RsvpMessage.CANCELLED)));
+
+        assertThat(remaining).extracting(RsvpMessage::getUserId).containsExactly("not-waiting");
+        assertThat(waitlistService.promoteNext(eventId)).get()
+                .extracting(WaitlistEntry::getUserId).isEqualTo("user-1");
+        assertThat(waitlistService.position(eventId, "user-2")).contains(1L);
+    }
+
+    @Test
+    public void testUserWhoJoinedDirectlyIsSkipped() {
+        waitlistService.enqueue(waitlisted(0, 3));
+        // user-0 gets a seat without going through the waitlist
+        userService.upsert("user-0", "User 0", "user0@example.com");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Event event = eventRepository.findWithAttendeesById(eventId).orElseThrow();
+            event.addAttendee(userService.reference("user-0"));
+        });
+        long promotedBefore = waitlistService.getPromotedTotal();
+
+        assertThat(waitlistService.promoteNext(eventId)).get()
+                .extracting(WaitlistEntry::getUserId).isEqualTo("user-1");
+        assertThat(waitlistService.getPromotedTotal()).isEqualTo(promotedBefore + 1);
+        assertThat(waitlistService.position(eventId, "user-0")).isEmpty();
+        assertThat(waitlistService.position(eventId, "user-2")).contains(1L);
+    }
+
+    private List<RsvpMessage> waitlisted(int from, int to) {
+        List<RsvpMessage> messages = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            messages.add(new RsvpMessage(eventId, "user-" + i, "User " + i, "user" + i + "@example.com",
+                    RsvpMessage.WAITLIST));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,158 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Call;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.DatasetSize;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Report;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Scenario;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire and latency of the two listings the home screen scrolls
+ * through, /api/events/available (events with their group and attendees
+ * embedded) and /api/groups/available/paginated, each requested with and
+ * without Accept-Encoding: gzip, over HTTP/1.1 and then over h2c.
+ *
+ * The gzip level is http.compression.level; compare levels by running it
+ * again with e.g. -Dhttp.compression.level=1 or 9. Results are printed and
+ * written to target/loadtest/CompressionBenchmark-level&lt;n&gt;.json.
+ *
+ * Tunable with -Dloadtest.rate (arrival-rate multiplier, default 1) and
+ * -Dloadtest.duration (seconds per protocol, default 20).
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=CompressionBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "logging.level.com.titus.developer.jugtours=WARN",
+        "jdbc.query-counting.enabled=false"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CompressionBenchmark {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "1"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 20));
+    private static final long SEED = 42;
+
+    private static final int GROUPS = 40;
+    private static final int USERS = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final int GROUP_PAGE_SIZE = 12;
+
+    @LocalServerPort
+    private int port;
+    @Value("${http.compression.level}")
+    private int level;
+
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private ApplicationContext context;
+
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        LoadTestHarness.seed(context, "Compression", new DatasetSize(USERS, GROUPS, 30), SEED);
+        token = jwtService.generateToken(Map.of("sub", "compression|user", "name", "Compression User",
+                "email", "compression-user@example.com", "picture", ""));
+    }
+
+    @Test
+    void run() throws Exception {
+        assertThat(protocolOf(HttpClient.Version.HTTP_2)).as("h2c upgrade").isEqualTo(HttpClient.Version.HTTP_2);
+
+        List<HttpClient.Version> versions = List.of(HttpClient.Version.HTTP_1_1, HttpClient.Version.HTTP_2);
+        // Warm up the JIT, pools and caches on both protocols first, so neither runs cold
+        for (HttpClient.Version version : versions) {
+            new LoadTestHarness(Duration.ofSeconds(5), SEED, version).run(scenarios(), Duration.ofSeconds(10));
+        }
+
+        Map<String, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (HttpClient.Version version : versions) {
+            Report report = new LoadTestHarness(Duration.ofSeconds(5), SEED, version).run(scenarios(), DURATION);
+
+            String protocol = version == HttpClient.Version.HTTP_2 ? "h2c" : "http/1.1";
+            System.out.println("Protocol: " + protocol + ", gzip level " + level);
+            System.out.println(report.table());
+            results.put(protocol, report.endpoints());
+
+            for (String endpoint : List.of("GET /api/events/available", "GET /api/groups/available/paginated")) {
+                assertThat(meanBodyBytes(report, endpoint + " [gzip]"))
+                        .as(endpoint + " over " + protocol)
+                        .isLessThan(meanBodyBytes(report, endpoint + " [identity]") / 3);
+            }
+        }
+
+        Path file = Path.of("target/loadtest/CompressionBenchmark-level" + level + ".json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+    }
+
+    private List<Scenario> scenarios() {
+        int eventPages = (GROUPS * LoadTestHarness.EVENTS_PER_GROUP) / PAGE_SIZE;
+        int groupPages = GROUPS / GROUP_PAGE_SIZE;
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String encoding : List.of("identity", "gzip")) {
+            scenarios.add(new Scenario("events " + encoding, 5 * RATE, random -> List.of(
+                    get("GET /api/events/available [" + encoding + "]", "/api/events/available?page="
+                            + random.nextInt(eventPages) + "&size=" + PAGE_SIZE, encoding))));
+            scenarios.add(new Scenario("groups " + encoding, 5 * RATE, random -> List.of(
+                    get("GET /api/groups/available/paginated [" + encoding + "]", "/api/groups/available/paginated?page="
+                            + random.nextInt(groupPages) + "&size=" + GROUP_PAGE_SIZE, encoding))));
+        }
+        return scenarios;
+    }
+
+    private Call get(String endpoint, String path, String encoding) {
+        return new Call(endpoint, request(path, encoding).GET().build());
+    }
+
+    private HttpRequest.Builder request(String path, String encoding) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", encoding);
+    }
+
+    private HttpClient.Version protocolOf(HttpClient.Version version) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        return client.send(request("/api/events/available?page=0&size=1", "identity").build(),
+                HttpResponse.BodyHandlers.discarding()).version();
+    }
+
+    private static double meanBodyBytes(Report report, String endpoint) {
+        return report.endpoints().stream()
+                .filter(e -> e.get("endpoint").equals(endpoint))
+                .mapToDouble(e -> (double) e.get("meanBodyBytes"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.service.ImageService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership checks the controllers run on every join, at realistic set
+ * sizes, and the image URL generation done for every new group, event and
+ * user. The looked-up user is absent, which is the worst case for the
+ * by-id scans and the common case on join.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=DomainHotPathBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainHotPathBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int members;
+
+    private Event event;
+    private Group group;
+    private User outsider;
+    private ImageService imageService;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        event = EventViewBenchmark.event(1, members);
+        group = new Group("Toronto JUG");
+        group.getUsers().addAll(event.getAttendees());
+        outsider = new User("auth0|outsider", "Outsider", "outsider@example.com");
+        imageService = new ImageService();
+    }
+
+    @Benchmark
+    public boolean eventHasAttendeeById() {
+        return event.hasAttendee(outsider.getId());
+    }
+
+    @Benchmark
+    public boolean eventHasAttendee() {
+        return event.hasAttendee(outsider);
+    }
+
+    @Benchmark
+    public boolean groupHasUserById() {
+        return group.hasUser(outsider.getId());
+    }
+
+    @Benchmark
+    public boolean groupHasUser() {
+        return group.hasUser(outsider);
+    }
+
+    @Benchmark
+    public String imageUrl() {
+        return imageService.generateRandomImageUrl(++seed);
+    }
+
+    @Benchmark
+    public String profilePictureUrl() {
+        return imageService.generateRandomProfilePictureUrl(outsider.getId());
+    }
+
+    @Test
+    void run() throws Exception {
+        JmhRunner.run(DomainHotPathBenchmark.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.web.EventViews;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning events into the JSON the frontend receives:
+ * <ul>
+ * <li>{@code view} - EventViews.of for one event</li>
+ * <li>{@code serializeEvent} - view plus Jackson, as GET /api/events/{id}</li>
+ * <li>{@code serializePage} - a 20-event page, as GET /api/events/available</li>
+ * </ul>
+ * at different attendee counts per event.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=EventViewBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventViewBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "100", "1000"})
+    public int attendees;
+
+    // Configured like the one Spring MVC uses
+    private ObjectMapper objectMapper;
+    private Event event;
+    private List<Event> page;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(event(i, attendees));
+        }
+        event = page.get(0);
+    }
+
+    @Benchmark
+    public Map<String, Object> view() {
+        return EventViews.of(event);
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() throws Exception {
+        return objectMapper.writeValueAsBytes(EventViews.of(event));
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        List<Map<String, Object>> content = new ArrayList<>(page.size());
+        for (Event e : page) {
+            content.add(EventViews.of(e));
+        }
+        return objectMapper.writeValueAsBytes(Map.of("content", content, "page", 0, "size", PAGE_SIZE));
+    }
+
+    @Test
+    void run() throws Exception {
+        JmhRunner.run(EventViewBenchmark.class);
+    }
+
+    static Event event(long id, int attendeeCount) {
+        Group group = new Group("Toronto JUG");
+        group.setId(id % 100);
+        group.setAddress("100 Queen St W");
+        group.setCity("Toronto");
+        group.setStateOrProvince("ON");
+        group.setCountry("Canada");
+        group.setPostalCode("M5H 2N2");
+        group.setImageUrl("https://picsum.photos/300/200?random=" + id);
+
+        Set<User> users = new HashSet<>();
+        for (int i = 0; i < attendeeCount; i++) {
+            User user = new User("auth0|user-" + i, "User " + i, "user" + i + "@example.com");
+            user.setProfilePictureUrl("https://picsum.photos/150/150?random=" + i);
+            users.add(user);
+        }
+
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle("Spring Boot meetup #" + id);
+        event.setDescription("Talks, pizza and a lot of questions about virtual threads");
+        event.setDate(Instant.parse("2026-01-01T18:00:00Z").plus(id, ChronoUnit.DAYS));
+        event.setGroup(group);
+        event.setAttendees(users);
+        return event;
+    }
+}
@@ -0,0 +1,203 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Call;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Dataset;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.DatasetSize;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Report;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Scenario;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Slo;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the real HTTP stack with the traffic the React app generates:
+ * <ul>
+ * <li>{@code home} - useHomeData's parallel fetches on page load</li>
+ * <li>{@code scroll} - useInfiniteScroll / useInfiniteGroups loading later pages</li>
+ * <li>{@code calendar} - useCalendarDates plus the day view it leads to</li>
+ * <li>{@code rsvp} - join/leave bursts on a few hot events, each followed by
+ * the event refresh EventDetails does</li>
+ * </ul>
+ * against a seeded dataset, authenticated with real bearer tokens. Per-endpoint
+ * latency percentiles and error rates are printed and written to
+ * target/loadtest/HttpLoadTest.json; the test fails if an SLO is missed.
+ *
+ * Tunable with -Dloadtest.scale (dataset size, default 1), -Dloadtest.rate
+ * (arrival-rate multiplier, default 1), -Dloadtest.duration (seconds, default
+ * 20), -Dloadtest.seed and -Dloadtest.slo.p99-ms (default 1000).
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=HttpLoadTest
+ *
+ * To compare thread modes, run it twice on Java 21, with and without
+ * -Dspring.threads.virtual.enabled=true; the reports land in
+ * HttpLoadTest-platform.json and HttpLoadTest-virtual.json.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "logging.level.com.titus.developer.jugtours=WARN",
+        "jdbc.query-counting.enabled=false"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HttpLoadTest {
+
+    private static final int SCALE = Integer.getInteger("loadtest.scale", 1);
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "1"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 20));
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final double P99_MILLIS = Double.parseDouble(System.getProperty("loadtest.slo.p99-ms", "1000"));
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private static final int GROUPS = 20 * SCALE;
+    private static final int USERS = 1000 * SCALE;
+    private static final int HOT_EVENTS = 5;
+    private static final int PAGE_SIZE = 20;
+    private static final int GROUP_PAGE_SIZE = 12;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private Environment environment;
+
+    private final List<String> tokens = new ArrayList<>();
+    private List<Long> eventIds;
+    private long totalEvents;
+    private long totalGroups;
+    private LocalDate firstDay;
+
+    @BeforeAll
+    void seed() {
+        Dataset dataset = LoadTestHarness.seed(context, "Load", new DatasetSize(USERS, GROUPS, 50), SEED);
+        for (User user : dataset.users()) {
+            tokens.add(jwtService.generateToken(Map.of(
+                    "sub", user.getId(), "name", user.getName(), "email", user.getEmail(), "picture", "")));
+        }
+        eventIds = dataset.eventIds();
+        firstDay = dataset.firstDay();
+        totalEvents = eventRepository.count();
+        totalGroups = groupRepository.count();
+    }
+
+    @Test
+    void run() throws Exception {
+        LoadTestHarness harness = new LoadTestHarness(Duration.ofSeconds(5), SEED);
+        List<Scenario> scenarios = scenarios();
+
+        // Warm up the JIT, pools and caches, then measure from scratch
+        harness.run(scenarios, Duration.ofSeconds(5));
+        Report report = harness.run(scenarios, DURATION);
+
+        String threadMode = Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform";
+        System.out.println("Thread mode: " + threadMode);
+        System.out.println(report.table());
+        report.writeJson(Path.of("target/loadtest/HttpLoadTest-" + threadMode + ".json"));
+
+        List<Slo> slos = report.endpoints().stream()
+                .map(e -> new Slo((String) e.get("endpoint"), P99_MILLIS, MAX_ERROR_RATE))
+                .toList();
+        assertThat(report.endpoints()).hasSizeGreaterThanOrEqualTo(9);
+        assertThat(report.violations(slos)).isEmpty();
+    }
+
+    private List<Scenario> scenarios() {
+        int eventPages = (int) Math.max(1, totalEvents / PAGE_SIZE);
+        int groupPages = (int) Math.max(1, totalGroups / GROUP_PAGE_SIZE);
+
+        Scenario home = new Scenario("home", 10 * RATE, random -> {
+            String token = token(random);
+            return List.of(
+                    get("GET /api/groups", "/api/groups", token),
+                    get("GET /api/events", "/api/events", token),
+                    get("GET /api/events/available", "/api/events/available?page=0&size=" + PAGE_SIZE, token));
+        });
+
+        Scenario scroll = new Scenario("scroll", 20 * RATE, random -> {
+            String token = token(random);
+            if (random.nextBoolean()) {
+                return List.of(get("GET /api/events/available", "/api/events/available?page="
+                        + (1 + random.nextInt(eventPages)) + "&size=" + PAGE_SIZE, token));
+            }
+            return List.of(get("GET /api/groups/available/paginated", "/api/groups/available/paginated?page="
+                    + random.nextInt(groupPages) + "&size=" + GROUP_PAGE_SIZE, token));
+        });
+
+        Scenario calendar = new Scenario("calendar", 5 * RATE, random -> {
+            String token = token(random);
+            return List.of(
+                    get("GET /api/events/calendar-dates", "/api/events/calendar-dates", token),
+                    get("GET /api/events/available?date", "/api/events/available?page=0&size=" + PAGE_SIZE
+                            + "&date=" + firstDay.plusDays(random.nextInt(90)), token));
+        });
+
+        // Each user toggles their own RSVP, so leaves mostly hit an actual attendance
+        Set<String> attending = new HashSet<>();
+        Scenario rsvp = new Scenario("rsvp", 40 * RATE, random -> {
+            int user = random.nextInt(tokens.size());
+            String token = tokens.get(user);
+            long eventId = eventIds.get(random.nextInt(HOT_EVENTS));
+            String path = "/api/events/" + eventId + "/attendees";
+            String rsvpKey = user + ":" + eventId;
+            boolean join = attending.add(rsvpKey);
+            if (!join) {
+                attending.remove(rsvpKey);
+            }
+            Call change = join
+                    ? new Call("POST /api/events/{id}/attendees", request(path, token).POST(HttpRequest.BodyPublishers.noBody()).build())
+                    : new Call("DELETE /api/events/{id}/attendees", request(path, token).DELETE().build());
+            return List.of(change, get("GET /api/events/{id}", "/api/events/" + eventId, token));
+        });
+
+        return List.of(home, scroll, calendar, rsvp);
+    }
+
+    private String token(Random random) {
+        return tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private Call get(String endpoint, String path, String token) {
+        return new Call(endpoint, request(path, token).GET().build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json");
+    }
+}
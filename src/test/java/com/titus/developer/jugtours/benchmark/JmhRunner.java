@@ -0,0 +1,32 @@
+package com.titus.developer.jugtours.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Runs one JMH benchmark class from its JUnit launcher and writes the results
+ * as JSON to target/jmh/&lt;SimpleName&gt;.json, one file per class at a stable
+ * path so runs on two commits can be diffed or fed to a JMH visualizer.
+ */
+final class JmhRunner {
+
+    static final String RESULTS_DIR = "target/jmh";
+
+    private JmhRunner() {
+    }
+
+    static Collection<RunResult> run(Class<?> benchmark) throws RunnerException {
+        new File(RESULTS_DIR).mkdirs();
+        return new Runner(new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULTS_DIR + "/" + benchmark.getSimpleName() + ".json")
+                .build()).run();
+    }
+}
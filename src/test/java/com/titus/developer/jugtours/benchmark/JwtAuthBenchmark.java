@@ -0,0 +1,135 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.model.RevokedToken;
+import com.titus.developer.jugtours.model.RevokedTokenRepository;
+import com.titus.developer.jugtours.service.JwtService;
+import com.titus.developer.jugtours.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request cost of authenticating a bearer token:
+ * <ul>
+ * <li>{@code legacy} - what JwtAuthenticationFilter used to do: rebuild the key
+ * and parser, then parse and verify the token three times</li>
+ * <li>{@code singleParse} - cached key and parser, one verification, no cache</li>
+ * <li>{@code cachedVerify} - repeat token served from the verified-token cache</li>
+ * <li>{@code cachedVerifyWithRevocationCheck} - the filter's full path: cached
+ * verify plus the revocation check, with 100k other tokens revoked</li>
+ * </ul>
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=JwtAuthBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private JwtService uncached;
+    private JwtService cached;
+    private TokenRevocationService revocationService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        uncached = jwtService(0);
+        cached = jwtService(10_000);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("sub", "auth0|benchmark-user");
+        attributes.put("name", "Benchmark User");
+        attributes.put("email", "benchmark@example.com");
+        attributes.put("picture", "https://example.com/avatar.png");
+        token = cached.generateToken(new DefaultOAuth2User(List.of(), attributes, "sub"));
+
+        List<RevokedToken> revoked = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            revoked.add(new RevokedToken(UUID.randomUUID().toString(), Instant.now().plusSeconds(3600), Instant.now()));
+        }
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.findByExpiresAtAfter(any())).thenReturn(revoked);
+        revocationService = new TokenRevocationService(repository);
+        ReflectionTestUtils.setField(revocationService, "expectedRevocations", 100_000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationService, "syncInterval", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(revocationService, "init");
+    }
+
+    @Benchmark
+    public Claims legacy() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        Claims claims = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload();
+        if (claims.getExpiration().before(new Date())) {
+            return null;
+        }
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return uncached.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims cachedVerify() {
+        return cached.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    public boolean cachedVerifyWithRevocationCheck() {
+        Claims claims = cached.verify(token).orElseThrow();
+        return revocationService.isRevoked(claims.getId());
+    }
+
+    @Test
+    void run() throws Exception {
+        JmhRunner.run(JwtAuthBenchmark.class);
+    }
+
+    private static JwtService jwtService(int cacheSize) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "verifiedCacheSize", cacheSize);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
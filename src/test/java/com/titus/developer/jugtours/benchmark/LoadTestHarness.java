@@ -0,0 +1,312 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.model.User;
+import com.titus.developer.jugtours.model.UserRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Open-model HTTP load generator.
+ *
+ * Each scenario fires requests at a fixed arrival rate whether or not earlier
+ * ones have completed, like independent users would, and latency is measured
+ * from when a request was due to be sent rather than when it actually was.
+ * A stalled server therefore shows up as queueing in the percentiles instead
+ * of quietly lowering the offered load (coordinated omission).
+ *
+ * Scenarios draw from their own seeded Random, so the same seed produces the
+ * same request sequence run to run; {@link #seed} does the same for the data
+ * they run against.
+ */
+final class LoadTestHarness {
+
+    /** One request, tagged with the endpoint template its stats are grouped under. */
+    record Call(String endpoint, HttpRequest request) {
+    }
+
+    /** Calls returned together are sent at once, like a page's parallel fetches. */
+    record Scenario(String name, double ratePerSecond, Function<Random, List<Call>> next) {
+    }
+
+    /** Service-level objective for one endpoint; 4xx responses don't count as errors. */
+    record Slo(String endpoint, double p99Millis, double maxErrorRate) {
+    }
+
+    /** Size of a dataset; each group has EVENTS_PER_GROUP events over the next 90 days. */
+    record DatasetSize(int users, int groups, int membersPerGroup) {
+    }
+
+    /** The seeded users, and event ids in insertion order, starting on firstDay. */
+    record Dataset(List<User> users, List<Long> eventIds, LocalDate firstDay) {
+    }
+
+    static final int EVENTS_PER_GROUP = 25;
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final long seed;
+
+    LoadTestHarness(Duration requestTimeout, long seed) {
+        this(requestTimeout, seed, HttpClient.Version.HTTP_1_1);
+    }
+
+    /** With HTTP_2 on http:// URLs the client upgrades each connection to h2c. */
+    LoadTestHarness(Duration requestTimeout, long seed, HttpClient.Version version) {
+        this.client = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(requestTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.seed = seed;
+    }
+
+    /**
+     * Stores users, groups with random members, and upcoming events with up to
+     * 30 random attendees each, the same for the same seed. Names start with
+     * label ("Load JUG 3", "Load User 7") and ids with its lower case
+     * ("load|user-7"), so benchmarks sharing a context's database don't clash.
+     */
+    static Dataset seed(ApplicationContext context, String label, DatasetSize size, long seed) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        GroupRepository groupRepository = context.getBean(GroupRepository.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        String prefix = label.toLowerCase();
+        Random random = new Random(seed);
+        Instant start = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS);
+        List<Long> eventIds = new ArrayList<>();
+
+        // One transaction, so groups can reference the managed users
+        List<User> users = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            List<User> created = new ArrayList<>(size.users());
+            for (int i = 0; i < size.users(); i++) {
+                User user = new User(prefix + "|user-" + i, label + " User " + i, prefix + "-user-" + i + "@example.com");
+                user.setProfilePictureUrl("https://picsum.photos/150/150?random=" + i);
+                created.add(user);
+            }
+            created = userRepository.saveAll(created);
+
+            for (int g = 0; g < size.groups(); g++) {
+                Group group = new Group(label + " JUG " + g);
+                group.setCity("City " + g);
+                group.setCountry("USA");
+                group.setImageUrl("https://picsum.photos/300/200?random=" + g);
+                for (int m = 0; m < size.membersPerGroup(); m++) {
+                    group.addUser(created.get(random.nextInt(size.users())));
+                }
+                group = groupRepository.save(group);
+
+                List<Event> events = new ArrayList<>(EVENTS_PER_GROUP);
+                for (int e = 0; e < EVENTS_PER_GROUP; e++) {
+                    Set<User> attendees = new HashSet<>();
+                    for (int a = random.nextInt(30); a > 0; a--) {
+                        attendees.add(created.get(random.nextInt(size.users())));
+                    }
+                    Event event = new Event();
+                    event.setTitle(label + " JUG " + g + " meetup " + e);
+                    event.setDescription("Talks, pizza and hallway track at the " + label + " JUG, meetup " + e);
+                    event.setDate(start.plus(random.nextInt(90), ChronoUnit.DAYS).plus(18, ChronoUnit.HOURS));
+                    event.setGroup(group);
+                    event.setAttendees(attendees);
+                    events.add(event);
+                }
+                eventRepository.saveAll(events).forEach(event -> eventIds.add(event.getId()));
+            }
+            return created;
+        });
+        return new Dataset(users, eventIds, LocalDate.ofInstant(start, ZoneOffset.UTC));
+    }
+
+    Report run(List<Scenario> scenarios, Duration duration) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(scenarios.size());
+        long start = System.nanoTime();
+
+        for (Scenario scenario : scenarios) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.ratePerSecond());
+            Random random = new Random(seed ^ scenario.name().hashCode());
+            AtomicLong sequence = new AtomicLong();
+            // Executions of one task never overlap, so the scenario's Random needs no locking
+            ticker.scheduleAtFixedRate(() -> {
+                long due = start + sequence.getAndIncrement() * interval;
+                for (Call call : scenario.next().apply(random)) {
+                    send(call, due, stats, inFlight);
+                }
+            }, 0, interval, TimeUnit.NANOSECONDS);
+        }
+
+        Thread.sleep(duration.toMillis());
+        ticker.shutdownNow();
+        long elapsed = System.nanoTime() - start;
+
+        // Let stragglers finish; anything slower than the timeout is already recorded as an error
+        long deadline = System.nanoTime() + requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return new Report(new TreeMap<>(stats), elapsed);
+    }
+
+    private void send(Call call, long due, Map<String, EndpointStats> stats, AtomicInteger inFlight) {
+        HttpRequest request = HttpRequest.newBuilder(call.request(), (name, value) -> true)
+                .timeout(requestTimeout)
+                .build();
+        inFlight.incrementAndGet();
+        // Bodies are counted as received: the client doesn't decode Content-Encoding
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    stats.computeIfAbsent(call.endpoint(), EndpointStats::new).record(System.nanoTime() - due,
+                            response != null ? response.statusCode() : -1,
+                            response != null ? response.body().length : 0);
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    static final class EndpointStats {
+        private final String endpoint;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int ok;
+        private int rejected;
+        private int errors;
+        private long bodyBytes;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void record(long latencyNanos, int status, int bytes) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status >= 200 && status < 400) {
+                ok++;
+                bodyBytes += bytes;
+            } else if (status >= 400 && status < 500) {
+                rejected++;
+            } else {
+                errors++;
+            }
+        }
+
+        synchronized Map<String, Object> summary(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("endpoint", endpoint);
+            summary.put("requests", count);
+            summary.put("throughput", count / (elapsedNanos / 1e9));
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p90Millis", percentile(sorted, 0.90));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("maxMillis", percentile(sorted, 1.0));
+            summary.put("meanBodyBytes", ok == 0 ? 0 : (double) bodyBytes / ok);
+            summary.put("okRate", rate(ok));
+            summary.put("rejectedRate", rate(rejected));
+            summary.put("errorRate", rate(errors));
+            return summary;
+        }
+
+        private double rate(int n) {
+            return count == 0 ? 0 : (double) n / count;
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    static final class Report {
+        private final List<Map<String, Object>> endpoints = new ArrayList<>();
+
+        Report(Map<String, EndpointStats> stats, long elapsedNanos) {
+            stats.values().forEach(s -> endpoints.add(s.summary(elapsedNanos)));
+        }
+
+        List<Map<String, Object>> endpoints() {
+            return endpoints;
+        }
+
+        /** @return one line per violated SLO, empty if all are met */
+        List<String> violations(List<Slo> slos) {
+            List<String> violations = new ArrayList<>();
+            for (Slo slo : slos) {
+                Map<String, Object> summary = endpoints.stream()
+                        .filter(e -> e.get("endpoint").equals(slo.endpoint()))
+                        .findFirst()
+                        .orElse(null);
+                if (summary == null) {
+                    violations.add(slo.endpoint() + ": no requests recorded");
+                    continue;
+                }
+                double p99 = (double) summary.get("p99Millis");
+                double errorRate = (double) summary.get("errorRate");
+                if (p99 > slo.p99Millis()) {
+                    violations.add(String.format("%s: p99 %.1fms > %.1fms", slo.endpoint(), p99, slo.p99Millis()));
+                }
+                if (errorRate > slo.maxErrorRate()) {
+                    violations.add(String.format("%s: error rate %.4f > %.4f",
+                            slo.endpoint(), errorRate, slo.maxErrorRate()));
+                }
+            }
+            return violations;
+        }
+
+        String table() {
+            StringBuilder table = new StringBuilder(String.format("%-45s %8s %9s %9s %9s %9s %9s %10s %8s %8s%n",
+                    "Endpoint", "Requests", "Req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "body B", "4xx", "errors"));
+            for (Map<String, Object> e : endpoints) {
+                table.append(String.format("%-45s %8d %9.1f %9.1f %9.1f %9.1f %9.1f %10.0f %7.2f%% %7.2f%%%n",
+                        e.get("endpoint"), e.get("requests"), e.get("throughput"),
+                        e.get("p50Millis"), e.get("p90Millis"), e.get("p99Millis"), e.get("maxMillis"),
+                        e.get("meanBodyBytes"), 100 * (double) e.get("rejectedRate"), 100 * (double) e.get("errorRate")));
+            }
+            return table.toString();
+        }
+
+        void writeJson(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), endpoints);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Call;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.DatasetSize;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Report;
+import com.titus.developer.jugtours.benchmark.LoadTestHarness.Scenario;
+import com.titus.developer.jugtours.config.ReactiveApiServer;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The browse endpoints on the MVC controllers (Tomcat and JDBC) against the
+ * same endpoints on the reactive API (Netty and R2DBC), both running in this
+ * JVM on the same data and the same offered load: event listings, search,
+ * calendar dates and group listings.
+ *
+ * Besides the usual latency table, each run reports process CPU time per
+ * request and the peak number of live threads. CPU time includes the load
+ * generator, which does the same work for both stacks, so compare the two
+ * rather than reading either as absolute.
+ *
+ * Tunable with -Dloadtest.rate (arrival-rate multiplier, default 1; raise it to
+ * compare at higher concurrency) and -Dloadtest.duration (seconds per stack,
+ * default 20). Results are printed and written to
+ * target/loadtest/ReactiveReadBenchmark.json.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=ReactiveReadBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+        "logging.level.com.titus.developer.jugtours=WARN",
+        "jdbc.query-counting.enabled=false",
+        "reactive.enabled=true",
+        "reactive.server.port=0"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveReadBenchmark {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "1"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.duration", 20));
+    private static final long SEED = 42;
+
+    private static final int GROUPS = 40;
+    private static final int USERS = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final int GROUP_PAGE_SIZE = 12;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private ApplicationContext context;
+
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        LoadTestHarness.seed(context, "Reactive", new DatasetSize(USERS, GROUPS, 30), SEED);
+        token = jwtService.generateToken(Map.of("sub", "reactive|user", "name", "Reactive User",
+                "email", "reactive-user@example.com", "picture", ""));
+    }
+
+    @Test
+    void run() throws Exception {
+        Map<String, Integer> stacks = new LinkedHashMap<>();
+        stacks.put("mvc", port);
+        stacks.put("reactive", reactiveApiServer.getPort());
+
+        // Warm up the JIT and both connection pools first, so neither stack runs cold
+        for (int stackPort : stacks.values()) {
+            new LoadTestHarness(Duration.ofSeconds(5), SEED).run(scenarios(stackPort), Duration.ofSeconds(10));
+        }
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> stack : stacks.entrySet()) {
+            threads.resetPeakThreadCount();
+            long cpuBefore = os.getProcessCpuTime();
+            Report report = new LoadTestHarness(Duration.ofSeconds(5), SEED).run(scenarios(stack.getValue()), DURATION);
+            long cpuNanos = os.getProcessCpuTime() - cpuBefore;
+
+            long requests = report.endpoints().stream().mapToLong(e -> ((Number) e.get("requests")).longValue()).sum();
+            double cpuMillisPerRequest = cpuNanos / 1e6 / Math.max(requests, 1);
+            System.out.println("Stack: " + stack.getKey());
+            System.out.println(report.table());
+            System.out.printf("CPU %.2f ms/request, peak %d live threads%n%n", cpuMillisPerRequest,
+                    threads.getPeakThreadCount());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cpuMillisPerRequest", cpuMillisPerRequest);
+            result.put("peakThreads", threads.getPeakThreadCount());
+            result.put("endpoints", report.endpoints());
+            results.put(stack.getKey(), result);
+
+            for (Map<String, Object> endpoint : report.endpoints()) {
+                assertThat((double) endpoint.get("errorRate")).as(stack.getKey() + " " + endpoint.get("endpoint"))
+                        .isLessThan(0.01);
+            }
+        }
+
+        Path file = Path.of("target/loadtest/ReactiveReadBenchmark.json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+    }
+
+    // Paths are the same on both stacks; the reactive listings send their total as X-Total-Count
+    private List<Scenario> scenarios(int stackPort) {
+        int eventPages = (GROUPS * LoadTestHarness.EVENTS_PER_GROUP) / PAGE_SIZE;
+        int groupPages = GROUPS / GROUP_PAGE_SIZE;
+        return List.of(
+                new Scenario("events", 10 * RATE, random -> List.of(get(stackPort, "GET /api/events/available",
+                        "/api/events/available?page=" + random.nextInt(eventPages) + "&size=" + PAGE_SIZE))),
+                new Scenario("search", 5 * RATE, random -> List.of(get(stackPort, "GET /api/events/search",
+                        "/api/events/search?q=jug%20" + random.nextInt(GROUPS) + "%20meetup&size=" + PAGE_SIZE))),
+                new Scenario("calendar", 2 * RATE, random -> List.of(get(stackPort, "GET /api/events/calendar-dates",
+                        "/api/events/calendar-dates"))),
+                new Scenario("groups", 5 * RATE, random -> List.of(get(stackPort, "GET /api/groups/available/paginated",
+                        "/api/groups/available/paginated?page=" + random.nextInt(groupPages)
+                                + "&size=" + GROUP_PAGE_SIZE))));
+    }
+
+    private Call get(int stackPort, String endpoint, String path) {
+        return new Call(endpoint, HttpRequest.newBuilder(URI.create("http://localhost:" + stackPort + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .GET()
+                .build());
+    }
+}
@@ -0,0 +1,116 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.JugtoursApplication;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.web.EventViews;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The queries behind the main read endpoints, against H2 seeded by the app's
+ * own Initializer. Each runs in a read-only transaction and maps its result
+ * the way the controller does, so lazy loading is paid for as in production.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=RepositoryQueryBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryQueryBenchmark {
+
+    // john-smith-123 is seeded as a member of every group and attendee of every event
+    private static final String SEEDED_USER = "john-smith-123";
+
+    private ConfigurableApplicationContext context;
+    private EventRepository eventRepository;
+    private GroupRepository groupRepository;
+    private TransactionTemplate readOnly;
+    private Long eventId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(JugtoursApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("test")
+                // As arguments, so they override application-test.properties like @SpringBootTest properties do
+                .run("--server.port=0",
+                        "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration",
+                        "--logging.level.root=WARN",
+                        "--jdbc.query-counting.enabled=false");
+        eventRepository = context.getBean(EventRepository.class);
+        groupRepository = context.getBean(GroupRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        eventId = eventRepository.findAll(PageRequest.of(0, 1)).getContent().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> availableEventsPage() {
+        return readOnly.execute(status -> eventRepository
+                .findAllWithGroupAndAttendees(PageRequest.of(0, 20)).getContent().stream()
+                .map(EventViews::of)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public Map<String, Object> eventById() {
+        return readOnly.execute(status -> EventViews.of(eventRepository.findById(eventId).orElseThrow()));
+    }
+
+    @Benchmark
+    public long searchEvents() {
+        return readOnly.execute(status -> eventRepository
+                .findByTitleContainingIgnoreCase("java", PageRequest.of(0, 20, Sort.by("date").ascending()))
+                .getTotalElements());
+    }
+
+    @Benchmark
+    public List<Object[]> userGroupSummaries() {
+        return readOnly.execute(status -> groupRepository.findUserGroupSummaries(SEEDED_USER));
+    }
+
+    @Benchmark
+    public List<Object[]> groupSummariesPage() {
+        return readOnly.execute(status -> groupRepository
+                .findAllGroupSummariesPaginated(SEEDED_USER, PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void run() throws Exception {
+        JmhRunner.run(RepositoryQueryBenchmark.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.messaging.RsvpBatchProcessor;
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessageConsumer;
+import com.titus.developer.jugtours.messaging.RsvpRetryScheduler;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Messages/sec through RsvpMessageConsumer at different listener concurrency
+ * levels, fed by {@link StandInRsvpBroker} and reading from H2. Confirmations
+ * don't write attendees (the web tier has), so each batch costs one query.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=RsvpConsumerThroughputBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RsvpConsumerThroughputBenchmark {
+
+    private static final int EVENTS = 200;
+    private static final int MESSAGES_PER_RUN = 10_000;
+    private static final int PREFETCH = 250;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private RsvpBatchProcessor batchProcessor;
+    @Autowired
+    private RsvpRetryScheduler retryScheduler;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private EventRepository eventRepository;
+
+    private Group group;
+    private int userSequence;
+
+    @BeforeAll
+    void seed() {
+        group = groupRepository.save(new Group("Benchmark JUG"));
+    }
+
+    @Test
+    void confirmedThroughputByConcurrency() throws InterruptedException {
+        RsvpMessageConsumer consumer = new RsvpMessageConsumer(batchProcessor, retryScheduler);
+
+        // Warm up JIT and connection pool
+        run(consumer, 2, BATCH_SIZE);
+
+        System.out.println();
+        System.out.println("concurrency  batch  msgs/sec");
+        // Serial, one-message-per-delivery baseline (the old listener shape)
+        System.out.printf("%11d  %5d  %8.0f%n", 1, 1, run(consumer, 1, 1));
+        for (int concurrency : new int[] { 1, 2, 4, 8 }) {
+            System.out.printf("%11d  %5d  %8.0f%n", concurrency, BATCH_SIZE, run(consumer, concurrency, BATCH_SIZE));
+        }
+    }
+
+    private double run(RsvpMessageConsumer consumer, int concurrency, int batchSize) throws InterruptedException {
+        // Fresh events per run so every run starts from empty attendee lists
+        List<Long> eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = Event.builder()
+                    .title("Benchmark Event " + i)
+                    .date(Instant.now())
+                    .group(group)
+                    .build();
+            eventIds.add(eventRepository.save(event).getId());
+        }
+
+        StandInRsvpBroker broker = new StandInRsvpBroker();
+        for (int i = 0; i < MESSAGES_PER_RUN; i++) {
+            String userId = "bench-user-" + (userSequence++);
+            broker.publish(new RsvpMessage(eventIds.get(i % EVENTS), userId, "Bench User",
+                    userId + "@example.com", "CONFIRMED"));
+        }
+        double rate = broker.drain(consumer::handleRsvpConfirmed, concurrency, PREFETCH, batchSize);
+        assertThat(rate).isPositive();
+        return rate;
+    }
+}
@@ -0,0 +1,118 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessageProducer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confirmed messages/sec through RsvpMessageProducer against
+ * {@link StandInRsvpBroker}, by in-flight window, with 1ms per confirm round
+ * trip. Every message carries its own correlated confirm; the publisher never
+ * waits for them, so throughput is bounded by the window. The smallest windows
+ * show callers being pushed back.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=RsvpPublisherConfirmBenchmark
+ */
+@Tag("benchmark")
+class RsvpPublisherConfirmBenchmark {
+
+    private static final int PRODUCER_THREADS = 16;
+    private static final int MESSAGES = 20_000;
+    private static final long CONFIRM_LATENCY_MICROS = 1_000;
+
+    @Test
+    void confirmedThroughputByWindow() throws Exception {
+        // Warm up
+        run(10_000, 1_000);
+
+        System.out.println();
+        System.out.println("window  confirmed/sec  rejected  p50 ms  p99 ms");
+        for (int window : new int[] { 10_000, 1_000 }) {
+            print(window, run(window, 1_000));
+        }
+        for (int window : new int[] { 100, 10 }) {
+            print(window, run(window, 1));
+        }
+    }
+
+    private Result run(int maxInFlight, long offerTimeout) throws Exception {
+        StandInRsvpBroker broker = new StandInRsvpBroker();
+        RsvpMessageProducer producer = new RsvpMessageProducer(broker.confirmingTemplate(CONFIRM_LATENCY_MICROS));
+        ReflectionTestUtils.setField(producer, "maxInFlight", maxInFlight);
+        ReflectionTestUtils.setField(producer, "confirmTimeout", 5_000L);
+        ReflectionTestUtils.setField(producer, "offerTimeout", offerTimeout);
+        ReflectionTestUtils.invokeMethod(producer, "start");
+
+        long[] latencies = new long[MESSAGES];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[MESSAGES];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCER_THREADS);
+
+        long start = System.nanoTime();
+        List<Future<?>> producers = new ArrayList<>();
+        for (int t = 0; t < PRODUCER_THREADS; t++) {
+            producers.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < MESSAGES) {
+                    int index = i;
+                    long sent = System.nanoTime();
+                    futures[index] = producer.sendRsvpConfirmed(new RsvpMessage(1L, "user-" + index, "User",
+                            "user@example.com", RsvpMessage.CONFIRMED))
+                            .whenComplete((ok, error) -> latencies[index] = System.nanoTime() - sent);
+                }
+            }));
+        }
+        for (Future<?> p : producers) {
+            p.get();
+        }
+        int rejected = 0;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                rejected++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        ReflectionTestUtils.invokeMethod(producer, "stop");
+
+        int confirmed = MESSAGES - rejected;
+        assertThat(broker.size()).isEqualTo(confirmed);
+        Arrays.sort(latencies);
+        return new Result(confirmed / (elapsed / 1e9), rejected,
+                latencies[MESSAGES / 2] / 1_000_000.0, latencies[(int) (MESSAGES * 0.99)] / 1_000_000.0);
+    }
+
+    private static void print(int window, Result result) {
+        System.out.printf("%6d  %13.0f  %8d  %6.1f  %6.1f%n", window, result.rate, result.rejected,
+                result.p50Millis, result.p99Millis);
+    }
+
+    private static class Result {
+        final double rate;
+        final int rejected;
+        final double p50Millis;
+        final double p99Millis;
+
+        Result(double rate, int rejected, double p50Millis, double p99Millis) {
+            this.rate = rate;
+            this.rejected = rejected;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * In-memory stand-in for a RabbitMQ queue plus a SimpleMessageListenerContainer.
+ *
+ * There is no embedded AMQP broker on the classpath, so this mimics the parts
+ * that matter for consumer throughput: N concurrent consumers, each holding up
+ * to {@code prefetch} unacked messages and handing the listener batches of up to
+ * {@code batchSize}.
+ *
+ * On the publishing side, {@link #confirmingTemplate(long)} stands in for a
+ * RabbitTemplate on a confirm-enabled connection.
+ */
+public class StandInRsvpBroker {
+
+    private final BlockingQueue<RsvpMessage> queue = new LinkedBlockingQueue<>();
+
+    public void publish(RsvpMessage message) {
+        queue.add(message);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * A RabbitTemplate whose sends land in this broker's queue. Confirms arrive
+     * asynchronously: every {@code confirmLatencyMicros} the broker acks all
+     * correlated messages written so far - like a broker that acks everything
+     * written after one round trip and fsync.
+     */
+    public RabbitTemplate confirmingTemplate(long confirmLatencyMicros) {
+        BlockingQueue<CorrelationData> unconfirmed = new LinkedBlockingQueue<>();
+        Thread confirmer = new Thread(() -> {
+            List<CorrelationData> written = new ArrayList<>();
+            try {
+                while (true) {
+                    written.add(unconfirmed.take());
+                    unconfirmed.drainTo(written);
+                    TimeUnit.MICROSECONDS.sleep(confirmLatencyMicros);
+                    for (CorrelationData correlation : written) {
+                        correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+                    }
+                    written.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "stand-in-confirms");
+        confirmer.setDaemon(true);
+        confirmer.start();
+
+        RabbitTemplate template = mock(RabbitTemplate.class);
+        doAnswer(inv -> {
+            publish(inv.getArgument(2));
+            unconfirmed.add(inv.getArgument(3));
+            return null;
+        }).when(template).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        return template;
+    }
+
+    /**
+     * Drains the queue with the given container settings and returns messages/sec.
+     */
+    public double drain(Consumer<List<RsvpMessage>> listener, int concurrency, int prefetch, int batchSize)
+            throws InterruptedException {
+        int total = queue.size();
+        AtomicLong delivered = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Thread consumer = new Thread(() -> {
+                ArrayDeque<RsvpMessage> unacked = new ArrayDeque<>(prefetch);
+                try {
+                    while (true) {
+                        if (unacked.isEmpty()) {
+                            RsvpMessage first = queue.poll(50, TimeUnit.MILLISECONDS);
+                            if (first == null) {
+                                return;
+                            }
+                            unacked.add(first);
+                            queue.drainTo(unacked, prefetch - 1);
+                        }
+                        List<RsvpMessage> batch = new ArrayList<>(batchSize);
+                        while (batch.size() < batchSize && !unacked.isEmpty()) {
+                            batch.add(unacked.poll());
+                        }
+                        listener.accept(batch);
+                        delivered.addAndGet(batch.size());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "stand-in-consumer-" + i);
+            consumer.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        if (delivered.get() != total) {
+            throw new IllegalStateException("Delivered " + delivered.get() + " of " + total + " messages");
+        }
+        return total / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,283 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.titus.developer.jugtours.service.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Cold-start time of the packaged app: from launching the process until it
+ * has answered a first authenticated API request (the events page the home
+ * screen loads), for every combination of
+ * <ul>
+ * <li>{@code aot} - Spring AOT, -Dspring.aot.enabled=true; only when the jar
+ * was built with -Pfast-start</li>
+ * <li>{@code cds} - an AppCDS archive recorded by a training run of the same
+ * jar, as the Dockerfile does</li>
+ * <li>{@code faststart} - the profile with lazy initialization and deferred
+ * seeding</li>
+ * </ul>
+ * and, when target/jugtours exists (mvn -Pnative -DskipTests native:compile),
+ * the native executable with and without faststart. Each is started
+ * -Dstartup.runs times (default 3) and the medians are printed and written to
+ * target/loadtest/StartupBenchmark.json, along with Spring's own "Started ...
+ * in" time and the resident set size once the first request is answered.
+ *
+ * The app runs with -Dstartup.profiles (default prod, what -Pfast-start
+ * and -Pnative build for) on an in-memory H2 database, so no services are needed.
+ *
+ * Run with: mvn -Pfast-start package -DskipTests, then
+ * mvn test -Pbenchmark -Dtest=StartupBenchmark
+ */
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 3);
+    private static final String PROFILES = System.getProperty("startup.profiles", "prod");
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+    private static final String JWT_SECRET = "startup-benchmark-secret-0123456789abcdef";
+
+    private static final Path WORK = Path.of("target/startup");
+    private static final Path NATIVE = Path.of("target/jugtours");
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+    private static final Pattern RSS = Pattern.compile("VmRSS:\\s+(\\d+) kB");
+
+    private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void run() throws Exception {
+        Path jar = packagedJar();
+        assumeTrue(jar != null, "No packaged jar; run mvn -Pfast-start package -DskipTests first");
+        boolean aotBuilt = hasAotClasses(jar);
+
+        Files.createDirectories(WORK);
+        Path app = extract(jar);
+        String token = token();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (boolean aot : aotBuilt ? List.of(false, true) : List.of(false)) {
+            Path archive = train(app, aot);
+            for (boolean cds : List.of(false, true)) {
+                for (boolean faststart : List.of(false, true)) {
+                    List<String> launch = new ArrayList<>(List.of(java, "-Dspring.aot.enabled=" + aot));
+                    if (cds) {
+                        launch.add("-XX:SharedArchiveFile=" + archive);
+                    }
+                    launch.addAll(List.of("-jar", app.toString()));
+                    String name = (aot ? "aot" : "jit") + (cds ? "-cds" : "") + (faststart ? "-faststart" : "");
+                    results.add(measure(name, launch, faststart, token, Map.of("aot", aot, "cds", cds, "native", false)));
+                }
+            }
+        }
+        if (!aotBuilt) {
+            System.out.println("Jar was not built with -Pfast-start; AOT combinations skipped");
+        }
+        if (Files.isExecutable(NATIVE)) {
+            for (boolean faststart : List.of(false, true)) {
+                results.add(measure(faststart ? "native-faststart" : "native", List.of(NATIVE.toString()), faststart,
+                        token, Map.of("aot", true, "cds", false, "native", true)));
+            }
+        } else {
+            System.out.println("No native executable; native combinations skipped");
+        }
+
+        System.out.println(table(results));
+        Path report = Path.of("target/loadtest/StartupBenchmark.json");
+        Files.createDirectories(report.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), results);
+
+        assertThat(results).allSatisfy(result -> assertThat((double) result.get("firstRequestMillis")).isPositive());
+    }
+
+    private Map<String, Object> measure(String name, List<String> launch, boolean faststart, String token,
+            Map<String, Object> attributes) throws Exception {
+        double[] firstRequest = new double[RUNS];
+        double[] started = new double[RUNS];
+        double[] rss = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            int port = freePort();
+            List<String> command = new ArrayList<>(launch);
+            command.addAll(appArguments(port, faststart ? PROFILES + ",faststart" : PROFILES));
+            Path log = WORK.resolve(name + "-" + i + ".log");
+
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+            try {
+                awaitFirstRequest(process, port, token);
+                firstRequest[i] = (System.nanoTime() - start) / 1e6;
+                rss[i] = rssMegabytes(process);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+            started[i] = startedSeconds(log);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("combination", name);
+        result.putAll(new TreeMap<>(attributes));
+        result.put("faststart", faststart);
+        result.put("runs", RUNS);
+        result.put("firstRequestMillis", median(firstRequest));
+        result.put("startedSeconds", median(started));
+        result.put("rssMegabytes", median(rss));
+        return result;
+    }
+
+    private void awaitFirstRequest(Process process, int port, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/events/available?page=0&size=20"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .timeout(TIMEOUT)
+                .build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("App exited with " + process.exitValue() + " before serving a request");
+            }
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    return;
+                }
+                throw new IllegalStateException("First request answered " + status);
+            } catch (IOException notListeningYet) {
+                Thread.sleep(10);
+            }
+        }
+        throw new IllegalStateException("No response within " + TIMEOUT);
+    }
+
+    // Records the classes a full startup loads, the way Spring Boot documents it; lazy
+    // initialization is switched off so the archive covers every bean's classes
+    private Path train(Path app, boolean aot) throws Exception {
+        Path archive = WORK.resolve((aot ? "aot" : "jit") + ".jsa").toAbsolutePath();
+        Files.deleteIfExists(archive);
+        List<String> command = new ArrayList<>(List.of(java, "-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.context.exit=onRefresh", "-Dspring.aot.enabled=" + aot, "-jar", app.toString()));
+        command.addAll(appArguments(freePort(), PROFILES));
+        command.add("--spring.main.lazy-initialization=false");
+        exec(command, WORK.resolve("train-" + (aot ? "aot" : "jit") + ".log"));
+        return archive;
+    }
+
+    private Path extract(Path jar) throws Exception {
+        Path destination = WORK.resolve("app").toAbsolutePath();
+        exec(List.of(java, "-Djarmode=tools", "-jar", jar.toString(), "extract", "--force",
+                "--destination", destination.toString()), WORK.resolve("extract.log"));
+        return destination.resolve(jar.getFileName());
+    }
+
+    private static List<String> appArguments(int port, String profiles) {
+        return List.of(
+                "--spring.profiles.active=" + profiles,
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--jwt.secret=" + JWT_SECRET);
+    }
+
+    private static void exec(List<String> command, Path log) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        if (!process.waitFor(TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Timed out: " + String.join(" ", command));
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("Exit " + process.exitValue() + ", see " + log);
+        }
+    }
+
+    private static String token() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService.generateToken(Map.of("sub", "startup|user", "name", "Startup User",
+                "email", "startup-user@example.com", "picture", ""));
+    }
+
+    private static Path packagedJar() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(file -> file.getFileName().toString().matches("jugtours-.*\\.jar"))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static boolean hasAotClasses(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.getEntry("BOOT-INF/classes/com/titus/developer/jugtours/"
+                    + "JugtoursApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    private static double startedSeconds(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+    }
+
+    // Linux only; NaN elsewhere
+    private static double rssMegabytes(Process process) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return Double.NaN;
+        }
+        Matcher matcher = RSS.matcher(Files.readString(status));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) / 1024.0 : Double.NaN;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String table(List<Map<String, Object>> results) {
+        StringBuilder table = new StringBuilder(String.format("%-22s %18s %14s %10s%n",
+                "Combination", "First request ms", "Started s", "RSS MB"));
+        for (Map<String, Object> result : results) {
+            table.append(String.format("%-22s %18.0f %14.2f %10.0f%n", result.get("combination"),
+                    result.get("firstRequestMillis"), result.get("startedSeconds"), result.get("rssMegabytes")));
+        }
+        return table.toString();
+    }
+}
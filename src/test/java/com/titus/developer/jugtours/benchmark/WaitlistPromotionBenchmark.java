@@ -0,0 +1,145 @@
+package com.titus.developer.jugtours.benchmark;
+
+import com.titus.developer.jugtours.messaging.RsvpMessage;
+import com.titus.developer.jugtours.messaging.RsvpMessagePublisher;
+import com.titus.developer.jugtours.model.Event;
+import com.titus.developer.jugtours.model.EventRepository;
+import com.titus.developer.jugtours.model.Group;
+import com.titus.developer.jugtours.model.GroupRepository;
+import com.titus.developer.jugtours.service.WaitlistService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Promotion latency from events with a 10k+ user waitlist, with the in-memory
+ * head cache effectively off (size 1: every promotion queries the table) and on.
+ * Promotions are not published, so only the waitlist itself is measured.
+ *
+ * Run with: mvn test -Pbenchmark -Dtest=WaitlistPromotionBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.security.oauth2.client.servlet.OAuth2ClientAutoConfiguration"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WaitlistPromotionBenchmark {
+
+    private static final int WAITING = 12_000;
+    private static final int ENQUEUE_BATCH = 500;
+
+    @MockitoBean
+    private RsvpMessagePublisher rsvpPublisher;
+
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private EventRepository eventRepository;
+
+    private Group group;
+
+    @BeforeAll
+    void seed() {
+        group = groupRepository.save(new Group("Waitlist Benchmark JUG"));
+    }
+
+    @Test
+    void promotionLatencyByHeadCacheSize() throws Exception {
+        // Warm up JIT and connection pool
+        run(256, 4, 2_000);
+
+        System.out.println();
+        System.out.println("head cache  threads  enqueue/sec  promotions/sec  p50 us  p99 us");
+        for (int headCacheSize : new int[] { 1, 256 }) {
+            for (int threads : new int[] { 1, 8 }) {
+                Result result = run(headCacheSize, threads, WAITING);
+                System.out.printf("%10d  %7d  %11.0f  %14.0f  %6d  %6d%n", headCacheSize, threads,
+                        result.enqueueRate, result.promotionRate, result.p50Micros, result.p99Micros);
+            }
+        }
+    }
+
+    private Result run(int headCacheSize, int threads, int waiting) throws Exception {
+        ReflectionTestUtils.setField(waitlistService, "headCacheSize", headCacheSize);
+        Long eventId = newEvent();
+
+        long enqueueStart = System.nanoTime();
+        for (int from = 0; from < waiting; from += ENQUEUE_BATCH) {
+            List<RsvpMessage> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + ENQUEUE_BATCH, waiting); i++) {
+                batch.add(new RsvpMessage(eventId, "waiting-" + i, "Waiting " + i, "waiting" + i + "@example.com",
+                        RsvpMessage.WAITLIST));
+            }
+            waitlistService.enqueue(batch);
+        }
+        double enqueueSeconds = (System.nanoTime() - enqueueStart) / 1e9;
+
+        long[] latencies = new long[waiting];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long promoteStart = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < waiting) {
+                    long start = System.nanoTime();
+                    assertThat(waitlistService.promoteNext(eventId)).isPresent();
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double promoteSeconds = (System.nanoTime() - promoteStart) / 1e9;
+        pool.shutdown();
+
+        assertThat(waitlistService.size(eventId)).isZero();
+        Arrays.sort(latencies);
+        return new Result(waiting / enqueueSeconds, waiting / promoteSeconds,
+                latencies[waiting / 2] / 1_000, latencies[(int) (waiting * 0.99)] / 1_000);
+    }
+
+    private Long newEvent() {
+        Event event = new Event();
+        event.setTitle("Sold out " + System.nanoTime());
+        event.setDate(Instant.now());
+        event.setGroup(group);
+        return eventRepository.save(event).getId();
+    }
+
+    private static class Result {
+        final double enqueueRate;
+        final double promotionRate;
+        final long p50Micros;
+        final long p99Micros;
+
+        Result(double enqueueRate, double promotionRate, long p50Micros, long p99Micros) {
+            this.enqueueRate = enqueueRate;
+            this.promotionRate = promotionRate;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");
+console.log("bundle");